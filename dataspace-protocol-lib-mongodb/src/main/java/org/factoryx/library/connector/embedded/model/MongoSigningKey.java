@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Setter
+@Getter
+@ToString(exclude = "encryptedSecret")
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("signing_keys")
+public class MongoSigningKey {
+
+    /**
+     * The key id
+     */
+    @Id
+    private String kid;
+
+    /**
+     * The signature algorithm of the key, e.g. HS256
+     */
+    private String algorithm;
+
+    /**
+     * The secret, encrypted with a data key, which in turn is encrypted with the master key
+     */
+    private String encryptedSecret;
+
+    @Indexed
+    private Instant createdAt;
+}
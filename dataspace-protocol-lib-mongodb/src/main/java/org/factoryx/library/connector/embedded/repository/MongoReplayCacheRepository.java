@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.repository;
+
+import org.factoryx.library.connector.embedded.model.MongoReplayCacheEntry;
+import org.factoryx.library.connector.embedded.provider.repository.ReplayCacheRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface MongoReplayCacheRepository extends MongoRepository<MongoReplayCacheEntry, String>, ReplayCacheRepository {
+
+    @Override
+    default boolean insertIfAbsent(String jti, Instant expiresAt) {
+        try {
+            insert(new MongoReplayCacheEntry(jti, expiresAt));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    void deleteAllByExpiresAtBefore(Instant threshold);
+}
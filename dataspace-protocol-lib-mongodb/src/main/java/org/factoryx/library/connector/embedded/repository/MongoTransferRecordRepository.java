@@ -19,6 +19,8 @@ package org.factoryx.library.connector.embedded.repository;
 import org.factoryx.library.connector.embedded.model.MongoTransferRecord;
 import org.factoryx.library.connector.embedded.provider.repository.TransferRecordRepository;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -30,5 +32,10 @@ public interface MongoTransferRecordRepository extends MongoRepository<MongoTran
     @Override
     Optional<MongoTransferRecord> findById(UUID id);
 
+    @Override
+    @Query("{ '_id' : ?0 }")
+    @Update("{ '$max' : { 'pushedBytes' : ?1 } }")
+    void updatePushedBytes(UUID id, long pushedBytes);
+
 
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(columnList = "expiresAt"))
+public class JpaDataAccessGrant {
+
+    /**
+     * The SHA-256 hash of the opaque token
+     */
+    @Id
+    private String tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    private DataAccessGrant.Type type;
+
+    private String issuer;
+
+    private String contractId;
+
+    @Column(length = 2048)
+    private String target;
+
+    private String partnerId;
+
+    private Instant expiresAt;
+}
@@ -16,6 +16,7 @@
 
 package org.factoryx.library.connector.embedded.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -83,6 +84,18 @@ public class JpaTransferRecord extends TransferRecord {
      */
     private String datasetAddressUrl;
 
+    /**
+     * The value of the Authorization header for requests to the consumer's endpoint (push transfers only)
+     */
+    @Column(length = 4096)
+    private String datasetAddressAuthorization;
+
+    /**
+     * The number of bytes from the start of the dataset, which the consumer's endpoint has
+     * acknowledged (push transfers only). A resumed push transfer continues from here.
+     */
+    private Long pushedBytes;
+
     /**
      * The current state of the transfer
      */
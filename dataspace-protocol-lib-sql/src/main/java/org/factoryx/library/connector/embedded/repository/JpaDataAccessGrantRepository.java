@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.repository;
+
+import org.factoryx.library.connector.embedded.model.JpaDataAccessGrant;
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
+import org.factoryx.library.connector.embedded.provider.repository.DataAccessGrantRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface JpaDataAccessGrantRepository extends JpaRepository<JpaDataAccessGrant, String>, DataAccessGrantRepository {
+
+    @Override
+    default void storeGrant(String tokenHash, DataAccessGrant grant) {
+        save(new JpaDataAccessGrant(tokenHash, grant.type(), grant.issuer(), grant.contractId(), grant.target(),
+                grant.partnerId(), Instant.ofEpochMilli(grant.expiresAt())));
+    }
+
+    @Override
+    default DataAccessGrant findGrant(String tokenHash) {
+        return findById(tokenHash)
+                .map(grant -> new DataAccessGrant(grant.getType(), grant.getIssuer(), grant.getContractId(),
+                        grant.getTarget(), grant.getPartnerId(), grant.getExpiresAt().toEpochMilli()))
+                .orElse(null);
+    }
+
+    @Override
+    @Modifying
+    @Transactional
+    @Query("delete from JpaDataAccessGrant g where g.expiresAt < :threshold")
+    void deleteAllByExpiresAtBefore(@Param("threshold") Instant threshold);
+}
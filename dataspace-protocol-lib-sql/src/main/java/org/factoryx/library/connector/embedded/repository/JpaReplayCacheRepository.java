@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.repository;
+
+import org.factoryx.library.connector.embedded.model.JpaReplayCacheEntry;
+import org.factoryx.library.connector.embedded.provider.repository.ReplayCacheRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface JpaReplayCacheRepository extends JpaRepository<JpaReplayCacheEntry, String>, ReplayCacheRepository {
+
+    @Override
+    default boolean insertIfAbsent(String jti, Instant expiresAt) {
+        try {
+            saveAndFlush(new JpaReplayCacheEntry(jti, expiresAt));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    @Modifying
+    @Transactional
+    @Query("delete from JpaReplayCacheEntry e where e.expiresAt < :threshold")
+    void deleteAllByExpiresAtBefore(@Param("threshold") Instant threshold);
+}
@@ -19,7 +19,11 @@ package org.factoryx.library.connector.embedded.repository;
 import org.factoryx.library.connector.embedded.model.JpaTransferRecord;
 import org.factoryx.library.connector.embedded.provider.repository.TransferRecordRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -31,4 +35,11 @@ public interface JpaTransferRecordRepository extends JpaRepository<JpaTransferRe
     @Override
     Optional<JpaTransferRecord> findById(UUID id);
 
+    @Override
+    @Modifying
+    @Transactional
+    @Query("update JpaTransferRecord t set t.pushedBytes = :pushedBytes " +
+            "where t.ownPid = :id and (t.pushedBytes is null or t.pushedBytes < :pushedBytes)")
+    void updatePushedBytes(@Param("id") UUID id, @Param("pushedBytes") long pushedBytes);
+
 }
@@ -8,6 +8,7 @@ plugins {
     `maven-publish`
     id("org.springframework.boot") version springBootVersion
     id("io.spring.dependency-management") version springDependencyManagementVersion
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 java {
@@ -44,6 +45,7 @@ dependencies {
     implementation("com.nimbusds:nimbus-jose-jwt:10.5")
     implementation("com.google.crypto.tink:tink:1.18.0")
     implementation("org.bouncycastle:bcprov-jdk18on:1.81")
+    implementation("io.micrometer:micrometer-core")
 
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
@@ -76,7 +78,27 @@ tasks {
     }
 }
 
+jmh {
+    jmhVersion = "1.37"
+    includes = listOf(System.getProperty("jmh.includes", ".*"))
+    threads = Integer.getInteger("jmh.threads", 32)
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+}
+
+tasks.register<JavaExec>("jmhThreadSweep") {
+    group = "benchmark"
+    description = "Runs the token benchmarks with 1, 32, 64, 128 and 256 threads"
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "org.factoryx.library.connector.embedded.benchmark.ThreadSweep"
+    args(System.getProperty("jmh.includes", "TokenBenchmark"))
+}
+
 tasks.test {
     systemProperty("testcontainer.tck.disable", System.getProperty("testcontainer.tck.disable", "true"))
     systemProperty("testcontainer.fxint.dim.disable", System.getProperty("testcontainer.fxint.dim.disable", "true"))
+    systemProperty("dcp.standin.loadtest", System.getProperty("dcp.standin.loadtest", "false"))
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how signing and validation hold up, while another thread keeps rotating the signing keys.
+ * This is the worst case for any locking around the keyring.
+ *
+ * @author eschrewe
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class KeyRotationBenchmark {
+
+    private ExecutorService executorService;
+    private TokenServices services;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executorService = Executors.newVirtualThreadPerTaskExecutor();
+        services = new TokenServices("jwt", executorService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    @Group("rotation")
+    @GroupThreads(31)
+    public boolean issueAndValidate() {
+        return services.authorizationService.validateToken(services.issueDataAccessToken());
+    }
+
+    @Benchmark
+    @Group("rotation")
+    @GroupThreads(1)
+    public void rotate() {
+        services.signingKeyring.rotate();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks once per thread count, since JMH's {@code @Threads} can't be swept by a parameter.
+ * The results are written to build/results/jmh/threads-&lt;n&gt;.json.
+ *
+ * @author eschrewe
+ */
+public class ThreadSweep {
+
+    private static final int[] THREAD_COUNTS = {1, 32, 64, 128, 256};
+
+    public static void main(String[] args) throws RunnerException {
+        String includes = args.length > 0 ? args[0] : TokenBenchmark.class.getSimpleName();
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                    .include(includes)
+                    .threads(threads)
+                    .forks(1)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("build/results/jmh/threads-" + threads + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
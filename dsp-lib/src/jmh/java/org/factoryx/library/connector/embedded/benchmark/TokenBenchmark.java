@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of issuing and validating data access, write access and refresh tokens. The thread count is set
+ * via the jmh extension (-Djmh.threads=...) or swept by the jmhThreadSweep task.
+ * <p>
+ * The validate* benchmarks work on a pool of pre-issued tokens and thus mostly measure the warm path, the
+ * issueAndValidate benchmark measures the cold path, where every token is seen for the first time.
+ *
+ * @author eschrewe
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TokenBenchmark {
+
+    private static final int TOKEN_POOL_SIZE = 1024;
+
+    @Param({"jwt", "opaque"})
+    public String tokenMode;
+
+    private ExecutorService executorService;
+    private TokenServices services;
+    private String[] dataAccessTokens;
+    private String[] writeAccessTokens;
+    private String[] refreshTokens;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            next = (next + 1) & (TOKEN_POOL_SIZE - 1);
+            return next;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executorService = Executors.newVirtualThreadPerTaskExecutor();
+        services = new TokenServices(tokenMode, executorService);
+        dataAccessTokens = new String[TOKEN_POOL_SIZE];
+        writeAccessTokens = new String[TOKEN_POOL_SIZE];
+        refreshTokens = new String[TOKEN_POOL_SIZE];
+        for (int i = 0; i < TOKEN_POOL_SIZE; i++) {
+            dataAccessTokens[i] = services.issueDataAccessToken();
+            writeAccessTokens[i] = services.issueWriteAccessToken();
+            refreshTokens[i] = services.issueRefreshToken();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public String issueDataAccessToken() {
+        return services.issueDataAccessToken();
+    }
+
+    @Benchmark
+    public String issueWriteAccessToken() {
+        return services.issueWriteAccessToken();
+    }
+
+    @Benchmark
+    public String issueRefreshToken() {
+        return services.issueRefreshToken();
+    }
+
+    @Benchmark
+    public boolean validateDataAccessToken(Cursor cursor) {
+        return services.validationService.validateDataAccessTokenForAssetId(
+                "Bearer " + dataAccessTokens[cursor.next()], TokenServices.ASSET_ID);
+    }
+
+    @Benchmark
+    public boolean validateWriteAccessToken(Cursor cursor) {
+        return services.validationService.validateWriteAccessTokenForAssetId(
+                "Bearer " + writeAccessTokens[cursor.next()], TokenServices.ASSET_ID);
+    }
+
+    @Benchmark
+    public boolean validateRefreshToken(Cursor cursor) {
+        return services.validationService.validateRefreshToken(refreshTokens[cursor.next()], TokenServices.PARTNER_ID);
+    }
+
+    @Benchmark
+    public void issueAndValidate(Blackhole blackhole) {
+        blackhole.consume(services.validationService.validateDataAccessTokenForAssetId(
+                services.issueDataAccessToken(), TokenServices.ASSET_ID));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.benchmark;
+
+import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
+import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationState;
+import org.factoryx.library.connector.embedded.provider.service.AuthorizationService;
+import org.factoryx.library.connector.embedded.provider.service.ContractRecordService;
+import org.factoryx.library.connector.embedded.provider.service.DataAccessGrantStore;
+import org.factoryx.library.connector.embedded.provider.service.SigningKeyring;
+import org.factoryx.library.connector.embedded.provider.service.helpers.DataAccessTokenValidationService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.EnvService;
+
+import java.lang.reflect.Field;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Wires the token related services without a Spring context, for use in the benchmarks.
+ *
+ * @author eschrewe
+ */
+class TokenServices {
+
+    static final UUID CONTRACT_ID = UUID.fromString("57e5f3ac-c1ef-4361-89c9-71c51c18f089");
+    static final String ASSET_ID = "benchmark-asset";
+    static final String DATA_ADDRESS = "http://localhost:8080/dsp/data-access/" + ASSET_ID;
+    static final String PARTNER_ID = "BPNL000000000001";
+
+    final SigningKeyring signingKeyring;
+    final AuthorizationService authorizationService;
+    final DataAccessTokenValidationService validationService;
+
+    TokenServices(String tokenMode, ExecutorService executorService) {
+        EnvService envService = new EnvService(Optional.empty());
+        setField(envService, "backendId", "provider");
+        signingKeyring = new SigningKeyring(Optional.empty(), executorService);
+        authorizationService = new AuthorizationService(envService, signingKeyring,
+                new DataAccessGrantStore(Optional.empty(), executorService));
+        setField(authorizationService, "tokenMode", tokenMode);
+        NegotiationRecord negotiationRecord = new NegotiationRecord() {
+        };
+        negotiationRecord.setContractId(CONTRACT_ID);
+        negotiationRecord.setTargetAssetId(ASSET_ID);
+        negotiationRecord.setPartnerId(PARTNER_ID);
+        negotiationRecord.setState(NegotiationState.FINALIZED);
+        ContractRecordService contractRecordService = contractId -> CONTRACT_ID.equals(contractId) ? negotiationRecord : null;
+        validationService = new DataAccessTokenValidationService(authorizationService, contractRecordService, envService);
+    }
+
+    String issueDataAccessToken() {
+        return authorizationService.issueDataAccessToken(CONTRACT_ID.toString(), DATA_ADDRESS);
+    }
+
+    String issueWriteAccessToken() {
+        return authorizationService.issueWriteAccessToken(CONTRACT_ID.toString(), ASSET_ID);
+    }
+
+    String issueRefreshToken() {
+        return authorizationService.issueRefreshToken(issueDataAccessToken(), PARTNER_ID);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
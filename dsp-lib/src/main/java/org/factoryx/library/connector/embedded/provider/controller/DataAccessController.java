@@ -17,15 +17,20 @@
 package org.factoryx.library.connector.embedded.provider.controller;
 
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.ApiAsset;
 import org.factoryx.library.connector.embedded.provider.interfaces.DataAssetManagementService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.ApiAssetProxy;
+import org.factoryx.library.connector.embedded.provider.service.helpers.DataAccessResponseWriter;
 import org.factoryx.library.connector.embedded.provider.service.helpers.DataAccessTokenValidationService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.DataAssetRepresentationCache;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.*;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.UUID;
+import java.io.IOException;
 
 
 /**
@@ -41,52 +46,67 @@ public class DataAccessController {
 
     private final DataAssetManagementService dataAssetManagementService;
     private final DataAccessTokenValidationService dataAccessTokenValidationService;
+    private final DataAccessResponseWriter dataAccessResponseWriter;
+    private final DataAssetRepresentationCache dataAssetRepresentationCache;
+    private final ApiAssetProxy apiAssetProxy;
 
-    public DataAccessController(DataAssetManagementService dataAssetManagementService, DataAccessTokenValidationService dataAccessTokenValidationService) {
+    public DataAccessController(DataAssetManagementService dataAssetManagementService, DataAccessTokenValidationService dataAccessTokenValidationService,
+                                DataAccessResponseWriter dataAccessResponseWriter, DataAssetRepresentationCache dataAssetRepresentationCache,
+                                ApiAssetProxy apiAssetProxy) {
         this.dataAssetManagementService = dataAssetManagementService;
         this.dataAccessTokenValidationService = dataAccessTokenValidationService;
+        this.dataAccessResponseWriter = dataAccessResponseWriter;
+        this.dataAssetRepresentationCache = dataAssetRepresentationCache;
+        this.apiAssetProxy = apiAssetProxy;
     }
 
     @GetMapping("${org.factoryx.library.dspapiprefix:/dsp}/data-access/{assetId}")
-    public ResponseEntity<byte[]> dataAccess(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId) {
+    public void dataAccess(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
         boolean tokenValidation = dataAccessTokenValidationService.validateDataAccessTokenForAssetId(authToken, assetId);
         if (!tokenValidation) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
         }
-        var asset = dataAssetManagementService.getById(assetId);
+        var asset = dataAssetRepresentationCache.getById(assetId);
         if (asset == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
         }
-        return ResponseEntity.ok().contentType(MediaType.parseMediaType(asset.getContentType())).body(asset.getDtoRepresentation());
+        // streamed, so that large assets are never held in memory as a whole
+        dataAccessResponseWriter.write(asset, request, response);
     }
 
     @PostMapping("${org.factoryx.library.dspapiprefix:/dsp}/data-access/{assetId}/{*path}")
-    public ResponseEntity<byte[]> forwardPostRequest(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId,
-                                                     @PathVariable String path, @RequestBody byte[] body, @RequestHeader HttpHeaders incomingHeaders,
-                                                     @RequestParam MultiValueMap<String, String> incomingQueryParams) {
-        return forwardApiAssetRequest(assetId, HttpMethod.POST, authToken, path, body, incomingHeaders, incomingQueryParams);
+    public void forwardPostRequest(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId,
+                                   @PathVariable String path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        forwardApiAssetRequest(assetId, HttpMethod.POST, authToken, path, request, response);
     }
 
     @PutMapping("${org.factoryx.library.dspapiprefix:/dsp}/data-access/{assetId}/{*path}")
-    public ResponseEntity<byte[]> forwardPutRequest(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId,
-                                                    @PathVariable String path, @RequestBody byte[] body, @RequestHeader HttpHeaders incomingHeaders,
-                                                    @RequestParam MultiValueMap<String, String> incomingQueryParams) {
-        return forwardApiAssetRequest(assetId, HttpMethod.PUT, authToken, path, body, incomingHeaders, incomingQueryParams);
+    public void forwardPutRequest(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId,
+                                  @PathVariable String path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        forwardApiAssetRequest(assetId, HttpMethod.PUT, authToken, path, request, response);
     }
 
     @DeleteMapping("${org.factoryx.library.dspapiprefix:/dsp}/data-access/{assetId}/{*path}")
-    public ResponseEntity<byte[]> forwardDeleteRequest(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId,
-                                                       @PathVariable String path, @RequestHeader HttpHeaders incomingHeaders,
-                                                       @RequestParam MultiValueMap<String, String> incomingQueryParams) {
-        return forwardApiAssetRequest(assetId, HttpMethod.DELETE, authToken, path, null, incomingHeaders, incomingQueryParams);
+    public void forwardDeleteRequest(@RequestHeader("Authorization") String authToken, @PathVariable("assetId") String assetId,
+                                     @PathVariable String path, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        forwardApiAssetRequest(assetId, HttpMethod.DELETE, authToken, path, request, response);
     }
 
-    private ResponseEntity<byte[]> forwardApiAssetRequest(String assetId, HttpMethod method, String authToken, String path, byte[] body,
-                                                          HttpHeaders incomingHeaders, MultiValueMap<String, String> incomingQueryParams) {
-        boolean tokenValidation = dataAccessTokenValidationService.validateWriteAccessTokenForAssetId(authToken, assetId.toString());
+    private void forwardApiAssetRequest(String assetId, HttpMethod method, String authToken, String path,
+                                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean tokenValidation = dataAccessTokenValidationService.validateWriteAccessTokenForAssetId(authToken, assetId);
         if (!tokenValidation) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
         }
-        return dataAssetManagementService.forwardToApiAsset(assetId, method, body, incomingHeaders, path, incomingQueryParams);
+        // request and response bodies are streamed, unless the management service buffers them itself
+        if (dataAssetManagementService.getById(assetId) instanceof ApiAsset apiAsset && apiAsset.getBackendUrl() != null) {
+            apiAssetProxy.forward(apiAsset, method, path, request, response);
+            return;
+        }
+        dataAssetManagementService.forwardToApiAsset(assetId, method, path, request, response);
     }
-}
\ No newline at end of file
+}
@@ -22,6 +22,9 @@ import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenValid
 import org.factoryx.library.connector.embedded.provider.model.DspVersion;
 import org.factoryx.library.connector.embedded.provider.service.DspCatalogService;
 import org.factoryx.library.connector.embedded.provider.service.deserializers.DeserializerService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.AdmissionRejectedException;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.EndpointClass;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -43,13 +46,13 @@ public class DspCatalogController {
 
     private final DspCatalogService dspCatalogService;
     private final DeserializerService deserializerService;
-    private final DspTokenValidationService dspTokenValidationService;
+    private final AdmissionControlService admissionControlService;
 
     public DspCatalogController(DspCatalogService dspCatalogService, DeserializerService deserializerService,
-                                DspTokenValidationService dspTokenValidationService) {
+                                AdmissionControlService admissionControlService) {
         this.dspCatalogService = dspCatalogService;
         this.deserializerService = deserializerService;
-        this.dspTokenValidationService = dspTokenValidationService;
+        this.admissionControlService = admissionControlService;
     }
 
     /**
@@ -88,7 +91,7 @@ public class DspCatalogController {
 
         try {
             log.info("Starting token validation");
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.CATALOG);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             log.info("Got Result from token validation: {}", partnerId);
             if (partnerId == null) {
@@ -97,6 +100,8 @@ public class DspCatalogController {
             JsonObject jsonResponse = dspCatalogService.getFullCatalog(partnerId, tokenValidationResult, version);
             return ResponseEntity.status(HttpStatus.OK).body(jsonResponse.toString());
 
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             // Handle any unexpected errors
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while processing the request.");
@@ -118,7 +123,7 @@ public class DspCatalogController {
     private ResponseEntity<String> handleDatasetRequest(String authString, String id, DspVersion version) {
         try {
             log.info("Starting token validation");
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.CATALOG);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             log.info("Got Result from token validation: {}", partnerId);
             if (partnerId == null) {
@@ -128,6 +133,8 @@ public class DspCatalogController {
             if (datasetResponse != null) {
                 return ResponseEntity.status(HttpStatus.OK).body(datasetResponse.toString());
             }
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
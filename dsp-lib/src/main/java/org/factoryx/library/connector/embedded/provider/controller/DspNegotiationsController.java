@@ -24,6 +24,9 @@ import org.factoryx.library.connector.embedded.provider.service.DspNegotiationSe
 import org.factoryx.library.connector.embedded.provider.service.deserializers.DeserializerService;
 import org.factoryx.library.connector.embedded.provider.service.deserializers.service_dtos.ContractVerificationMessage;
 import org.factoryx.library.connector.embedded.provider.service.deserializers.service_dtos.NegotiationTerminationMessage;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.AdmissionRejectedException;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.EndpointClass;
 import org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils;
 import org.factoryx.library.connector.embedded.provider.service.deserializers.service_dtos.ContractRequestMessage;
 import org.springframework.http.HttpStatus;
@@ -47,13 +50,13 @@ public class DspNegotiationsController {
 
     private final DspNegotiationService dspNegotiationService;
     private final DeserializerService deserializerService;
-    private final DspTokenValidationService dspTokenValidationService;
+    private final AdmissionControlService admissionControlService;
 
     public DspNegotiationsController(DspNegotiationService dspNegotiationService, DeserializerService deserializerService,
-                                     DspTokenValidationService dspTokenValidationService) {
+                                     AdmissionControlService admissionControlService) {
         this.dspNegotiationService = dspNegotiationService;
         this.deserializerService = deserializerService;
-        this.dspTokenValidationService = dspTokenValidationService;
+        this.admissionControlService = admissionControlService;
     }
 
     /**
@@ -88,7 +91,7 @@ public class DspNegotiationsController {
         log.info("Raw body \n{}", prettyPrint(rawJson));
         try {
             log.info("Starting validation");
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.NEGOTIATION);
             log.info("Got Validation result: {}", tokenValidationResult);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
@@ -105,6 +108,8 @@ public class DspNegotiationsController {
             ResponseRecord responseRecord =
                     dspNegotiationService.handleNewNegotiation(contractRequestMessage, partnerId, tokenValidationResult, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             return ResponseEntity.status(401).build();
@@ -145,7 +150,7 @@ public class DspNegotiationsController {
     private ResponseEntity<byte[]> handleVerificationRequest(String rawJson, String authString, UUID providerPid, DspVersion version) {
         log.info("negotiations/agreement/verification on version {} \n{}", version, JsonUtils.prettyPrint(rawJson));
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.NEGOTIATION);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized request".getBytes());
@@ -160,6 +165,8 @@ public class DspNegotiationsController {
             ResponseRecord responseRecord =
                     dspNegotiationService.handleVerificationRequest(contractVerificationMessage, partnerId, providerPid, version);
             return ResponseEntity.status(responseRecord.statusCode()).build();
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             return ResponseEntity.status(401).build();
@@ -183,7 +190,7 @@ public class DspNegotiationsController {
     private ResponseEntity<byte[]> handleTerminationRequest(String rawJson, String authString, UUID providerPid, DspVersion version) {
         try {
             log.info("negotiation/termination received under version {} \n{}", version, JsonUtils.prettyPrint(rawJson));
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.NEGOTIATION);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized request".getBytes());
@@ -197,6 +204,8 @@ public class DspNegotiationsController {
 
             ResponseRecord responseRecord = dspNegotiationService.handleNegotiationTerminationRequest(terminationMessage, partnerId, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             return ResponseEntity.status(401).build();
@@ -218,13 +227,15 @@ public class DspNegotiationsController {
     private ResponseEntity<byte[]> handleGetNegotiationStatusRequest(String authString, UUID providerPid, DspVersion version) {
         try {
             log.info("Negotiation status received request for {} under version {}", providerPid, version);
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.NEGOTIATION);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized request".getBytes());
             }
             ResponseRecord responseRecord = dspNegotiationService.handleGetNegotiationStatusRequest(providerPid, partnerId, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             return ResponseEntity.status(401).build();
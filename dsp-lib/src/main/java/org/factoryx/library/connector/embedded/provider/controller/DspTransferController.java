@@ -23,6 +23,9 @@ import org.factoryx.library.connector.embedded.provider.model.ResponseRecord;
 import org.factoryx.library.connector.embedded.provider.service.DspTransferService;
 import org.factoryx.library.connector.embedded.provider.service.deserializers.DeserializerService;
 import org.factoryx.library.connector.embedded.provider.service.deserializers.service_dtos.*;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.AdmissionRejectedException;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.EndpointClass;
 import org.factoryx.library.connector.embedded.provider.service.helpers.DataAccessTokenValidationService;
 import org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils;
 import org.springframework.http.HttpStatus;
@@ -45,18 +48,18 @@ import static org.factoryx.library.connector.embedded.provider.service.helpers.J
 public class DspTransferController {
 
     private final DspTransferService dspTransferService;
-    private final DspTokenValidationService dspTokenValidationService;
+    private final AdmissionControlService admissionControlService;
     private final DataAccessTokenValidationService dataAccessTokenValidationService;
     private final DeserializerService deserializerService;
 
     private static final String GRANT_TYPE_REFRESH_TOKEN = "refresh_token";
 
     public DspTransferController(DspTransferService dspTransferService,
-                                 DspTokenValidationService dspTokenValidationService,
+                                 AdmissionControlService admissionControlService,
                                  DataAccessTokenValidationService dataAccessTokenValidationService,
                                  DeserializerService deserializerService) {
         this.dspTransferService = dspTransferService;
-        this.dspTokenValidationService = dspTokenValidationService;
+        this.admissionControlService = admissionControlService;
         this.dataAccessTokenValidationService = dataAccessTokenValidationService;
         this.deserializerService = deserializerService;
     }
@@ -84,7 +87,7 @@ public class DspTransferController {
     private ResponseEntity<byte[]> handlePullTransferRequest(String requestBody, String authString, DspVersion version) {
         log.info("transfers/request under version {}: \n{}", version, JsonUtils.prettyPrint(requestBody));
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.TRANSFER);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -97,6 +100,8 @@ public class DspTransferController {
             }
             ResponseRecord responseRecord = dspTransferService.handleNewTransfer(transferRequestMessage, partnerId, tokenValidationResult, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -116,7 +121,7 @@ public class DspTransferController {
 
     private ResponseEntity<byte[]> handleTransferCompletionMessage(String requestBody, String authString, UUID providerPid, DspVersion version) {
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.TRANSFER);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -129,6 +134,8 @@ public class DspTransferController {
             }
             ResponseRecord responseRecord = dspTransferService.handleCompletionRequest(transferCompletionMessage, partnerId, providerPid, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -148,7 +155,7 @@ public class DspTransferController {
 
     private ResponseEntity<byte[]> handleGetTransferRequest(String authString, UUID providerPid, DspVersion version) {
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.TRANSFER);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -156,6 +163,8 @@ public class DspTransferController {
 
             ResponseRecord responseRecord = dspTransferService.handleGetStatusRequest(providerPid, partnerId, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -177,7 +186,7 @@ public class DspTransferController {
 
     private ResponseEntity<byte[]> handleTransferTerminationMessage(String requestBody, String authString, UUID providerPid, DspVersion version) {
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.TRANSFER);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -190,6 +199,8 @@ public class DspTransferController {
             }
             ResponseRecord responseRecord = dspTransferService.handleTerminationRequest(terminationMessage, partnerId, providerPid, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -211,7 +222,7 @@ public class DspTransferController {
 
     private ResponseEntity<byte[]> handleTransferSuspensionMessage(String requestBody, String authString, UUID providerPid, DspVersion version) {
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.TRANSFER);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -224,6 +235,8 @@ public class DspTransferController {
             }
             ResponseRecord responseRecord = dspTransferService.handleSuspensionRequest(suspensionMessage, partnerId, providerPid, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -247,7 +260,7 @@ public class DspTransferController {
 
     private ResponseEntity<byte[]> handleTransferStartMessage(String requestBody, String authString, UUID providerPid, DspVersion version) {
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.TRANSFER);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -255,6 +268,8 @@ public class DspTransferController {
             TransferStartMessage transferStartMessage = deserializerService.deserializeTransferStartMessage(requestBody, version);
             ResponseRecord responseRecord = dspTransferService.handleStartRequest(transferStartMessage, partnerId, providerPid, version);
             return ResponseEntity.status(responseRecord.statusCode()).body(responseRecord.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -274,7 +289,7 @@ public class DspTransferController {
             @RequestParam(name = "refresh_token", required = false) String refreshToken,
             @RequestHeader("Authorization") String authString) {
         try {
-            Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+            Map<String, String> tokenValidationResult = admissionControlService.validateToken(authString, EndpointClass.TRANSFER);
             String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
             if (partnerId == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -295,6 +310,8 @@ public class DspTransferController {
 
             log.info("Response: {}", response.responseBody());
             return ResponseEntity.status(response.statusCode()).body(response.responseBody());
+        } catch (AdmissionRejectedException e) {
+            return e.toResponse();
         } catch (Exception e) {
             log.error("Error processing refresh token request", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.controller;
+
+import org.factoryx.library.connector.embedded.provider.service.SigningKeyring;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the public keys, that data access tokens are signed with, so that external data planes
+ * can verify the tokens locally. Only populated, if an asymmetric signing algorithm is configured.
+ *
+ * @author eschrewe
+ */
+@RestController
+public class JwksController {
+
+    private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
+    private final SigningKeyring signingKeyring;
+
+    public JwksController(SigningKeyring signingKeyring) {
+        this.signingKeyring = signingKeyring;
+    }
+
+    @GetMapping("${org.factoryx.library.dspapiprefix:/dsp}/.well-known/jwks.json")
+    public ResponseEntity<String> jwks() {
+        // a new key is used right away, so clients have to refetch the set upon an unknown key id
+        return ResponseEntity.ok()
+                .contentType(JWK_SET)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(signingKeyring.getPublicKeys().toString(true));
+    }
+}
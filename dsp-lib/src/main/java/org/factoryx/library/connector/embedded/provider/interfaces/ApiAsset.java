@@ -16,6 +16,38 @@
 
 package org.factoryx.library.connector.embedded.provider.interfaces;
 
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * A DataAsset that represents an API, which partners may call with a write access token.
+ * <p>
+ * If {@link #getBackendUrl()} is provided, requests are forwarded to the backend by the built-in
+ * streaming proxy. Otherwise, they are handed over to
+ * {@link DataAssetManagementService#forwardToApiAsset(String, org.springframework.http.HttpMethod, String,
+ * jakarta.servlet.http.HttpServletRequest, jakarta.servlet.http.HttpServletResponse)}.
+ *
+ * @author eschrewe
+ */
 public interface ApiAsset extends DataAsset {
 
+    /**
+     * The base URL of the backend API. The path and the query of an incoming request (i.e. everything after
+     * /data-access/{assetId}) are appended to it. Requests that would leave this base path are rejected.
+     *
+     * @return the base URL, or null if requests should be handed over to the DataAssetManagementService
+     */
+    default URI getBackendUrl() {
+        return null;
+    }
+
+    /**
+     * Headers that are added to every request to the backend, e.g. an API key. The Authorization header of the
+     * incoming request (the consumer's token) is never forwarded.
+     *
+     * @return the headers
+     */
+    default Map<String, String> getBackendHeaders() {
+        return Map.of();
+    }
 }
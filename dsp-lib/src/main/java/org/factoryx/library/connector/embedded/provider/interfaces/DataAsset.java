@@ -16,6 +16,13 @@
 
 package org.factoryx.library.connector.embedded.provider.interfaces;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 
 /**
@@ -68,4 +75,67 @@ public interface DataAsset {
      */
     byte[] getDtoRepresentation();
 
+    /**
+     * The length of the DTO representation in bytes, if it is known without creating the representation.
+     * Allows sending the Content-Length header when streaming.
+     *
+     * @return the length, or -1 if unknown
+     */
+    default long getDtoRepresentationLength() {
+        return -1;
+    }
+
+    /**
+     * Opens a channel for reading the DTO representation. Large assets should override this method,
+     * so that they are streamed to the consumer instead of being held in memory as a whole.
+     * The default implementation wraps {@link #getDtoRepresentation()}.
+     *
+     */
+    default ReadableByteChannel openDtoRepresentationChannel() throws IOException {
+        return Channels.newChannel(new ByteArrayInputStream(getDtoRepresentation()));
+    }
+
+    /**
+     * If the DTO representation is a file as is, you can return its path here. The file will then be handed
+     * to the servlet container's sendfile support where available, so that its content is never copied into
+     * the Java heap. Otherwise it is streamed through a buffer.
+     *
+     * @return the path of the file, or null
+     */
+    default Path getDtoRepresentationFile() {
+        return null;
+    }
+
+    /**
+     * An identifier of the current version of the DTO representation, e.g. a revision number or a content hash.
+     * It must change whenever the representation changes. If provided, it is sent as (strong) ETag and allows
+     * consumers to poll with If-None-Match, which is answered with 304 Not Modified without creating the representation.
+     * Should therefore be cheap to compute.
+     *
+     * @return the version, or null if unknown
+     */
+    default String getVersion() {
+        return null;
+    }
+
+    /**
+     * The point in time, when the DTO representation was last modified. If provided, it is sent as Last-Modified
+     * header and allows consumers to poll with If-Modified-Since.
+     *
+     * @return the last modification, or null if unknown
+     */
+    default Instant getLastModified() {
+        return null;
+    }
+
+    /**
+     * How long the DTO representation may be cached on the data access path, if the representation cache
+     * is enabled (org.factoryx.library.dataaccess.cache.enabled). Duration.ZERO disables caching for this asset.
+     *
+     * @return the time to live, or null for the configured default
+     */
+    default Duration getDtoRepresentationCacheTtl() {
+        return null;
+    }
+
 }
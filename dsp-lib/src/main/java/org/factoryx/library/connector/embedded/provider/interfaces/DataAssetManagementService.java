@@ -16,12 +16,19 @@
 
 package org.factoryx.library.connector.embedded.provider.interfaces;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriUtils;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -71,8 +78,58 @@ public interface DataAssetManagementService {
      */
     List<DataAsset> getAll(Map<String, String> partnerProperties);
 
+    /**
+     * Handles a request to an {@link ApiAsset}, which does not provide a backend URL for the built-in proxy.
+     * The write access token has already been validated.
+     * <p>
+     * Prefer the streaming variant {@link #forwardToApiAsset(String, HttpMethod, String, HttpServletRequest, HttpServletResponse)}
+     * for large request or response bodies, since both are buffered here.
+     *
+     * @param apiAssetId          the id of the ApiAsset
+     * @param method              the http method
+     * @param requestBody         the request body, null for DELETE requests
+     * @param headers             the headers of the incoming request
+     * @param path                the path after /data-access/{assetId}
+     * @param incomingQueryParams the query parameters of the incoming request
+     * @return the response to send to the consumer
+     */
     default ResponseEntity<byte[]> forwardToApiAsset(String apiAssetId, HttpMethod method, byte[] requestBody,
                                                      HttpHeaders headers, String path, MultiValueMap<String, String> incomingQueryParams) {
         return new ResponseEntity<>(HttpStatus.NOT_IMPLEMENTED);
     }
+
+    /**
+     * Handles a request to an {@link ApiAsset}, which does not provide a backend URL for the built-in proxy,
+     * by reading from the request and writing to the response directly. The write access token has already been validated.
+     * <p>
+     * The default implementation buffers the request body and delegates to
+     * {@link #forwardToApiAsset(String, HttpMethod, byte[], HttpHeaders, String, MultiValueMap)}.
+     *
+     * @param apiAssetId the id of the ApiAsset
+     * @param method     the http method
+     * @param path       the path after /data-access/{assetId}
+     * @param request    the incoming request
+     * @param response   the response to write to
+     * @throws IOException if the request can't be read or the response can't be written
+     */
+    default void forwardToApiAsset(String apiAssetId, HttpMethod method, String path, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        byte[] requestBody = HttpMethod.DELETE.equals(method) ? null : request.getInputStream().readAllBytes();
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+        if (request.getQueryString() != null) {
+            for (String parameter : request.getQueryString().split("&")) {
+                int separator = parameter.indexOf('=');
+                String name = separator < 0 ? parameter : parameter.substring(0, separator);
+                String value = separator < 0 ? "" : parameter.substring(separator + 1);
+                queryParams.add(UriUtils.decode(name, StandardCharsets.UTF_8), UriUtils.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+        ResponseEntity<byte[]> result = forwardToApiAsset(apiAssetId, method, requestBody,
+                new ServletServerHttpRequest(request).getHeaders(), path, queryParams);
+        response.setStatus(result.getStatusCode().value());
+        result.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (result.getBody() != null) {
+            response.getOutputStream().write(result.getBody());
+        }
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.interfaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A content coding (e.g. gzip, br or zstd), in which DTO representations can be sent on the data access path,
+ * if the consumer accepts it. The library provides gzip. Further codings can be added by providing a bean
+ * implementing this interface, typically backed by a native compression library.
+ *
+ * @author eschrewe
+ */
+public interface RepresentationEncoder {
+
+    /**
+     * The content coding token, as used in the Accept-Encoding and Content-Encoding headers.
+     */
+    String getEncoding();
+
+    /**
+     * Decides between codings, that the consumer accepts with the same quality. Higher values are preferred.
+     */
+    default int getPriority() {
+        return 0;
+    }
+
+    /**
+     * Wraps the given stream, so that everything written to the returned stream is encoded. Closing the
+     * returned stream must finish the encoding and close the given stream.
+     *
+     * @param outputStream the stream to write the encoded data to
+     * @return the encoding stream
+     * @throws IOException if the encoder can't be created
+     */
+    OutputStream encode(OutputStream outputStream) throws IOException;
+}
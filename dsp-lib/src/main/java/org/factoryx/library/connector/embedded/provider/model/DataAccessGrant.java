@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.model;
+
+/**
+ * The compact grant, that an issued data access, write access or refresh token stands for.
+ *
+ * @param type       the kind of token
+ * @param issuer     the issuer, i.e. the read-only or the write access issuer
+ * @param contractId the id of the contract the grant is based on
+ * @param target     the data address (data access and refresh tokens) or the asset id (write access tokens)
+ * @param partnerId  the partner the token was issued to (refresh tokens only), otherwise null
+ * @param expiresAt  the point in time (epoch millis) after which the token is rejected
+ *
+ * @author eschrewe
+ */
+public record DataAccessGrant(Type type, String issuer, String contractId, String target, String partnerId,
+                              long expiresAt) {
+
+    public enum Type {
+        DATA_ACCESS, WRITE_ACCESS, REFRESH
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.model.negotiation;
+
+import java.util.UUID;
+
+/**
+ * A read-only projection of a NegotiationRecord, that contains only what is needed to authorize
+ * data access under a contract.
+ *
+ * @param contractId    the id of the contract
+ * @param targetAssetId the id of the asset, which the contract grants access to
+ * @param partnerId     the id of the partner
+ * @param state         the state of the negotiation
+ *
+ * @author eschrewe
+ */
+public record ContractProjection(UUID contractId, String targetAssetId, String partnerId, NegotiationState state) {
+
+    /**
+     * Creates the projection of the given record.
+     *
+     * @param negotiationRecord the record
+     * @return the projection
+     */
+    public static ContractProjection of(NegotiationRecord negotiationRecord) {
+        return new ContractProjection(negotiationRecord.getContractId(), negotiationRecord.getTargetAssetId(),
+                negotiationRecord.getPartnerId(), negotiationRecord.getState());
+    }
+}
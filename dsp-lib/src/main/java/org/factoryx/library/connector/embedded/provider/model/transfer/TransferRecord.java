@@ -34,6 +34,11 @@ import java.util.UUID;
 @Slf4j
 @ToString
 public abstract class TransferRecord {
+
+    public static final String HTTP_PULL = "HTTP_PULL";
+
+    public static final String HTTP_PUSH = "HTTP_PUSH";
+
     /**
      * The transfer id on the Provider side (our side)
      * <p>
@@ -81,6 +86,17 @@ public abstract class TransferRecord {
      */
     private String datasetAddressUrl;
 
+    /**
+     * The value of the Authorization header for requests to the consumer's endpoint (push transfers only)
+     */
+    private String datasetAddressAuthorization;
+
+    /**
+     * The number of bytes from the start of the dataset, which the consumer's endpoint has
+     * acknowledged (push transfers only). A resumed push transfer continues from here.
+     */
+    private Long pushedBytes;
+
     /**
      * The current state of the transfer
      */
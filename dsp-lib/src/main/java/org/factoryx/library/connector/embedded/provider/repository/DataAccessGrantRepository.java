@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.repository;
+
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
+
+import java.time.Instant;
+
+/**
+ * Repository type for sharing the grants behind opaque data access tokens between all instances of a provider.
+ * The tokens themselves are never stored, only their SHA-256 hashes.
+ *
+ * @author eschrewe
+ */
+public interface DataAccessGrantRepository {
+
+    /**
+     * Stores the given grant.
+     *
+     * @param tokenHash the hash of the token
+     * @param grant     the grant
+     */
+    void storeGrant(String tokenHash, DataAccessGrant grant);
+
+    /**
+     * Looks up the grant for the given token hash.
+     *
+     * @param tokenHash the hash of the token
+     * @return the grant, or null if there is none
+     */
+    DataAccessGrant findGrant(String tokenHash);
+
+    /**
+     * Removes all grants that have expired before the given point in time.
+     *
+     * @param threshold the point in time
+     */
+    void deleteAllByExpiresAtBefore(Instant threshold);
+}
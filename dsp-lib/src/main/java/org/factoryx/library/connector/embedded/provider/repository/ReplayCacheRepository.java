@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.repository;
+
+import java.time.Instant;
+
+/**
+ * Repository type for persisting the token ids (jti) of already received DCP tokens,
+ * so that replay protection works across several instances and survives restarts.
+ *
+ * @author eschrewe
+ */
+public interface ReplayCacheRepository {
+
+    /**
+     * Stores the given token id, unless it is already known. Implementations must make this
+     * an atomic operation (e.g. by relying on a uniqueness constraint), so that two instances
+     * can never both succeed in registering the same jti.
+     *
+     * @param jti       the token id
+     * @param expiresAt the point in time after which the entry is obsolete and may be purged
+     * @return true, if the jti was stored, false if it was already known
+     */
+    boolean insertIfAbsent(String jti, Instant expiresAt);
+
+    /**
+     * Removes all entries that have expired before the given point in time.
+     *
+     * @param threshold the point in time
+     */
+    void deleteAllByExpiresAtBefore(Instant threshold);
+}
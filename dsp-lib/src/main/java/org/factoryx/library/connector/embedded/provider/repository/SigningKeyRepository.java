@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository type for sharing the keys, that sign data access tokens, between all instances of a provider.
+ * The secrets are only ever stored in encrypted form.
+ *
+ * @author eschrewe
+ */
+public interface SigningKeyRepository {
+
+    /**
+     * A signing key as it is stored.
+     *
+     * @param kid             the key id, as it appears in the JWS header
+     * @param algorithm       the signature algorithm of the key, e.g. HS256
+     * @param encryptedSecret the encrypted secret
+     * @param createdAt       the point in time, when the key was created
+     */
+    record StoredSigningKey(String kid, String algorithm, String encryptedSecret, Instant createdAt) {
+    }
+
+    /**
+     * Stores the given key.
+     *
+     * @param key the key
+     */
+    void storeKey(StoredSigningKey key);
+
+    /**
+     * Loads all keys, that were created after the given point in time.
+     *
+     * @param threshold the point in time
+     * @return the keys
+     */
+    List<StoredSigningKey> loadKeysCreatedAfter(Instant threshold);
+
+    /**
+     * Removes all keys, that were created before the given point in time.
+     *
+     * @param threshold the point in time
+     */
+    void deleteAllByCreatedAtBefore(Instant threshold);
+}
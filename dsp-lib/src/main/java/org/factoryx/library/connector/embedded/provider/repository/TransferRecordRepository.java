@@ -30,4 +30,13 @@ public interface TransferRecordRepository {
     Optional<? extends TransferRecord> findById(UUID id);
 
     TransferRecord save(TransferRecord record);
+
+    /**
+     * Sets the pushed bytes of the given record, unless they are already at least as high,
+     * without touching any other field.
+     *
+     * @param id          the id of the record
+     * @param pushedBytes the acknowledged number of bytes
+     */
+    void updatePushedBytes(UUID id, long pushedBytes);
 }
@@ -17,22 +17,23 @@
 package org.factoryx.library.connector.embedded.provider.service;
 
 import com.nimbusds.jose.*;
-import com.nimbusds.jose.crypto.MACSigner;
-import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
 import org.factoryx.library.connector.embedded.provider.service.helpers.EnvService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
@@ -40,6 +41,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * This service allows creating a JWT for authorizing a DSP transfer as well
  * as methods for conveniently validating a token's signature and accessing its
  * claims.
+ * <p>
+ * Alternatively, with the token mode set to "opaque", random reference tokens are issued instead
+ * of JWTs, which are resolved by the {@link DataAccessGrantStore}.
  *
  * @author dalmasoud
  * @author eschrewe
@@ -49,39 +53,47 @@ public class AuthorizationService {
 
     private final long tokenValidityInMilliSeconds = 1000L * 60 * 5; // five minutes
     private final long refreshTokenValidityInMilliSeconds = 1000L * 60 * 30; // thirty minutes
-    private final Duration keyRotationInterval = Duration.ofHours(1); // must be larger than token validity
     public final static String CONTRACT_ID = "cid";
     public final static String DATA_ADDRESS = "dad";
     public final static String TOKEN = "token";
     public final static String API_ASSET_ID = "apiAssetId";
     private final EnvService envService;
+    private final SigningKeyring signingKeyring;
+    private final DataAccessGrantStore dataAccessGrantStore;
 
-    private JWSSigner signer;
-    private LocalDateTime signerInitializedAt = LocalDateTime.now();
+    /**
+     * Either "jwt" (self-contained signed tokens) or "opaque" (random reference tokens)
+     */
+    @Value("${org.factoryx.library.dataaccess.tokenmode:jwt}")
+    private String tokenMode;
 
-    private JWSVerifier verifier;
-    private JWSVerifier previousVerifier;
+    private static final long LEEWAY = 5000; // five seconds
+    private static final int MAX_CACHED_INTROSPECTIONS = 10_000;
 
     /**
-     * Prevent race conditions during key rotation.
+     * Successfully verified tokens, keyed by the SHA-256 hash of the token
      */
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentHashMap<String, VerifiedToken> introspectionCache = new ConcurrentHashMap<>();
 
-    public AuthorizationService(EnvService envService) {
+    /**
+     * The result of a successful token validation.
+     *
+     * @param kid               the id of the key the token was signed with
+     * @param claims            the claims of the token
+     * @param nestedTokenClaims the claims of the access token nested in a refresh token, otherwise null
+     * @param validUntil        the point in time (epoch millis) until which the token is accepted
+     */
+    public record VerifiedToken(String kid, JWTClaimsSet claims, JWTClaimsSet nestedTokenClaims, long validUntil) {
+    }
+
+    public AuthorizationService(EnvService envService, SigningKeyring signingKeyring, DataAccessGrantStore dataAccessGrantStore) {
         this.envService = envService;
-        try {
-            String secretString = generateSecretKey();
-            signer = new MACSigner(secretString);
-            verifier = new MACVerifier(secretString);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        this.signingKeyring = signingKeyring;
+        this.dataAccessGrantStore = dataAccessGrantStore;
     }
 
-    private String generateSecretKey() {
-        byte[] key = new byte[32];
-        new SecureRandom().nextBytes(key);
-        return Base64.getEncoder().encodeToString(key);
+    public boolean isOpaqueTokenMode() {
+        return "opaque".equalsIgnoreCase(tokenMode);
     }
 
     public String getAuthType() {
@@ -90,27 +102,19 @@ public class AuthorizationService {
 
 
     public String issueWriteAccessToken(String contractId, String assetId) {
-        rotateKeys();
-        lock.readLock().lock();
-        try {
-            long now = System.currentTimeMillis();
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                    .issuer(envService.getApiAssetWriteAccessIssuer())
-                    .claim(CONTRACT_ID, contractId)
-                    .claim(API_ASSET_ID, assetId.toString())
-                    .issueTime(new Date(now))
-                    .expirationTime(new Date(now + tokenValidityInMilliSeconds))
-                    .build();
-
-            SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claimsSet);
-            signedJWT.sign(signer);
-
-            return signedJWT.serialize();
-        } catch (JOSEException e) {
-            throw new RuntimeException("Error signing JWT", e);
-        } finally {
-            lock.readLock().unlock();
+        long now = System.currentTimeMillis();
+        if (isOpaqueTokenMode()) {
+            return dataAccessGrantStore.issue(new DataAccessGrant(DataAccessGrant.Type.WRITE_ACCESS,
+                    envService.getApiAssetWriteAccessIssuer(), contractId, assetId, null, now + tokenValidityInMilliSeconds));
         }
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer(envService.getApiAssetWriteAccessIssuer())
+                .claim(CONTRACT_ID, contractId)
+                .claim(API_ASSET_ID, assetId.toString())
+                .issueTime(new Date(now))
+                .expirationTime(new Date(now + tokenValidityInMilliSeconds))
+                .build();
+        return sign(claimsSet, "Error signing JWT");
     }
 
     /**
@@ -121,28 +125,19 @@ public class AuthorizationService {
      * @return the generated JWT token
      */
     public String issueDataAccessToken(String cid, String dad) {
-        rotateKeys();
-
-        lock.readLock().lock();
-        try {
-            long now = System.currentTimeMillis();
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                    .issuer(envService.getSingleAssetReadOnlyDataAccessIssuer())
-                    .claim(CONTRACT_ID, cid)
-                    .claim(DATA_ADDRESS, dad)
-                    .issueTime(new Date(now))
-                    .expirationTime(new Date(now + tokenValidityInMilliSeconds))
-                    .build();
-
-            SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claimsSet);
-            signedJWT.sign(signer);
-
-            return signedJWT.serialize();
-        } catch (JOSEException e) {
-            throw new RuntimeException("Error signing JWT", e);
-        } finally {
-            lock.readLock().unlock();
+        long now = System.currentTimeMillis();
+        if (isOpaqueTokenMode()) {
+            return dataAccessGrantStore.issue(new DataAccessGrant(DataAccessGrant.Type.DATA_ACCESS,
+                    envService.getSingleAssetReadOnlyDataAccessIssuer(), cid, dad, null, now + tokenValidityInMilliSeconds));
         }
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer(envService.getSingleAssetReadOnlyDataAccessIssuer())
+                .claim(CONTRACT_ID, cid)
+                .claim(DATA_ADDRESS, dad)
+                .issueTime(new Date(now))
+                .expirationTime(new Date(now + tokenValidityInMilliSeconds))
+                .build();
+        return sign(claimsSet, "Error signing JWT");
     }
 
     /**
@@ -152,17 +147,114 @@ public class AuthorizationService {
      * @return true if the token has valid signature and is not expired, false otherwise
      */
     public boolean validateToken(String token) {
+        return isOpaqueTokenMode() ? dataAccessGrantStore.lookup(token) != null : introspect(token) != null;
+    }
+
+    /**
+     * Resolves the grant, that the given data access, write access or refresh token stands for.
+     * Works in both token modes: opaque tokens are looked up, JWTs are introspected.
+     *
+     * @param token the token
+     * @return the grant, or null if the token is invalid or has expired
+     */
+    public DataAccessGrant resolveGrant(String token) {
+        if (isOpaqueTokenMode()) {
+            return dataAccessGrantStore.lookup(token);
+        }
+        VerifiedToken verified = introspect(token);
+        if (verified == null) {
+            return null;
+        }
+        try {
+            return toGrant(verified);
+        } catch (ParseException e) {
+            log.warn("Failure while reading claims of verified token", e);
+            return null;
+        }
+    }
+
+    private static DataAccessGrant toGrant(VerifiedToken verified) throws ParseException {
+        JWTClaimsSet claims = verified.claims();
+        JWTClaimsSet accessTokenClaims = verified.nestedTokenClaims();
+        if (accessTokenClaims != null) {
+            // a refresh token is only meaningful, if it was issued together with its access token
+            if (!Objects.equals(claims.getIssuer(), accessTokenClaims.getIssuer())) {
+                return null;
+            }
+            return new DataAccessGrant(DataAccessGrant.Type.REFRESH, claims.getIssuer(),
+                    accessTokenClaims.getStringClaim(CONTRACT_ID), accessTokenClaims.getStringClaim(DATA_ADDRESS),
+                    claims.getSubject(), verified.validUntil());
+        }
+        String apiAssetId = claims.getStringClaim(API_ASSET_ID);
+        return apiAssetId != null
+                ? new DataAccessGrant(DataAccessGrant.Type.WRITE_ACCESS, claims.getIssuer(), claims.getStringClaim(CONTRACT_ID),
+                apiAssetId, null, verified.validUntil())
+                : new DataAccessGrant(DataAccessGrant.Type.DATA_ACCESS, claims.getIssuer(), claims.getStringClaim(CONTRACT_ID),
+                claims.getStringClaim(DATA_ADDRESS), null, verified.validUntil());
+    }
+
+    /**
+     * Validates the given token and returns its claims. Successful results are cached by the token's hash
+     * until the token expires, so that repeated requests with the same token neither parse the token
+     * nor verify its signature again. A cached result is dropped as soon as the signing key has been retired.
+     *
+     * @param token the JWT token to validate
+     * @return the verified token, or null if the signature is invalid or the token has expired
+     */
+    public VerifiedToken introspect(String token) {
+        if (token == null) {
+            return null;
+        }
+        String cacheKey = hash(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = introspectionCache.get(cacheKey);
+        if (cached != null) {
+            if (cached.validUntil() >= now && signingKeyring.getVerifier(cached.kid()) != null) {
+                return cached;
+            }
+            introspectionCache.remove(cacheKey, cached);
+            return null;
+        }
+        VerifiedToken verified = verify(token, now);
+        if (verified != null) {
+            if (introspectionCache.size() >= MAX_CACHED_INTROSPECTIONS) {
+                introspectionCache.values().removeIf(entry -> entry.validUntil() < now);
+                if (introspectionCache.size() >= MAX_CACHED_INTROSPECTIONS) {
+                    introspectionCache.clear();
+                }
+            }
+            introspectionCache.put(cacheKey, verified);
+        }
+        return verified;
+    }
+
+    private VerifiedToken verify(String token, long now) {
         try {
             SignedJWT signedJWT = SignedJWT.parse(token);
-            lock.readLock().lock();
-            boolean signatureValid = signedJWT.verify(verifier) || signedJWT.verify(previousVerifier);
-            long leeway = 5000; // five seconds
-            boolean notExpired = signedJWT.getJWTClaimsSet().getExpirationTime().getTime() >= System.currentTimeMillis() - leeway;
-            return signatureValid && notExpired;
+            String kid = signedJWT.getHeader().getKeyID();
+            JWSVerifier verifier = signingKeyring.getVerifier(kid);
+            if (verifier == null || !signedJWT.verify(verifier)) {
+                return null;
+            }
+            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+            long validUntil = claims.getExpirationTime().getTime() + LEEWAY;
+            if (validUntil < now) {
+                return null;
+            }
+            // the nested access token of a refresh token is covered by the refresh token's signature
+            String nestedToken = claims.getStringClaim(TOKEN);
+            JWTClaimsSet nestedTokenClaims = nestedToken == null ? null : SignedJWT.parse(nestedToken).getJWTClaimsSet();
+            return new VerifiedToken(kid, claims, nestedTokenClaims, validUntil);
         } catch (Exception e) {
-            return false;
-        } finally {
-            lock.readLock().unlock();
+            return null;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -188,51 +280,34 @@ public class AuthorizationService {
      * @return the refresh token
      */
     public String issueRefreshToken(String accessToken, String partnerId) {
-        rotateKeys();
-        lock.readLock().lock();
-        try {
-            long now = System.currentTimeMillis();
-
-            String issuerId = envService.getSingleAssetReadOnlyDataAccessIssuer();
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                    .issuer(issuerId)
-                    .subject(partnerId)
-                    .claim(TOKEN, accessToken)
-                    .issueTime(new Date(now))
-                    .expirationTime(new Date(now + refreshTokenValidityInMilliSeconds))
-                    .build();
-
-            SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claimsSet);
-            signedJWT.sign(signer);
-
-            return signedJWT.serialize();
-        } catch (JOSEException e) {
-            throw new RuntimeException("Error signing refresh token", e);
-        } finally {
-            lock.readLock().unlock();
+        long now = System.currentTimeMillis();
+        String issuerId = envService.getSingleAssetReadOnlyDataAccessIssuer();
+        if (isOpaqueTokenMode()) {
+            DataAccessGrant accessGrant = dataAccessGrantStore.lookup(accessToken);
+            if (accessGrant == null) {
+                throw new IllegalArgumentException("Unknown access token");
+            }
+            return dataAccessGrantStore.issue(new DataAccessGrant(DataAccessGrant.Type.REFRESH, issuerId,
+                    accessGrant.contractId(), accessGrant.target(), partnerId, now + refreshTokenValidityInMilliSeconds));
         }
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer(issuerId)
+                .subject(partnerId)
+                .claim(TOKEN, accessToken)
+                .issueTime(new Date(now))
+                .expirationTime(new Date(now + refreshTokenValidityInMilliSeconds))
+                .build();
+        return sign(claimsSet, "Error signing refresh token");
     }
 
-    /**
-     * Rotates the keys used for signing and verifying JWT tokens if the key
-     * rotation interval has passed.
-     */
-    private void rotateKeys() {
-        lock.writeLock().lock();
+    private String sign(JWTClaimsSet claimsSet, String errorMessage) {
         try {
-            try {
-                if (LocalDateTime.now().isAfter(signerInitializedAt.plus(keyRotationInterval))) {
-                    String secretString = generateSecretKey();
-                    signer = new MACSigner(secretString);
-                    previousVerifier = verifier;
-                    verifier = new MACVerifier(secretString);
-                    signerInitializedAt = LocalDateTime.now();
-                }
-            } catch (JOSEException e) {
-                throw new RuntimeException("Error rotating keys", e);
-            }
-        } finally {
-            lock.writeLock().unlock();
+            SigningKeyring.SigningKey key = signingKeyring.currentKey();
+            SignedJWT signedJWT = new SignedJWT(new JWSHeader.Builder(key.algorithm()).keyID(key.kid()).build(), claimsSet);
+            signedJWT.sign(key.signer());
+            return signedJWT.serialize();
+        } catch (JOSEException e) {
+            throw new RuntimeException(errorMessage, e);
         }
     }
 }
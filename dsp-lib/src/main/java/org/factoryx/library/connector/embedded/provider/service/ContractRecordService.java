@@ -16,6 +16,7 @@
 
 package org.factoryx.library.connector.embedded.provider.service;
 
+import org.factoryx.library.connector.embedded.provider.model.negotiation.ContractProjection;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
 
 import java.util.UUID;
@@ -37,5 +38,17 @@ public interface ContractRecordService {
      */
     NegotiationRecord findByContractId(UUID contractId);
 
+    /**
+     * Returns the projection of the NegotiationRecord, which is associated with the given contract id.
+     * Intended for the authorization of data access requests, implementations may serve it from memory.
+     *
+     * @param contractId - the id of the required contract
+     * @return - the projection if the record exists, else null
+     */
+    default ContractProjection findContract(UUID contractId) {
+        NegotiationRecord negotiationRecord = findByContractId(contractId);
+        return negotiationRecord == null ? null : ContractProjection.of(negotiationRecord);
+    }
+
 }
 
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
+import org.factoryx.library.connector.embedded.provider.repository.DataAccessGrantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues opaque data access tokens, i.e. random strings without any content, and keeps the
+ * {@link DataAccessGrant} each of them stands for. Validating such a token takes a hash and a map lookup,
+ * neither parsing nor signature verification is needed.
+ * <p>
+ * The grants are held in memory, keyed by the SHA-256 hash of the token, and additionally in an index
+ * ordered by expiry, so that expired grants are purged without scanning all entries. If a
+ * {@link DataAccessGrantRepository} is available, every grant is also stored there, so that tokens
+ * issued by one instance are accepted by all other instances.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class DataAccessGrantStore {
+
+    private static final int TOKEN_LENGTH = 32; // bytes
+
+    /**
+     * Interval after which expired grants are purged from the repository
+     */
+    private final Duration cleanUpInterval = Duration.ofMinutes(1);
+
+    private final ConcurrentHashMap<String, DataAccessGrant> grants = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListSet<Expiry> expiryIndex = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Expiry::expiresAt).thenComparing(Expiry::tokenHash));
+
+    private record Expiry(long expiresAt, String tokenHash) {
+    }
+
+    private final AtomicLong nextCleanUp = new AtomicLong();
+
+    @Value("${org.factoryx.library.dataaccess.persistentgrants:true}")
+    private boolean usePersistentGrants;
+
+    private final DataAccessGrantRepository dataAccessGrantRepository;
+    private final ExecutorService executorService;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public DataAccessGrantStore(Optional<DataAccessGrantRepository> dataAccessGrantRepository, ExecutorService executorService) {
+        this.dataAccessGrantRepository = dataAccessGrantRepository.orElse(null);
+        this.executorService = executorService;
+    }
+
+    /**
+     * Creates a new opaque token for the given grant.
+     *
+     * @param grant the grant
+     * @return the token
+     */
+    public String issue(DataAccessGrant grant) {
+        byte[] bytes = new byte[TOKEN_LENGTH];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String tokenHash = hash(token);
+        purgeExpired(System.currentTimeMillis());
+        put(tokenHash, grant);
+        if (isPersistent()) {
+            try {
+                dataAccessGrantRepository.storeGrant(tokenHash, grant);
+            } catch (Exception e) {
+                log.error("Failure while persisting data access grant for contract {}", grant.contractId(), e);
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Looks up the grant for the given token.
+     *
+     * @param token the opaque token
+     * @return the grant, or null if the token is unknown or expired
+     */
+    public DataAccessGrant lookup(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        String tokenHash = hash(token);
+        DataAccessGrant grant = grants.get(tokenHash);
+        if (grant == null && isPersistent()) {
+            grant = loadGrant(tokenHash, now);
+        }
+        return grant == null || grant.expiresAt() < now ? null : grant;
+    }
+
+    private DataAccessGrant loadGrant(String tokenHash, long now) {
+        try {
+            DataAccessGrant grant = dataAccessGrantRepository.findGrant(tokenHash);
+            if (grant != null && grant.expiresAt() >= now) {
+                put(tokenHash, grant);
+            }
+            return grant;
+        } catch (Exception e) {
+            log.error("Failure while loading data access grant", e);
+            return null;
+        }
+    }
+
+    private void put(String tokenHash, DataAccessGrant grant) {
+        grants.put(tokenHash, grant);
+        expiryIndex.add(new Expiry(grant.expiresAt(), tokenHash));
+    }
+
+    /**
+     * Removes all expired grants, starting with the earliest expiry, so that only the expired
+     * entries are touched.
+     */
+    private void purgeExpired(long now) {
+        Expiry first;
+        while ((first = expiryIndex.pollFirst()) != null) {
+            if (first.expiresAt() >= now) {
+                expiryIndex.add(first);
+                break;
+            }
+            grants.remove(first.tokenHash());
+        }
+        cleanUpRepositoryIfDue(now);
+    }
+
+    private void cleanUpRepositoryIfDue(long now) {
+        long due = nextCleanUp.get();
+        if (!isPersistent() || now < due || !nextCleanUp.compareAndSet(due, now + cleanUpInterval.toMillis())) {
+            return;
+        }
+        executorService.submit(() -> {
+            try {
+                dataAccessGrantRepository.deleteAllByExpiresAtBefore(Instant.ofEpochMilli(now));
+            } catch (Exception e) {
+                log.warn("Failure while purging expired data access grants", e);
+            }
+        });
+    }
+
+    private boolean isPersistent() {
+        return usePersistentGrants && dataAccessGrantRepository != null;
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
 import org.factoryx.library.connector.embedded.provider.interfaces.DataAssetManagementService;
 import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenProviderService;
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
 import org.factoryx.library.connector.embedded.provider.model.DspVersion;
 import org.factoryx.library.connector.embedded.provider.model.ResponseRecord;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
@@ -35,8 +36,10 @@ import org.factoryx.library.connector.embedded.provider.service.helpers.SendTran
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
@@ -68,10 +71,12 @@ public class DspTransferService {
 
     private final DspTokenProviderService dspTokenProviderService;
 
+    private final HttpPushTransferService httpPushTransferService;
+
     public DspTransferService(TransferRecordService transferRecordService,
                               DataAssetManagementService dataManagementService, AuthorizationService authorizationService,
                               ExecutorService executorService, RestClient restClient, EnvService envService,
-                              DspTokenProviderService dspTokenProviderService) {
+                              DspTokenProviderService dspTokenProviderService, HttpPushTransferService httpPushTransferService) {
         this.transferRecordService = transferRecordService;
         this.dataManagementService = dataManagementService;
         this.authorizationService = authorizationService;
@@ -79,6 +84,7 @@ public class DspTransferService {
         this.restClient = restClient;
         this.envService = envService;
         this.dspTokenProviderService = dspTokenProviderService;
+        this.httpPushTransferService = httpPushTransferService;
     }
 
     /**
@@ -94,8 +100,17 @@ public class DspTransferService {
         String consumerPid = transferRequestMessage.getConsumerPid();
         String partnerDspUrl = transferRequestMessage.getPartnerDspUrl();
         UUID agreementId = transferRequestMessage.getAgreementId();
-        TransferRecord newRecord = transferRecordService.createTransferRecord(consumerPid, partnerId,
-                partnerDspUrl, agreementId.toString());
+        boolean push = isPushFormat(transferRequestMessage.getFormat());
+        TransferRecord newRecord = push
+                ? transferRecordService.createPushTransferRecord(consumerPid, partnerId, partnerDspUrl,
+                agreementId.toString(), transferRequestMessage.getDataAddressEndpoint(),
+                transferRequestMessage.getDataAddressAuthorization())
+                : transferRecordService.createTransferRecord(consumerPid, partnerId, partnerDspUrl, agreementId.toString());
+
+        if (push && !isValidEndpoint(transferRequestMessage.getDataAddressEndpoint())) {
+            log.warn("Invalid data address for push transfer: {}", transferRequestMessage.getDataAddressEndpoint());
+            return abortTransferWithBadRequest(newRecord, "Push transfer requires a data address with an http(s) endpoint", version);
+        }
 
         NegotiationRecord negotiationRecord = transferRecordService
                 .findNegotiationRecordByAgreementId(agreementId);
@@ -122,12 +137,41 @@ public class DspTransferService {
 
         log.debug("Sending Response:\n{}", prettyPrint(new String(ackResponse)));
 
-        executorService.submit(new SendTransferStartedTask(newRecord.getOwnPid(), transferRecordService,
-                authorizationService, restClient, envService, dspTokenProviderService, version, dataset));
+        SendTransferStartedTask sendTransferStartedTask = new SendTransferStartedTask(newRecord.getOwnPid(),
+                transferRecordService, authorizationService, restClient, envService, dspTokenProviderService, version, dataset);
+        if (push) {
+            UUID transferId = newRecord.getOwnPid();
+            executorService.submit(() -> {
+                sendTransferStartedTask.run();
+                httpPushTransferService.push(transferId, dataset, version);
+            });
+        } else {
+            executorService.submit(sendTransferStartedTask);
+        }
 
         return new ResponseRecord(ackResponse, 201);
     }
 
+    /**
+     * Recognizes push formats, e.g. "HTTP_PUSH" or "HttpData-PUSH"
+     */
+    private static boolean isPushFormat(String format) {
+        return format != null && format.toUpperCase(Locale.ROOT).endsWith("PUSH");
+    }
+
+    private static boolean isValidEndpoint(String endpoint) {
+        if (endpoint == null) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(endpoint);
+            return ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                    && uri.getHost() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     private static byte[] createResponse(TransferRecord entry, DspVersion version) {
         String prefix = DspVersion.V_08.equals(version) ? "dpace:" : "";
         String type = entry.getState().equals(TransferState.TERMINATED) ? prefix + "TransferError"
@@ -257,6 +301,9 @@ public class DspTransferService {
         if (transferRecord.getPartnerId().equals(partnerId) && startMessage.getProviderPid().equals(providerPid)) {
             transferRecord = transferRecordService.updateTransferRecordState(providerPid, TransferState.STARTED);
             if (transferRecord != null) {
+                if (TransferRecord.HTTP_PUSH.equals(transferRecord.getFormat())) {
+                    resumePush(transferRecord, version);
+                }
                 return new ResponseRecord(createResponse(transferRecord, version), 200);
             }
         }
@@ -264,6 +311,20 @@ public class DspTransferService {
                 "TransferError", List.of("Invalid start request"), version), 400);
     }
 
+    /**
+     * Continues the upload of a resumed push transfer from the last acknowledged position.
+     */
+    private void resumePush(TransferRecord transferRecord, DspVersion version) {
+        DataAsset dataset = dataManagementService.getById(transferRecord.getDatasetId());
+        if (dataset == null) {
+            log.warn("Dataset {} of push transfer {} is no longer available", transferRecord.getDatasetId(),
+                    transferRecord.getOwnPid());
+            transferRecordService.updateTransferRecordState(transferRecord.getOwnPid(), TransferState.TERMINATED);
+            return;
+        }
+        log.info("Resuming push transfer {} at byte {}", transferRecord.getOwnPid(), transferRecord.getPushedBytes());
+        executorService.submit(() -> httpPushTransferService.push(transferRecord.getOwnPid(), dataset, version));
+    }
 
     /**
      * This method handles incoming token refresh requests from the
@@ -280,16 +341,14 @@ public class DspTransferService {
         try {
             refreshToken = refreshToken.replace("Bearer ", "").replace("bearer ", "");
 
-            var refreshTokenClaims = authorizationService.extractAllClaims(refreshToken);
-            String accessToken = refreshTokenClaims.getStringClaim(AuthorizationService.TOKEN);
-            String partnerId = refreshTokenClaims.getSubject();
-
-            var accessTokenClaims = authorizationService.extractAllClaims(accessToken);
-            String contractId = accessTokenClaims.getStringClaim(AuthorizationService.CONTRACT_ID);
-            String datasetAddressUrl = accessTokenClaims.getStringClaim(AuthorizationService.DATA_ADDRESS);
+            // usually served from the introspection cache, since the token has just been validated
+            DataAccessGrant grant = authorizationService.resolveGrant(refreshToken);
+            if (grant == null || grant.type() != DataAccessGrant.Type.REFRESH) {
+                return new ResponseRecord("Invalid refresh token".getBytes(StandardCharsets.UTF_8), 400);
+            }
 
-            String newAccessToken = authorizationService.issueDataAccessToken(contractId, datasetAddressUrl);
-            String newRefreshToken = authorizationService.issueRefreshToken(accessToken, partnerId);
+            String newAccessToken = authorizationService.issueDataAccessToken(grant.contractId(), grant.target());
+            String newRefreshToken = authorizationService.issueRefreshToken(newAccessToken, grant.partnerId());
 
             long expiresIn = 300;
             return new ResponseRecord(
@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenProviderService;
+import org.factoryx.library.connector.embedded.provider.model.DspVersion;
+import org.factoryx.library.connector.embedded.provider.model.transfer.TransferRecord;
+import org.factoryx.library.connector.embedded.provider.model.transfer.TransferState;
+import org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uploads the datasets of push transfers (format HTTP_PUSH) to the endpoint, that the consumer has sent
+ * in the DataAddress of its TransferRequestMessage.
+ * <p>
+ * The representation is read sequentially and uploaded in chunks, several of them in parallel. Each chunk is
+ * sent as a PUT request with a Content-Range header, so the consumer's endpoint must accept partial uploads.
+ * Failed chunks are retried with exponential backoff. A chunk is only read, once it may be uploaded, both
+ * within its transfer and across all transfers, so at most that many chunks are held in memory.
+ * <p>
+ * The number of bytes, up to which all chunks have been acknowledged, is stored in the transfer record.
+ * When the transfer is suspended, no further chunks are sent, and a resumed transfer continues from the
+ * stored position. When all chunks have been acknowledged, the transfer is COMPLETED and the consumer
+ * receives a TransferCompletionMessage. If a chunk still fails after all retries, the transfer is SUSPENDED
+ * and the consumer receives a TransferSuspensionMessage, so that it can resume the transfer later.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class HttpPushTransferService {
+
+    @Value("${org.factoryx.library.push.chunksize:8MB}")
+    private DataSize chunkSize = DataSize.ofMegabytes(8);
+
+    /**
+     * Maximum number of chunks of a transfer, that are uploaded at the same time
+     */
+    @Value("${org.factoryx.library.push.parallelism:4}")
+    private int parallelism = 4;
+
+    /**
+     * Maximum number of chunks of all transfers, that are held in memory and uploaded at the same time
+     */
+    @Value("${org.factoryx.library.push.maxchunksinflight:16}")
+    private int maxChunksInFlight = 16;
+
+    @Value("${org.factoryx.library.push.maxretries:5}")
+    private int maxRetries = 5;
+
+    /**
+     * Time to wait before the first retry of a chunk, doubled with every further retry
+     */
+    @Value("${org.factoryx.library.push.retrybackoff:PT1S}")
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    @Value("${org.factoryx.library.push.requesttimeout:PT5M}")
+    private Duration requestTimeout = Duration.ofMinutes(5);
+
+    private final TransferRecordService transferRecordService;
+    private final ExecutorService executorService;
+    private final RestClient restClient;
+    private final DspTokenProviderService dspTokenProviderService;
+    private HttpClient httpClient;
+    private Semaphore chunksInFlight;
+
+    /**
+     * The transfers, that are currently uploaded, and those among them, that have been resumed
+     * in the meantime. Guarded by this.
+     */
+    private final Set<UUID> running = new HashSet<>();
+    private final Set<UUID> resumed = new HashSet<>();
+
+    public HttpPushTransferService(TransferRecordService transferRecordService, ExecutorService executorService,
+                                   RestClient restClient, DspTokenProviderService dspTokenProviderService) {
+        this.transferRecordService = transferRecordService;
+        this.executorService = executorService;
+        this.restClient = restClient;
+        this.dspTokenProviderService = dspTokenProviderService;
+    }
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executorService)
+                .build();
+        chunksInFlight = new Semaphore(maxChunksInFlight);
+    }
+
+    /**
+     * Uploads the dataset of the given transfer, starting at the last acknowledged position. Returns when
+     * the transfer is completed, suspended or terminated. If the transfer is already being uploaded, e.g. because
+     * it has been suspended and resumed while its last chunks were still in flight, the running upload continues
+     * after those chunks.
+     *
+     * @param transferId the id of a STARTED push transfer
+     * @param dataAsset  the dataset of the transfer
+     * @param version    the DSP version of the transfer
+     */
+    public void push(UUID transferId, DataAsset dataAsset, DspVersion version) {
+        synchronized (this) {
+            if (!running.add(transferId)) {
+                resumed.add(transferId);
+                return;
+            }
+        }
+        while (true) {
+            try {
+                upload(transferId, dataAsset, version);
+            } catch (Exception e) {
+                log.error("Failure while pushing transfer {}", transferId, e);
+            }
+            synchronized (this) {
+                if (!resumed.remove(transferId)) {
+                    running.remove(transferId);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void upload(UUID transferId, DataAsset dataAsset, DspVersion version) throws InterruptedException {
+        TransferRecord transferRecord = transferRecordService.findByTransferRecordId(transferId);
+        if (transferRecord == null || transferRecord.getState() != TransferState.STARTED) {
+            return;
+        }
+        URI endpoint = URI.create(transferRecord.getDatasetAddressUrl());
+        long offset = transferRecord.getPushedBytes() == null ? 0 : transferRecord.getPushedBytes();
+        long total = length(dataAsset);
+        log.info("Pushing transfer {} to {}, starting at byte {}", transferId, endpoint, offset);
+
+        Checkpoint checkpoint = new Checkpoint(transferId, offset);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Semaphore permits = new Semaphore(parallelism);
+        long position = offset;
+        boolean finished = false;
+        try (ReadableByteChannel channel = open(dataAsset)) {
+            skip(channel, offset);
+            while (true) {
+                permits.acquire();
+                try {
+                    chunksInFlight.acquire();
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+                Runnable release = () -> {
+                    chunksInFlight.release();
+                    permits.release();
+                };
+                byte[] chunk;
+                try {
+                    chunk = failure.get() == null && isStarted(transferId) ? readChunk(channel) : null;
+                } catch (IOException e) {
+                    release.run();
+                    throw e;
+                }
+                if (chunk == null || (chunk.length == 0 && position > 0)) {
+                    release.run();
+                    finished = chunk != null;
+                    break;
+                }
+                long start = position;
+                position += chunk.length;
+                executorService.execute(() -> {
+                    try {
+                        if (sendChunk(transferId, endpoint, transferRecord.getDatasetAddressAuthorization(),
+                                dataAsset.getContentType(), chunk, start, total)) {
+                            checkpoint.acknowledge(start, start + chunk.length);
+                        }
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        release.run();
+                    }
+                });
+                if (chunk.length == 0) {
+                    // the representation is empty, the single empty request is the whole upload
+                    finished = true;
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            // wait for the chunks in flight
+            permits.acquire(parallelism);
+        }
+
+        if (failure.get() != null) {
+            log.warn("Suspending transfer {} at byte {}: {}", transferId, checkpoint.getAcknowledged(),
+                    failure.get().getMessage());
+            if (transferRecordService.updateTransferRecordState(transferId, TransferState.SUSPENDED) != null) {
+                notifyConsumer(transferRecord, "TransferSuspensionMessage", "suspension", version,
+                        "Upload to the data address failed");
+            }
+        } else if (finished) {
+            log.info("Pushed {} bytes for transfer {}", checkpoint.getAcknowledged(), transferId);
+            if (transferRecordService.updateTransferRecordState(transferId, TransferState.COMPLETED) != null) {
+                notifyConsumer(transferRecord, "TransferCompletionMessage", "completion", version, null);
+            }
+        } else {
+            log.info("Stopped pushing transfer {} at byte {}", transferId, checkpoint.getAcknowledged());
+        }
+    }
+
+    private boolean isStarted(UUID transferId) {
+        TransferRecord transferRecord = transferRecordService.findByTransferRecordId(transferId);
+        return transferRecord != null && transferRecord.getState() == TransferState.STARTED;
+    }
+
+    /**
+     * Uploads a single chunk, retrying on connection failures, timeouts and status codes, that indicate
+     * a temporary problem. Retries are only sent, as long as the transfer is STARTED.
+     *
+     * @return false, if the transfer has been stopped before the chunk was acknowledged
+     */
+    private boolean sendChunk(UUID transferId, URI endpoint, String authorization, String contentType, byte[] chunk,
+                              long start, long total) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+                .timeout(requestTimeout)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(chunk));
+        if (chunk.length > 0) {
+            builder.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + chunk.length - 1) + "/"
+                    + (total < 0 ? "*" : total));
+        }
+        if (contentType != null) {
+            builder.header(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+        if (authorization != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        HttpRequest request = builder.build();
+        Duration backoff = retryBackoff;
+        for (int attempt = 0; ; attempt++) {
+            int status;
+            try {
+                status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                // connection failures and timeouts
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                status = -1;
+            }
+            if (status / 100 == 2) {
+                return true;
+            }
+            if (status != -1 && (!isRetryable(status) || attempt >= maxRetries)) {
+                throw new IOException("Endpoint answered with status " + status + " for bytes " + start);
+            }
+            log.debug("Retrying bytes {} of upload to {} in {}", start, endpoint, backoff);
+            Thread.sleep(backoff.toMillis());
+            backoff = backoff.multipliedBy(2);
+            if (!isStarted(transferId)) {
+                log.debug("Dropping bytes {} of upload to {}, the transfer has been stopped", start, endpoint);
+                return false;
+            }
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 408 || status == 429 || status / 100 == 5;
+    }
+
+    private byte[] readChunk(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) chunkSize.toBytes());
+        while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // read until the chunk is full or the end is reached
+        }
+        return buffer.position() == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static void skip(ReadableByteChannel channel, long bytes) throws IOException {
+        if (bytes == 0) {
+            return;
+        }
+        if (channel instanceof SeekableByteChannel seekableChannel) {
+            seekableChannel.position(bytes);
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long remaining = bytes;
+        while (remaining > 0) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+            int read = channel.read(buffer);
+            if (read == -1) {
+                return;
+            }
+            remaining -= read;
+        }
+    }
+
+    private static ReadableByteChannel open(DataAsset dataAsset) throws IOException {
+        Path file = dataAsset.getDtoRepresentationFile();
+        return file != null ? FileChannel.open(file, StandardOpenOption.READ) : dataAsset.openDtoRepresentationChannel();
+    }
+
+    private static long length(DataAsset dataAsset) {
+        Path file = dataAsset.getDtoRepresentationFile();
+        if (file == null) {
+            return dataAsset.getDtoRepresentationLength();
+        }
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void notifyConsumer(TransferRecord transferRecord, String type, String path, DspVersion version, String reason) {
+        String prefix = DspVersion.V_08.equals(version) ? "dspace:" : "";
+        JsonObjectBuilder message = Json.createObjectBuilder()
+                .add("@context", JsonUtils.getContextForDspVersion(version))
+                .add("@type", prefix + type)
+                .add(prefix + "consumerPid", transferRecord.getConsumerPid())
+                .add(prefix + "providerPid", transferRecord.getOwnPid().toString());
+        if (reason != null) {
+            message.add(prefix + "reason", Json.createArrayBuilder()
+                    .add(Json.createObjectBuilder().add("@value", reason).add("@language", "en")));
+        }
+        String requestBody = message.build().toString();
+        String targetURL = transferRecord.getPartnerDspUrl() + "/transfers/" + transferRecord.getConsumerPid() + "/" + path;
+        try {
+            restClient
+                    .post()
+                    .uri(targetURL)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", dspTokenProviderService.provideTokenForPartner(transferRecord))
+                    .body(requestBody)
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError,
+                            (request, resp) -> log.warn("Error sending {} to {}, status code: {}",
+                                    type, targetURL, resp.getStatusCode()))
+                    .toBodilessEntity();
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tracks the acknowledged chunks of an upload and stores the position, up to which all chunks have been
+     * acknowledged. Chunks, that are acknowledged out of order, are only stored, once the gap before them is closed.
+     */
+    private class Checkpoint {
+        private final UUID transferId;
+        private long acknowledged;
+
+        /**
+         * Start and end of the chunks, that have been acknowledged beyond the gap
+         */
+        private final TreeMap<Long, Long> pending = new TreeMap<>();
+
+        Checkpoint(UUID transferId, long acknowledged) {
+            this.transferId = transferId;
+            this.acknowledged = acknowledged;
+        }
+
+        synchronized void acknowledge(long start, long end) {
+            pending.put(start, end);
+            long previous = acknowledged;
+            Long next;
+            while ((next = pending.remove(acknowledged)) != null) {
+                acknowledged = next;
+            }
+            if (acknowledged > previous) {
+                transferRecordService.updatePushedBytes(transferId, acknowledged);
+            }
+        }
+
+        synchronized long getAcknowledged() {
+            return acknowledged;
+        }
+    }
+}
@@ -17,17 +17,27 @@
 package org.factoryx.library.connector.embedded.provider.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.model.negotiation.ContractProjection;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationState;
 import org.factoryx.library.connector.embedded.provider.repository.NegotiationRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 @Slf4j
 /**
  * This service allows to persist, read and update NegotiationRecord entities
+ * <p>
+ * The projections of finalized contracts are kept in an LRU cache, so that the authorization of
+ * data access requests doesn't need a database query. The cache is updated synchronously with every
+ * state change made by this service. State changes made by other instances become visible after
+ * the configured maximum age of an entry at the latest.
  *
  * @author eschrewe
  *
@@ -37,6 +47,34 @@ public class NegotiationRecordService implements ContractRecordService {
     protected final NegotiationRecordFactory recordFactory;
     protected final NegotiationRecordRepository repository;
 
+    @Value("${org.factoryx.library.contractcache.maxsize:10000}")
+    private int contractCacheMaxSize = 10_000;
+
+    /**
+     * Upper bound for the lifetime of a cached contract. A zero or negative value disables the cache.
+     */
+    @Value("${org.factoryx.library.contractcache.maxage:PT5M}")
+    private Duration contractCacheMaxAge = Duration.ofMinutes(5);
+
+    private record CachedContract(ContractProjection contract, long cachedAt) {
+    }
+
+    /**
+     * The projections of finalized contracts in access order. All access is guarded by the map itself.
+     */
+    private final Map<UUID, CachedContract> finalizedContracts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, CachedContract> eldest) {
+            return size() > contractCacheMaxSize;
+        }
+    };
+
+    /**
+     * Counts the local state changes, so that a projection that was loaded concurrently with
+     * a state change is not cached.
+     */
+    private long stateChanges;
+
     public NegotiationRecordService(NegotiationRecordFactory recordFactory, NegotiationRecordRepository repository) {
         this.repository = repository;
         this.recordFactory = recordFactory;
@@ -94,7 +132,9 @@ public class NegotiationRecordService implements ContractRecordService {
                 existingRecord.setContractId(contractId);
             }
             existingRecord.setState(newState);
-            return repository.save(existingRecord);
+            NegotiationRecord savedRecord = repository.save(existingRecord);
+            updateContractProjection(savedRecord);
+            return savedRecord;
         } else {
             log.warn("Update failed, unknown NegotiationRecord id: {}", negotiationRecordId);
             return null;
@@ -113,4 +153,54 @@ public class NegotiationRecordService implements ContractRecordService {
         }
         return result.getFirst();
     }
+
+    /**
+     * Serves the projections of finalized contracts from memory, all others (and cache misses)
+     * from the database.
+     */
+    @Override
+    public ContractProjection findContract(UUID contractId) {
+        if (contractId == null) {
+            return null;
+        }
+        long stateChangesBeforeLoad;
+        synchronized (finalizedContracts) {
+            CachedContract cachedContract = finalizedContracts.get(contractId);
+            if (cachedContract != null) {
+                if (System.currentTimeMillis() - cachedContract.cachedAt() < contractCacheMaxAge.toMillis()) {
+                    return cachedContract.contract();
+                }
+                finalizedContracts.remove(contractId);
+            }
+            stateChangesBeforeLoad = stateChanges;
+        }
+        ContractProjection contract = ContractRecordService.super.findContract(contractId);
+        if (contract != null && NegotiationState.FINALIZED.equals(contract.state()) && isContractCacheEnabled()) {
+            synchronized (finalizedContracts) {
+                if (stateChanges == stateChangesBeforeLoad) {
+                    finalizedContracts.put(contractId, new CachedContract(contract, System.currentTimeMillis()));
+                }
+            }
+        }
+        return contract;
+    }
+
+    private boolean isContractCacheEnabled() {
+        return contractCacheMaxAge != null && contractCacheMaxAge.isPositive();
+    }
+
+    private void updateContractProjection(NegotiationRecord negotiationRecord) {
+        if (negotiationRecord == null || negotiationRecord.getContractId() == null) {
+            return;
+        }
+        synchronized (finalizedContracts) {
+            stateChanges++;
+            if (NegotiationState.FINALIZED.equals(negotiationRecord.getState()) && isContractCacheEnabled()) {
+                finalizedContracts.put(negotiationRecord.getContractId(),
+                        new CachedContract(ContractProjection.of(negotiationRecord), System.currentTimeMillis()));
+            } else {
+                finalizedContracts.remove(negotiationRecord.getContractId());
+            }
+        }
+    }
 }
@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service;
+
+import com.google.crypto.tink.subtle.AesGcmJce;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.*;
+import com.nimbusds.jose.jwk.*;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.repository.SigningKeyRepository;
+import org.factoryx.library.connector.embedded.provider.repository.SigningKeyRepository.StoredSigningKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the keys for signing and verifying the tokens issued by the {@link AuthorizationService}.
+ * Every key has a key id, that is put into the JWS header, so that the verifying key is picked directly.
+ * <p>
+ * By default, the keys are HMAC secrets (HS256). With the algorithm set to ES256 or EdDSA, key pairs are
+ * used instead, whose public keys are published as JWK set, so that external data planes can verify
+ * data access tokens on their own.
+ * <p>
+ * The keys form an immutable {@link Keyring}, which is replaced as a whole upon rotation, so that neither
+ * signing nor verification need any locking.
+ * <p>
+ * If a {@link SigningKeyRepository} is available and a master key is configured, the keys are shared with
+ * all other instances via the repository. Every secret is encrypted with its own data key, which in turn is
+ * encrypted with the master key (envelope encryption). A token with a key id unknown to this instance
+ * triggers a reload from the repository, so that data access requests can be served by any instance.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class SigningKeyring {
+
+    /**
+     * Minimum time between two reloads of the keys, that are triggered by unknown key ids
+     */
+    private static final long MIN_RELOAD_INTERVAL = 5_000;
+
+    /**
+     * Length of HMAC secrets
+     */
+    private static final int HMAC_SECRET_LENGTH = 32;
+
+    private Duration keyRotationInterval = Duration.ofHours(1); // must be larger than token validity
+
+    /**
+     * How long a key remains usable for verification after its creation: the rotation interval
+     * plus the validity of the longest living token (the refresh token).
+     */
+    private Duration keyRetention = Duration.ofMinutes(90);
+
+    /**
+     * Base64-encoded AES key (16 or 32 bytes) for encrypting the shared keys. If missing, keys are not shared.
+     */
+    @Value("${org.factoryx.library.keyring.masterkey:}")
+    private String masterKey;
+
+    /**
+     * The signature algorithm for new keys, one of HS256, ES256 or EdDSA
+     */
+    @Value("${org.factoryx.library.keyring.algorithm:HS256}")
+    private String algorithm;
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final ExecutorService executorService;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final AtomicReference<Keyring> keyring = new AtomicReference<>();
+    private final AtomicLong lastReload = new AtomicLong();
+
+    /**
+     * The rotation in progress, if any, claimed by the thread that creates the new key
+     */
+    private final AtomicReference<CompletableFuture<Keyring>> pendingRotation = new AtomicReference<>();
+
+    /**
+     * A key that is able to sign and verify tokens.
+     *
+     * @param publicKey the public JWK, or null for HMAC keys
+     */
+    public record SigningKey(String kid, JWSAlgorithm algorithm, JWSSigner signer, JWSVerifier verifier, JWK publicKey,
+                             long createdAt) {
+    }
+
+    /**
+     * An immutable set of keys.
+     *
+     * @param current the key for signing new tokens
+     * @param keys    all keys, that are still usable for verification, by key id
+     */
+    public record Keyring(SigningKey current, Map<String, SigningKey> keys) {
+    }
+
+    public SigningKeyring(Optional<SigningKeyRepository> signingKeyRepository, ExecutorService executorService) {
+        this.signingKeyRepository = signingKeyRepository.orElse(null);
+        this.executorService = executorService;
+    }
+
+    /**
+     * Returns the key for signing new tokens. If the rotation interval has passed, the keys are rotated first.
+     *
+     * @return the current key
+     */
+    public SigningKey currentKey() {
+        return currentKeyring().current();
+    }
+
+    /**
+     * Returns the verifier for the given key id. An unknown key id triggers a (rate limited) reload of the
+     * shared keys.
+     *
+     * @param kid the key id from the token's header
+     * @return the verifier, or null if there is no usable key with that id
+     */
+    public JWSVerifier getVerifier(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        SigningKey key = currentKeyring().keys().get(kid);
+        if (key == null && isShared() && reloadSharedKeysIfDue()) {
+            key = keyring.get().keys().get(kid);
+        }
+        return key == null || isRetired(key, System.currentTimeMillis()) ? null : key.verifier();
+    }
+
+    /**
+     * Returns the public keys of all key pairs, that are still usable for verification. Includes
+     * the keys of other instances, if the keys are shared.
+     *
+     * @return the public keys, empty when HMAC keys are used
+     */
+    public JWKSet getPublicKeys() {
+        currentKeyring();
+        if (isShared()) {
+            reloadSharedKeysIfDue();
+        }
+        long now = System.currentTimeMillis();
+        return new JWKSet(keyring.get().keys().values().stream()
+                .filter(key -> key.publicKey() != null && !isRetired(key, now))
+                .sorted(Comparator.comparingLong(SigningKey::createdAt).reversed())
+                .map(SigningKey::publicKey)
+                .toList());
+    }
+
+    private boolean reloadSharedKeysIfDue() {
+        long now = System.currentTimeMillis();
+        long previous = lastReload.get();
+        if (now - previous < MIN_RELOAD_INTERVAL || !lastReload.compareAndSet(previous, now)) {
+            return false;
+        }
+        Keyring current = keyring.get();
+        Map<String, SigningKey> keys = new HashMap<>(current.keys());
+        keys.putAll(loadSharedKeys(now));
+        keyring.compareAndSet(current, merge(current.current(), keys, now));
+        return true;
+    }
+
+    /**
+     * Replaces the current signing key with a new one immediately, e.g. when a key might have been compromised.
+     * Tokens signed with the previous keys remain valid until those keys are retired.
+     */
+    public void rotate() {
+        Keyring next = rotateExclusively(true);
+        log.info("Rotated data access token keys on request, current key id {}", next.current().kid());
+    }
+
+    private Keyring currentKeyring() {
+        Keyring current = keyring.get();
+        if (current != null && !isRotationDue(current, System.currentTimeMillis())) {
+            return current;
+        }
+        return rotateExclusively(false);
+    }
+
+    private boolean isRotationDue(Keyring current, long now) {
+        return now - current.current().createdAt() >= keyRotationInterval.toMillis();
+    }
+
+    /**
+     * Initializes or rotates the keys. Only the thread, that claims the pending rotation, creates (and stores)
+     * a new key. All other threads keep using the current keyring until the new one is published, or wait for
+     * it, if there is none yet.
+     *
+     * @param forced whether to rotate even if the current key is not yet due
+     * @return the keyring after the rotation
+     */
+    private Keyring rotateExclusively(boolean forced) {
+        while (true) {
+            CompletableFuture<Keyring> claim = new CompletableFuture<>();
+            CompletableFuture<Keyring> running = pendingRotation.compareAndExchange(null, claim);
+            if (running != null) {
+                Keyring current = keyring.get();
+                if (current != null && !forced) {
+                    return current;
+                }
+                running.join();
+                if (!forced) {
+                    return keyring.get();
+                }
+                continue;
+            }
+            try {
+                long now = System.currentTimeMillis();
+                Keyring current = keyring.get();
+                Keyring next;
+                if (forced) {
+                    next = merge(createKey(now), current == null ? Map.of() : current.keys(), now);
+                } else if (current == null) {
+                    next = initialize(now);
+                } else if (isRotationDue(current, now)) {
+                    next = rotate(current, now);
+                } else {
+                    // rotated by another thread in the meantime
+                    claim.complete(current);
+                    return current;
+                }
+                while (!keyring.compareAndSet(current, next)) {
+                    // only shared keys, that were reloaded in the meantime, can have been added
+                    current = keyring.get();
+                    Map<String, SigningKey> keys = new HashMap<>(current.keys());
+                    keys.putAll(next.keys());
+                    next = merge(next.current(), keys, now);
+                }
+                if (!forced) {
+                    log.info("Initialized or rotated data access token keys, current key id {}", next.current().kid());
+                }
+                claim.complete(next);
+                return next;
+            } catch (RuntimeException e) {
+                claim.completeExceptionally(e);
+                throw e;
+            } finally {
+                pendingRotation.set(null);
+            }
+        }
+    }
+
+    private Keyring initialize(long now) {
+        Map<String, SigningKey> sharedKeys = isShared() ? loadSharedKeys(now) : Map.of();
+        SigningKey newest = sharedKeys.values().stream()
+                .filter(key -> key.algorithm().equals(configuredAlgorithm()))
+                .max(Comparator.comparingLong(SigningKey::createdAt))
+                .filter(key -> now - key.createdAt() < keyRotationInterval.toMillis())
+                .orElse(null);
+        if (newest == null) {
+            return merge(createKey(now), sharedKeys, now);
+        }
+        return merge(newest, sharedKeys, now);
+    }
+
+    private Keyring rotate(Keyring current, long now) {
+        if (isShared()) {
+            // another instance may have rotated already, in that case we adopt its key
+            Map<String, SigningKey> sharedKeys = loadSharedKeys(now);
+            SigningKey newest = sharedKeys.values().stream()
+                    .filter(key -> key.algorithm().equals(configuredAlgorithm()))
+                    .max(Comparator.comparingLong(SigningKey::createdAt))
+                    .filter(key -> key.createdAt() > current.current().createdAt())
+                    .filter(key -> now - key.createdAt() < keyRotationInterval.toMillis())
+                    .orElse(null);
+            Map<String, SigningKey> keys = new HashMap<>(current.keys());
+            keys.putAll(sharedKeys);
+            if (newest != null) {
+                return merge(newest, keys, now);
+            }
+            purgeSharedKeys(now);
+            return merge(createKey(now), keys, now);
+        }
+        return merge(createKey(now), current.keys(), now);
+    }
+
+    /**
+     * Builds a keyring from the given current key and all other keys, that are not yet retired.
+     */
+    private Keyring merge(SigningKey current, Map<String, SigningKey> otherKeys, long now) {
+        Map<String, SigningKey> keys = new HashMap<>();
+        otherKeys.values().stream().filter(key -> !isRetired(key, now)).forEach(key -> keys.put(key.kid(), key));
+        keys.put(current.kid(), current);
+        return new Keyring(current, Map.copyOf(keys));
+    }
+
+    private boolean isRetired(SigningKey key, long now) {
+        return now - key.createdAt() >= keyRetention.toMillis();
+    }
+
+    private SigningKey createKey(long now) {
+        String kid = UUID.randomUUID().toString();
+        JWSAlgorithm jwsAlgorithm = configuredAlgorithm();
+        byte[] secret = generateSecret(kid, jwsAlgorithm);
+        SigningKey key = toSigningKey(kid, jwsAlgorithm, secret, now);
+        if (isShared()) {
+            try {
+                signingKeyRepository.storeKey(new StoredSigningKey(key.kid(), jwsAlgorithm.getName(),
+                        encrypt(key.kid(), secret), Instant.ofEpochMilli(now)));
+            } catch (Exception e) {
+                log.error("Failure while storing signing key {}, other instances won't accept tokens signed with it", key.kid(), e);
+            }
+        }
+        return key;
+    }
+
+    private Map<String, SigningKey> loadSharedKeys(long now) {
+        Map<String, SigningKey> keys = new HashMap<>();
+        try {
+            for (StoredSigningKey stored : signingKeyRepository.loadKeysCreatedAfter(Instant.ofEpochMilli(now - keyRetention.toMillis()))) {
+                try {
+                    // keys stored without an algorithm predate ES256 and EdDSA support
+                    JWSAlgorithm storedAlgorithm = stored.algorithm() == null ? JWSAlgorithm.HS256 : JWSAlgorithm.parse(stored.algorithm());
+                    keys.put(stored.kid(), toSigningKey(stored.kid(), storedAlgorithm, decrypt(stored.kid(), stored.encryptedSecret()),
+                            stored.createdAt().toEpochMilli()));
+                } catch (Exception e) {
+                    log.warn("Unable to decrypt signing key {}", stored.kid(), e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failure while loading signing keys", e);
+        }
+        return keys;
+    }
+
+    private void purgeSharedKeys(long now) {
+        executorService.submit(() -> {
+            try {
+                signingKeyRepository.deleteAllByCreatedAtBefore(Instant.ofEpochMilli(now - keyRetention.toMillis()));
+            } catch (Exception e) {
+                log.warn("Failure while purging retired signing keys", e);
+            }
+        });
+    }
+
+    private JWSAlgorithm configuredAlgorithm() {
+        return algorithm == null || algorithm.isBlank() ? JWSAlgorithm.HS256 : JWSAlgorithm.parse(algorithm);
+    }
+
+    /**
+     * Generates the secret for a new key: random bytes for HMAC, a private JWK for key pairs.
+     */
+    private byte[] generateSecret(String kid, JWSAlgorithm jwsAlgorithm) {
+        try {
+            JWK jwk;
+            if (JWSAlgorithm.ES256.equals(jwsAlgorithm)) {
+                jwk = new ECKeyGenerator(Curve.P_256).keyID(kid).keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).generate();
+            } else if (JWSAlgorithm.EdDSA.equals(jwsAlgorithm)) {
+                jwk = new OctetKeyPairGenerator(Curve.Ed25519).keyID(kid).keyUse(KeyUse.SIGNATURE).algorithm(jwsAlgorithm).generate();
+            } else if (JWSAlgorithm.HS256.equals(jwsAlgorithm)) {
+                byte[] secret = new byte[HMAC_SECRET_LENGTH];
+                secureRandom.nextBytes(secret);
+                return secret;
+            } else {
+                throw new IllegalStateException("Unsupported signing algorithm " + algorithm);
+            }
+            return jwk.toJSONString().getBytes(StandardCharsets.UTF_8);
+        } catch (JOSEException e) {
+            throw new RuntimeException("Error creating keys", e);
+        }
+    }
+
+    private static SigningKey toSigningKey(String kid, JWSAlgorithm jwsAlgorithm, byte[] secret, long createdAt) {
+        try {
+            if (JWSAlgorithm.HS256.equals(jwsAlgorithm)) {
+                return new SigningKey(kid, JWSAlgorithm.HS256, new MACSigner(secret), new MACVerifier(secret), null, createdAt);
+            }
+            if (JWSAlgorithm.ES256.equals(jwsAlgorithm)) {
+                ECKey ecKey = ECKey.parse(new String(secret, StandardCharsets.UTF_8));
+                ECKey publicKey = ecKey.toPublicJWK();
+                return new SigningKey(kid, JWSAlgorithm.ES256, new ECDSASigner(ecKey), new ECDSAVerifier(publicKey), publicKey, createdAt);
+            }
+            if (JWSAlgorithm.EdDSA.equals(jwsAlgorithm)) {
+                OctetKeyPair octetKeyPair = OctetKeyPair.parse(new String(secret, StandardCharsets.UTF_8));
+                OctetKeyPair publicKey = octetKeyPair.toPublicJWK();
+                return new SigningKey(kid, JWSAlgorithm.EdDSA, new Ed25519Signer(octetKeyPair), new Ed25519Verifier(publicKey), publicKey, createdAt);
+            }
+            throw new JOSEException("Unsupported signing algorithm " + jwsAlgorithm);
+        } catch (JOSEException | ParseException e) {
+            throw new RuntimeException("Error creating keys", e);
+        }
+    }
+
+    private boolean isShared() {
+        return signingKeyRepository != null && masterKey != null && !masterKey.isBlank();
+    }
+
+    /**
+     * Encrypts the given secret with a fresh data key and wraps the data key with the master key.
+     * The key id is bound to both ciphertexts as associated data.
+     *
+     * @return the wrapped data key and the encrypted secret, both base64-encoded and separated by a dot
+     */
+    String encrypt(String kid, byte[] secret) throws GeneralSecurityException {
+        byte[] associatedData = kid.getBytes(StandardCharsets.UTF_8);
+        byte[] dataKey = new byte[32];
+        secureRandom.nextBytes(dataKey);
+        byte[] encryptedSecret = new AesGcmJce(dataKey).encrypt(secret, associatedData);
+        byte[] wrappedDataKey = new AesGcmJce(Base64.getDecoder().decode(masterKey)).encrypt(dataKey, associatedData);
+        return Base64.getEncoder().encodeToString(wrappedDataKey) + "." + Base64.getEncoder().encodeToString(encryptedSecret);
+    }
+
+    byte[] decrypt(String kid, String envelope) throws GeneralSecurityException {
+        byte[] associatedData = kid.getBytes(StandardCharsets.UTF_8);
+        String[] parts = envelope.split("\\.");
+        if (parts.length != 2) {
+            throw new GeneralSecurityException("Malformed key envelope");
+        }
+        byte[] dataKey = new AesGcmJce(Base64.getDecoder().decode(masterKey)).decrypt(Base64.getDecoder().decode(parts[0]), associatedData);
+        return new AesGcmJce(dataKey).decrypt(Base64.getDecoder().decode(parts[1]), associatedData);
+    }
+}
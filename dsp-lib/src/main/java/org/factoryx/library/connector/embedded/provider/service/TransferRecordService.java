@@ -64,7 +64,33 @@ public class TransferRecordService {
         transferRecord.setPartnerId(partnerId);
         transferRecord.setPartnerDspUrl(partnerDspUrl);
         transferRecord.setContractId(agreementId);
-        transferRecord.setFormat("HTTP_PULL");
+        transferRecord.setFormat(TransferRecord.HTTP_PULL);
+        transferRecord.setState(TransferState.REQUESTED);
+        return repository.save(transferRecord);
+    }
+
+    /**
+     * This method stores a new push transfer to the database, in which we upload the dataset
+     * to the endpoint of the consumer.
+     *
+     * @param consumerPid   - the process id on the consumer side
+     * @param partnerId     - the id under which the consumer refers to himself
+     * @param partnerDspUrl - the DSP protocol URL of the consumer partner
+     * @param endpoint      - the endpoint of the consumer's DataAddress
+     * @param authorization - the authorization for the endpoint, may be null
+     * @return - the created TransferRecord
+     */
+    public TransferRecord createPushTransferRecord(String consumerPid, String partnerId, String partnerDspUrl,
+                                                   String agreementId, String endpoint, String authorization) {
+        TransferRecord transferRecord = recordFactory.create();
+        transferRecord.setConsumerPid(consumerPid);
+        transferRecord.setPartnerId(partnerId);
+        transferRecord.setPartnerDspUrl(partnerDspUrl);
+        transferRecord.setContractId(agreementId);
+        transferRecord.setFormat(TransferRecord.HTTP_PUSH);
+        transferRecord.setDatasetAddressUrl(endpoint);
+        transferRecord.setDatasetAddressAuthorization(authorization);
+        transferRecord.setPushedBytes(0L);
         transferRecord.setState(TransferState.REQUESTED);
         return repository.save(transferRecord);
     }
@@ -164,4 +190,15 @@ public class TransferRecordService {
         transferRecord.setDatasetAddressUrl(datasetUrl);
         return repository.save(transferRecord);
     }
+
+    /**
+     * Records the progress of a push transfer. The progress never moves backwards. Only the progress is
+     * written, so that concurrent state changes (e.g. a suspension by the consumer) are not overwritten.
+     *
+     * @param transferRecordId - the id of the TransferRecord to update
+     * @param pushedBytes      - the number of bytes from the start of the dataset, that have been acknowledged
+     */
+    public void updatePushedBytes(UUID transferRecordId, long pushedBytes) {
+        repository.updatePushedBytes(transferRecordId, pushedBytes);
+    }
 }
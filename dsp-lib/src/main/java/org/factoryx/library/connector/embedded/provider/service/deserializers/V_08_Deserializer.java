@@ -66,6 +66,8 @@ public class V_08_Deserializer {
         private final UUID agreementId;
         private final String format;
         private final String partnerDspUrl;
+        private final String dataAddressEndpoint;
+        private final String dataAddressAuthorization;
 
         TransferRequestMessageImpl(String rawJson) {
             JsonObject node = parse(rawJson);
@@ -73,6 +75,9 @@ public class V_08_Deserializer {
             this.agreementId = UUID.fromString(node.getString("dspace:agreementId"));
             this.partnerDspUrl = node.getString("dspace:callbackAddress");
             this.format = node.getString("dct:format");
+            JsonObject dataAddress = node.get("dspace:dataAddress") instanceof JsonObject address ? address : null;
+            this.dataAddressEndpoint = dataAddress == null ? null : dataAddress.getString("dspace:endpoint", null);
+            this.dataAddressAuthorization = getEndpointProperty(dataAddress, "dspace:", "authorization");
         }
     }
 
@@ -143,6 +143,8 @@ public class V_2025_1_Deserializer {
         private final UUID agreementId;
         private final String partnerDspUrl;
         private final String format;
+        private final String dataAddressEndpoint;
+        private final String dataAddressAuthorization;
 
         TransferRequestMessageImpl(String rawJson) {
             JsonObject node = parse(rawJson);
@@ -150,6 +152,9 @@ public class V_2025_1_Deserializer {
             this.agreementId = UUID.fromString(node.getString("agreementId"));
             this.partnerDspUrl = node.getString("callbackAddress");
             this.format = node.getString("format");
+            JsonObject dataAddress = node.get("dataAddress") instanceof JsonObject address ? address : null;
+            this.dataAddressEndpoint = dataAddress == null ? null : dataAddress.getString("endpoint", null);
+            this.dataAddressAuthorization = getEndpointProperty(dataAddress, "", "authorization");
         }
 
     }
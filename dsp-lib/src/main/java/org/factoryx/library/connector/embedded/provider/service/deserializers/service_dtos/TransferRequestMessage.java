@@ -23,4 +23,14 @@ public interface TransferRequestMessage {
     UUID getAgreementId();
     String getFormat();
     String getPartnerDspUrl();
+
+    /**
+     * @return the endpoint of the consumer's DataAddress, which is only present in push transfers
+     */
+    String getDataAddressEndpoint();
+
+    /**
+     * @return the authorization endpoint property of the consumer's DataAddress, if present
+     */
+    String getDataAddressAuthorization();
 }
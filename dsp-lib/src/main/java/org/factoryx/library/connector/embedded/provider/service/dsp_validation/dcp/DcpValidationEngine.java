@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.service.helpers.EnvService;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.prettyPrint;
+
+/**
+ * Performs the validation of DCP self-issued tokens, that partners send along with their DSP requests.
+ * The dataspace-specific parts are provided by a {@link DcpValidationProfile}.
+ * <p>
+ * Local claim checks are done first, so that no remote calls are made for tokens that will be rejected anyway.
+ * Then the signer's did-document is resolved and the signature is checked, while at the same time the wrapped token
+ * is obtained from the STS. A failed signature or replay check cancels the outstanding remote calls.
+ * Finally, the partner's membership presentation is queried and evaluated, unless a previous result is still cached.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class DcpValidationEngine {
+
+    /**
+     * Tolerance for nbf and exp checks in milliseconds
+     */
+    private static final long LEEWAY = 5000;
+
+    private final RestClient restClient;
+    private final EnvService envService;
+    private final DidDocumentResolver didDocumentResolver;
+    private final ReplayProtectionService replayProtectionService;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+    private final DcpValidationMetrics metrics;
+    private final ExecutorService executorService;
+
+    public DcpValidationEngine(RestClient restClient, EnvService envService, DidDocumentResolver didDocumentResolver,
+                               ReplayProtectionService replayProtectionService, VerifiedCredentialCache verifiedCredentialCache,
+                               DcpValidationMetrics metrics, ExecutorService executorService) {
+        this.restClient = restClient;
+        this.envService = envService;
+        this.didDocumentResolver = didDocumentResolver;
+        this.replayProtectionService = replayProtectionService;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+        this.metrics = metrics;
+        this.executorService = executorService;
+    }
+
+    /**
+     * Validates the given token according to the given profile.
+     *
+     * @param token   the token, optionally with "Bearer " prefix
+     * @param profile the dataspace profile
+     * @return the partner properties, if the token is valid, otherwise an empty map
+     */
+    public Map<String, String> validateToken(String token, DcpValidationProfile profile) {
+        long start = System.nanoTime();
+        Map<String, String> result = validate(token, profile);
+        metrics.recordValidation(profile.getProfileName(), result.isEmpty() ? DcpValidationMetrics.FAILURE : DcpValidationMetrics.SUCCESS,
+                System.nanoTime() - start);
+        return result;
+    }
+
+    private Map<String, String> validate(String token, DcpValidationProfile profile) {
+        ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            if ("Bearer ".equalsIgnoreCase(token.substring(0, 7))) {
+                token = token.substring(7);
+            }
+            SignedJWT jwt = SignedJWT.parse(token);
+            var claims = jwt.getJWTClaimsSet();
+            String partnerDid = claims.getStringClaim("sub");
+
+            String accessTokenForPartnerCredentialService = claims.getStringClaim("token");
+            log.info("Received AccessToken from partner:\n{}", accessTokenForPartnerCredentialService);
+
+            if (!runStep(DcpValidationStep.CLAIMS, profile, partnerDid, () -> basicValidation(jwt, profile))) {
+                log.warn("Basic check failed for token of {}", partnerDid);
+                return Map.of();
+            }
+
+            // the did-resolution for the signature check and the STS call don't depend on each other
+            Future<Boolean> signatureCheck = scope.submit(() ->
+                    runStep(DcpValidationStep.SIGNATURE, profile, partnerDid, () -> verifyTokenSignature(jwt, partnerDid, profile)));
+            Future<String> wrappedToken = verifiedCredentialCache.contains(partnerDid) ? null :
+                    scope.submit(() -> obtainWrappedToken(partnerDid, accessTokenForPartnerCredentialService, profile));
+            // the issuer's did-document will be needed for verifying the membership credential,
+            // the prefetch must not delay the response, so it doesn't run in the request scope
+            executorService.submit(() -> didDocumentResolver.retrieveDidDocFromCacheOrFetch(profile.getTrustedIssuer(), profile.getDidUrlPrefix()));
+
+            if (!signatureCheck.get()) {
+                log.warn("Signature check failed for token of {}", partnerDid);
+                return Map.of();
+            }
+            long exp = claims.getExpirationTime().getTime();
+            if (!runStep(DcpValidationStep.REPLAY, profile, partnerDid, () -> replayProtectionService.registerJti(claims.getJWTID(), exp + LEEWAY))) {
+                log.warn("Replay check failed for token of {}", partnerDid);
+                return Map.of();
+            }
+
+            var cachedProperties = runStep(DcpValidationStep.CREDENTIAL_CACHE, profile, partnerDid, () ->
+                    verifiedCredentialCache.get(partnerDid, retrieveDidDocFromCacheOrFetch(partnerDid, profile)));
+            metrics.countCacheLookup("credential", partnerDid, cachedProperties != null);
+            if (cachedProperties != null) {
+                log.info("Using cached membership verification for {}", partnerDid);
+                metrics.markVerified(partnerDid);
+                return cachedProperties;
+            }
+            String selfSignedTokenForPartnerCredentialService = wrappedToken != null ? wrappedToken.get() :
+                    obtainWrappedToken(partnerDid, accessTokenForPartnerCredentialService, profile);
+
+            AtomicLong earliestExpiry = new AtomicLong(Long.MAX_VALUE);
+            if (checkMembershipVerifiablePresentation(selfSignedTokenForPartnerCredentialService, partnerDid, profile, earliestExpiry)) {
+                var partnerProperties = profile.createPartnerProperties(partnerDid);
+                verifiedCredentialCache.put(partnerDid, retrieveDidDocFromCacheOrFetch(partnerDid, profile), partnerProperties, earliestExpiry.get());
+                metrics.markVerified(partnerDid);
+                return partnerProperties;
+            }
+            log.warn("Membership check failed for {}", partnerDid);
+            return Map.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while validating token {}", token, e);
+            return Map.of();
+        } catch (Exception e) {
+            log.error("Failure while validating token {}", token, e);
+            return Map.of();
+        } finally {
+            // cancels the outstanding remote calls, without waiting for them to end (unlike close())
+            scope.shutdownNow();
+        }
+    }
+
+    /**
+     * Executes a single validation step and records its duration and outcome.
+     *
+     * @param step       the step
+     * @param profile    the dataspace profile
+     * @param partnerDid the (claimed) did of the partner
+     * @param action     the action to be executed
+     * @return the action's result
+     * @throws Exception if the action failed
+     */
+    private <T> T runStep(DcpValidationStep step, DcpValidationProfile profile, String partnerDid, Callable<T> action) throws Exception {
+        long start = System.nanoTime();
+        String outcome = DcpValidationMetrics.ERROR;
+        try {
+            T result = action.call();
+            outcome = DcpValidationMetrics.outcomeOf(result);
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.recordStep(step, profile.getProfileName(), partnerDid, outcome, elapsed);
+            log.debug("[{}] Step {} for {} took {} µs ({})", profile.getProfileName(), step, partnerDid, elapsed / 1000, outcome);
+        }
+    }
+
+    private String obtainWrappedToken(String partnerDid, String tokenFromPartner, DcpValidationProfile profile) throws Exception {
+        return runStep(DcpValidationStep.STS, profile, partnerDid, () -> profile.getWrappedToken(partnerDid, tokenFromPartner));
+    }
+
+    private boolean verifyTokenSignature(SignedJWT token, String signerDid, DcpValidationProfile profile) {
+        return didDocumentResolver.verifyTokenSignature(token, signerDid, profile.getDidUrlPrefix());
+    }
+
+    private JsonObject retrieveDidDocFromCacheOrFetch(String partnerDid, DcpValidationProfile profile) {
+        return didDocumentResolver.retrieveDidDocFromCacheOrFetch(partnerDid, profile.getDidUrlPrefix());
+    }
+
+    /**
+     * Performs the local verification steps required by the DCP. The replay check is done
+     * separately, once the signature has been verified.
+     *
+     * @param token   the token to be validated
+     * @param profile the dataspace profile
+     * @return true, if all checks turned out as expected, false otherwise
+     */
+    private boolean basicValidation(SignedJWT token, DcpValidationProfile profile) {
+        try {
+            log.debug("Basic validation for \n{}", prettyPrint(token.getPayload().toString()));
+            var claims = token.getJWTClaimsSet();
+            boolean valid = claims.getStringClaim("iss").equals(claims.getStringClaim("sub"));
+            log.debug("Valid after iss=sub {}", valid);
+            valid = valid && claims.getAudience().contains(envService.getBackendId());
+            log.debug("Valid after aud=myself {}", valid);
+            long now = Instant.now().toEpochMilli();
+            var nbfDate = claims.getNotBeforeTime();
+            if (nbfDate != null) {
+                valid = valid && nbfDate.getTime() <= now + LEEWAY;
+            } else {
+                valid = valid && !profile.isNbfRequired();
+            }
+            log.debug("Valid after nbf {}", valid);
+            long exp = claims.getExpirationTime().getTime();
+            valid = valid && exp >= now - LEEWAY;
+            log.debug("Valid after exp {}", valid);
+            valid = valid && claims.getJWTID() != null;
+            log.debug("Valid after jti present {}", valid);
+            return valid;
+        } catch (Exception e) {
+            log.error("Failure while validating token", e);
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves and inspects the membership credential for a given partner, using the provided token.
+     *
+     * @param selfSignedTokenForPartnerCredentialService a self-signed token that wraps an access token from the partner
+     * @param partnerDid                                 the id of the partner in question
+     * @param profile                                    the dataspace profile
+     * @param earliestExpiry                             collects the earliest expiry of the inspected presentation and credentials
+     * @return true if the check was successful, false otherwise
+     */
+    private boolean checkMembershipVerifiablePresentation(String selfSignedTokenForPartnerCredentialService, String partnerDid,
+                                                          DcpValidationProfile profile, AtomicLong earliestExpiry) {
+        try {
+            JsonObject credServiceResponseJson = runStep(DcpValidationStep.PRESENTATION_QUERY, profile, partnerDid,
+                    () -> queryPresentation(selfSignedTokenForPartnerCredentialService, partnerDid, profile));
+            return runStep(DcpValidationStep.CREDENTIAL_EVALUATION, profile, partnerDid,
+                    () -> evaluatePresentations(credServiceResponseJson, partnerDid, profile, earliestExpiry));
+        } catch (Exception e) {
+            log.error("Error while checking membership vp", e);
+            return false;
+        }
+    }
+
+    private JsonObject queryPresentation(String selfSignedTokenForPartnerCredentialService, String partnerDid,
+                                         DcpValidationProfile profile) {
+        String credentialServiceUrl = extractCredentialServiceUrlFromDidDocument(retrieveDidDocFromCacheOrFetch(partnerDid, profile));
+        String credServiceResponse = restClient
+                .post()
+                .uri(credentialServiceUrl + "/presentations/query")
+                .header("Authorization", "Bearer " + selfSignedTokenForPartnerCredentialService)
+                .header("Content-Type", "application/json")
+                .body(profile.createPresentationQuery())
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> {
+                    log.info("Call to CredentialService Endpoint Status: " + res.getStatusCode());
+                })
+                .onStatus(HttpStatusCode::is2xxSuccessful, (req, res) -> {
+                    log.info("Call to CredentialService Endpoint Status: " + res.getStatusCode());
+                })
+                .body(String.class);
+        JsonObject credServiceResponseJson = parse(credServiceResponse);
+        log.info("Got Response from CredentialService \n{}", prettyPrint(credServiceResponseJson));
+        return credServiceResponseJson;
+    }
+
+    /**
+     * Inspects the presentations from the credential service's response. The first presentation with a valid
+     * signature by the partner is evaluated; it must contain at least one credential from the trusted issuer,
+     * that satisfies the profile's expectations.
+     */
+    private boolean evaluatePresentations(JsonObject credServiceResponseJson, String partnerDid, DcpValidationProfile profile,
+                                          AtomicLong earliestExpiry) throws Exception {
+        if (!"PresentationResponseMessage".equals(credServiceResponseJson.getString("type", null))) {
+            return false;
+        }
+        for (String presentationToken : profile.extractPresentations(credServiceResponseJson)) {
+            SignedJWT signedPresentationJWT = SignedJWT.parse(presentationToken);
+            if (!verifyTokenSignature(signedPresentationJWT, partnerDid, profile)) {
+                log.info("Signature validation failed for presentation token: {}", presentationToken);
+                continue;
+            }
+            VerifiedCredentialCache.trackExpiry(earliestExpiry, signedPresentationJWT);
+            JsonObject vpPayloadObject = parse(signedPresentationJWT.getPayload().toString());
+            log.info("Got PresentationPayloadObject \n{}", prettyPrint(vpPayloadObject));
+            JsonArray verifiableCredentials = vpPayloadObject.getJsonObject("vp").getJsonArray("verifiableCredential");
+            boolean vcExpectationSatisfied = false;
+            for (var vcItem : verifiableCredentials) {
+                if (vcItem instanceof JsonString vcRawJsonString) {
+                    SignedJWT signedVcRawJWT = SignedJWT.parse(vcRawJsonString.getString());
+                    String vcIssuer = signedVcRawJWT.getJWTClaimsSet().getIssuer();
+                    log.info("Issuer of VC: {}", vcIssuer);
+                    if (!profile.getTrustedIssuer().equals(vcIssuer) || !verifyTokenSignature(signedVcRawJWT, vcIssuer, profile)) {
+                        log.info("Signature validation failed for issuer of vc: {}", vcIssuer);
+                        continue;
+                    }
+                    JsonObject vcPayload = parse(signedVcRawJWT.getPayload().toString());
+                    log.info("found verifiable credential \n{}", prettyPrint(vcPayload));
+                    if (evaluateCredential(partnerDid, vcPayload, profile)) {
+                        VerifiedCredentialCache.trackExpiry(earliestExpiry, signedVcRawJWT);
+                        vcExpectationSatisfied = true;
+                    }
+                } else {
+                    log.info("Not a JsonString \n{}", vcItem);
+                }
+            }
+            return vcExpectationSatisfied;
+        }
+        return false;
+    }
+
+    private boolean evaluateCredential(String partnerDid, JsonObject vcPayload, DcpValidationProfile profile) {
+        try {
+            return profile.evaluateCredential(partnerDid, vcPayload);
+        } catch (Exception e) {
+            log.info("Credential doesn't match expectations of profile {}", profile.getProfileName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * A helper method that extracts the url of the credential service from a partner's did-document.
+     *
+     * @param didDocument the did-document, we want to extract the url from
+     * @return the url, if successful, otherwise null
+     */
+    private String extractCredentialServiceUrlFromDidDocument(JsonObject didDocument) {
+        try {
+            var serviceArray = didDocument.getJsonArray("service");
+            JsonObject credentialService = (JsonObject) serviceArray.stream()
+                    .filter(entry -> entry instanceof JsonObject)
+                    .filter(entry -> ((JsonObject) entry).getString("type").equals("CredentialService"))
+                    .findFirst().orElse(null);
+            if (credentialService != null) {
+                String serviceEndpoint = credentialService.getString("serviceEndpoint");
+                log.info("Credential Service url found {}", serviceEndpoint);
+                return serviceEndpoint;
+            } else {
+                log.error("Credential Service not found");
+                return null;
+            }
+        } catch (Exception e) {
+            log.error("Failure while parsing Did-Doc \n{}", prettyPrint(didDocument), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records Micrometer metrics for the DCP token validation, so that the cost of a validation can be
+ * attributed to its individual steps (did resolution, STS call, presentation query, credential verification).
+ * <p>
+ * If the application provides a {@link MeterRegistry} (e.g. via spring-boot-starter-actuator), the meters
+ * are published there, for instance on the Prometheus endpoint. Otherwise, nothing is recorded.
+ * <p>
+ * The did in a token is chosen by the caller. In order to keep the number of time series bounded, meters are
+ * only tagged with the dids of partners, whose membership has been verified (see {@link #markVerified(String)}).
+ * All other requests are recorded under the partner tag {@value #UNVERIFIED}.
+ *
+ * @author eschrewe
+ */
+@Service
+public class DcpValidationMetrics {
+
+    static final String VALIDATION_TIMER = "dsp.token.validation";
+    static final String STEP_TIMER = "dsp.token.validation.step";
+    static final String DID_FETCH_TIMER = "dsp.token.validation.did.fetch";
+    static final String CACHE_COUNTER = "dsp.token.validation.cache";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String ERROR = "error";
+
+    static final String UNVERIFIED = "unverified";
+
+    private static final int MAX_VERIFIED_PARTNERS = 10_000;
+
+    /**
+     * Whether meters are tagged with the dids of verified partners. Should stay disabled in dataspaces
+     * with a large number of partners, in order to limit the number of time series.
+     */
+    @Value("${org.factoryx.library.metrics.partnertag:false}")
+    private boolean tagPartner = false;
+
+    /**
+     * The dids, that may be used as partner tag
+     */
+    private final Set<String> verifiedPartners = ConcurrentHashMap.newKeySet();
+
+    private final MeterRegistry meterRegistry;
+
+    public DcpValidationMetrics(Optional<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.orElse(null);
+    }
+
+    /**
+     * Records the duration of a complete token validation.
+     *
+     * @param profileName  the name of the validation profile
+     * @param outcome      the outcome, e.g. {@link #SUCCESS}
+     * @param elapsedNanos the duration
+     */
+    public void recordValidation(String profileName, String outcome, long elapsedNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder(VALIDATION_TIMER)
+                .description("Duration of the validation of inbound DSP tokens")
+                .tag("profile", profileName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the duration of a single validation step.
+     *
+     * @param step         the step
+     * @param profileName  the name of the validation profile
+     * @param partnerDid   the (claimed) did of the partner, only used as tag, once verified
+     * @param outcome      the outcome, e.g. {@link #SUCCESS}
+     * @param elapsedNanos the duration
+     */
+    public void recordStep(DcpValidationStep step, String profileName, String partnerDid, String outcome, long elapsedNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder(STEP_TIMER)
+                .description("Duration of the individual steps of the DSP token validation")
+                .tag("step", step.name())
+                .tag("profile", profileName)
+                .tag("partner", partnerTag(partnerDid))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the duration of a did-document fetch.
+     *
+     * @param did          the did, whose document was fetched
+     * @param outcome      the outcome, e.g. {@link #SUCCESS}
+     * @param elapsedNanos the duration
+     */
+    public void recordDidFetch(String did, String outcome, long elapsedNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder(DID_FETCH_TIMER)
+                .description("Duration of did-document fetches")
+                .tag("partner", partnerTag(did))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a cache lookup.
+     *
+     * @param cache      the name of the cache, e.g. "diddocument" or "credential"
+     * @param partnerDid the did of the partner
+     * @param hit        whether the lookup was successful
+     */
+    public void countCacheLookup(String cache, String partnerDid, boolean hit) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Counter.builder(CACHE_COUNTER)
+                .description("Cache lookups during the DSP token validation")
+                .tag("cache", cache)
+                .tag("partner", partnerTag(partnerDid))
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Allows tagging the meters with the given did, after the partner's membership has been verified.
+     * At most {@value #MAX_VERIFIED_PARTNERS} dids are used as tags, further partners are recorded as unverified.
+     *
+     * @param partnerDid the did of the partner
+     */
+    public void markVerified(String partnerDid) {
+        if (!tagPartner || partnerDid == null || verifiedPartners.size() >= MAX_VERIFIED_PARTNERS) {
+            return;
+        }
+        verifiedPartners.add(partnerDid);
+    }
+
+    /**
+     * Derives the outcome tag from the result of a validation step.
+     *
+     * @param result the result
+     * @return {@link #FAILURE} for null or false, otherwise {@link #SUCCESS}
+     */
+    static String outcomeOf(Object result) {
+        return result == null || Boolean.FALSE.equals(result) ? FAILURE : SUCCESS;
+    }
+
+    private String partnerTag(String partnerDid) {
+        if (!tagPartner) {
+            return "all";
+        }
+        return partnerDid != null && verifiedPartners.contains(partnerDid) ? partnerDid : UNVERIFIED;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenValidationService.ReservedKeys;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the dataspace-specific parts of a DCP token validation. The {@link DcpValidationEngine} performs
+ * all steps that are common to every dataspace and delegates to the profile where they differ.
+ *
+ * @author eschrewe
+ */
+public interface DcpValidationProfile {
+
+    /**
+     * @return a short name of this profile, used in logs and metrics
+     */
+    String getProfileName();
+
+    /**
+     * @return the did of the issuer, whose credentials are accepted
+     */
+    String getTrustedIssuer();
+
+    /**
+     * @return the scheme to be used when fetching did-documents, e.g. "https://"
+     */
+    String getDidUrlPrefix();
+
+    /**
+     * @return true, if tokens without "nbf" claim are to be rejected
+     */
+    boolean isNbfRequired();
+
+    /**
+     * Obtains a self-signed token from our STS, that wraps the access token, which the partner has provided for
+     * its credential service.
+     *
+     * @param partnerDid       the did of the partner
+     * @param tokenFromPartner the access token from the partner
+     * @return the token to be used at the partner's credential service
+     */
+    String getWrappedToken(String partnerDid, String tokenFromPartner);
+
+    /**
+     * @return the request body for querying the membership presentation
+     */
+    default String createPresentationQuery() {
+        var presentationQuery = Json.createObjectBuilder();
+        var context = Json.createArrayBuilder();
+        context.add("https://w3id.org/dspace-dcp/v1.0/dcp.jsonld");
+        presentationQuery.add("@context", context.build());
+        presentationQuery.add("type", "PresentationQueryMessage");
+        return presentationQuery.build().toString();
+    }
+
+    /**
+     * Extracts the presentation tokens from the response of the partner's credential service.
+     *
+     * @param presentationResponse the PresentationResponseMessage
+     * @return the presentations as serialized JWTs
+     */
+    List<String> extractPresentations(JsonObject presentationResponse);
+
+    /**
+     * Decides whether a credential, that was issued by the trusted issuer and whose signature is valid,
+     * proves the partner's membership.
+     *
+     * @param partnerDid the did of the partner
+     * @param vcPayload  the payload of the credential token
+     * @return true, if the credential is sufficient
+     */
+    boolean evaluateCredential(String partnerDid, JsonObject vcPayload);
+
+    /**
+     * @param partnerDid the did of the partner, whose membership has been confirmed
+     * @return the properties to be returned by the token validation
+     */
+    default Map<String, String> createPartnerProperties(String partnerDid) {
+        return Map.of(ReservedKeys.partnerId.toString(), partnerDid,
+                ReservedKeys.credentials.toString(), "dataspacemember");
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+/**
+ * The steps of a DCP token validation, as performed by the {@link DcpValidationEngine}.
+ *
+ * @author eschrewe
+ */
+public enum DcpValidationStep {
+    /**
+     * Local checks of the token's claims (iss, sub, aud, nbf, exp, jti)
+     */
+    CLAIMS,
+    /**
+     * Resolution of the signer's did-document and verification of the token's signature
+     */
+    SIGNATURE,
+    /**
+     * Registration of the token's jti for replay protection
+     */
+    REPLAY,
+    /**
+     * Lookup of a previously verified membership of the partner
+     */
+    CREDENTIAL_CACHE,
+    /**
+     * Obtaining a self-signed token from our STS, that wraps the partner's access token
+     */
+    STS,
+    /**
+     * Query of the presentation at the partner's credential service
+     */
+    PRESENTATION_QUERY,
+    /**
+     * Verification and evaluation of the presentation and the credentials it contains
+     */
+    CREDENTIAL_EVALUATION
+}
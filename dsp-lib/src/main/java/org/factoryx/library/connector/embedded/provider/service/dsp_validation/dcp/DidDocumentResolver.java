@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.json.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.security.Security;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.prettyPrint;
+
+/**
+ * Resolves did:web documents and keeps the signature verifiers for the keys found in them.
+ * Shared by the DCP-based validation services.
+ * <p>
+ * A token with an unknown key id triggers a refresh of the signer's did-document, so that key rotations
+ * are picked up. To prevent that peers can force an outbound request per inbound request by sending random
+ * key ids, refreshes of a cached did-document are limited per did, and key ids that are still unknown after a
+ * refresh are rejected locally for an exponentially growing period. The first fetch of a did-document is not limited.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class DidDocumentResolver {
+
+    /**
+     * Cache for Did-documents
+     */
+    private final ConcurrentHashMap<String, DidDocCacheEntry> didDocumentsCache = new ConcurrentHashMap<>();
+
+    /**
+     * Interval after which a renewed fetch must be performed
+     */
+    private final Duration didCacheUpdateInterval = Duration.ofDays(1);
+
+    /**
+     * @param urlPrefix the scheme, with which the document was fetched, or null if unknown
+     */
+    public record DidDocCacheEntry(JsonObject didDocument, Instant lastUpdated, String urlPrefix) {
+    }
+
+    /**
+     * Cache for token-signature-verifiers. The outer map's key is a partner's did.
+     * The inner map's key is a key-id. The value contains a verifier that is expected
+     * to verify all signatures that were created with that key.
+     */
+    private final ConcurrentHashMap<String, Map<String, JWSVerifier>> knownJwsVerifiers = new ConcurrentHashMap<>();
+
+    /**
+     * Minimum time between two refreshes of the same did-document, that were triggered by unknown key ids
+     */
+    @Value("${org.factoryx.library.dcp.didrefresh.mininterval:PT30S}")
+    private Duration minRefreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * Initial period, for which a key id that could not be found in a refreshed did-document is rejected without
+     * another refresh. Doubles with each further unsuccessful refresh.
+     */
+    @Value("${org.factoryx.library.dcp.unknownkid.backoff:PT30S}")
+    private Duration unknownKeyBackoff = Duration.ofSeconds(30);
+
+    private static final Duration MAX_UNKNOWN_KEY_BACKOFF = Duration.ofHours(1);
+
+    /**
+     * Upper bound for the number of entries in the maps that track refreshes and unknown key ids
+     */
+    private static final int MAX_TRACKED_ENTRIES = 10_000;
+
+    private record UnknownKeyEntry(int failures, long retryAfter) {
+    }
+
+    /**
+     * Negative cache for key ids, that couldn't be found in the signer's did-document. The key is did and key id.
+     */
+    private final ConcurrentHashMap<String, UnknownKeyEntry> unknownKeyIds = new ConcurrentHashMap<>();
+
+    /**
+     * Timestamps of the last refresh per did, that was triggered by an unknown key id
+     */
+    private final ConcurrentHashMap<String, Long> lastForcedRefresh = new ConcurrentHashMap<>();
+
+    private final RestClient restClient;
+    private final DcpValidationMetrics metrics;
+    private final BouncyCastleProvider bouncyCastleProvider = new BouncyCastleProvider();
+
+    public DidDocumentResolver(RestClient restClient, DcpValidationMetrics metrics) {
+        this.restClient = restClient;
+        this.metrics = metrics;
+        Security.addProvider(bouncyCastleProvider);
+    }
+
+    /**
+     * Resolves the key for the given partner and tries to verify the given token's signature with it
+     *
+     * @param token      the token, whose signature is to be checked
+     * @param partnerDid the id of the partner, who is expected to be the signer of the token
+     * @param urlPrefix  the scheme to be used when fetching the did-document, e.g. "https://"
+     * @return true if verification was successful, false otherwise
+     */
+    public boolean verifyTokenSignature(SignedJWT token, String partnerDid, String urlPrefix) {
+        log.info("Validating token signature for signer {}", partnerDid);
+        try {
+            String keyId = token.getHeader().getKeyID();
+            JWSVerifier jwsVerifier = getVerifier(partnerDid, keyId);
+            if (jwsVerifier == null && keyId != null) {
+                log.info("No cached verifier found for {}, retrying...", partnerDid);
+                jwsVerifier = refreshForUnknownKey(partnerDid, keyId, urlPrefix);
+            }
+            if (jwsVerifier == null) {
+                log.warn("Unknown Key-Id {} for {}", keyId, partnerDid);
+                return false;
+            }
+            boolean signatureCheck = token.verify(jwsVerifier);
+            log.info("JWS Verifier result with Key-Id: {}, {}", keyId, signatureCheck);
+            return signatureCheck;
+        } catch (Exception e) {
+            log.error("Failure while validating token signature", e);
+            return false;
+        }
+    }
+
+    /**
+     * Refreshes the did-document of the given partner in order to find the given key, unless the key is known to be
+     * missing or the cached did-document has just been refreshed. If there is no cached did-document, it is fetched
+     * without counting against the refresh limit.
+     *
+     * @param partnerDid the did of the partner in question
+     * @param keyId      the key id that could not be found
+     * @param urlPrefix  the scheme to be used when fetching the did-document
+     * @return the verifier for the key, or null if it is still unknown
+     */
+    private JWSVerifier refreshForUnknownKey(String partnerDid, String keyId, String urlPrefix) {
+        String unknownKey = partnerDid + "|" + keyId;
+        long now = System.currentTimeMillis();
+        UnknownKeyEntry unknownKeyEntry = unknownKeyIds.get(unknownKey);
+        if (unknownKeyEntry != null && now < unknownKeyEntry.retryAfter()) {
+            log.info("Rejecting known unknown Key-Id {} for {}", keyId, partnerDid);
+            return null;
+        }
+        boolean cached = isFresh(didDocumentsCache.get(partnerDid));
+        if (cached && !tryAcquireRefresh(partnerDid, now)) {
+            log.info("Did-document of {} was refreshed recently, not fetching it for Key-Id {}", partnerDid, keyId);
+            return null;
+        }
+        refreshDidDocument(partnerDid, urlPrefix);
+        JWSVerifier jwsVerifier = getVerifier(partnerDid, keyId);
+        if (jwsVerifier != null) {
+            unknownKeyIds.remove(unknownKey);
+            return jwsVerifier;
+        }
+        int failures = unknownKeyEntry == null ? 1 : unknownKeyEntry.failures() + 1;
+        long backoff = Math.min(unknownKeyBackoff.toMillis() << Math.min(failures - 1, 20), MAX_UNKNOWN_KEY_BACKOFF.toMillis());
+        purgeIfFull(unknownKeyIds, entry -> entry.retryAfter() < now);
+        unknownKeyIds.put(unknownKey, new UnknownKeyEntry(failures, now + backoff));
+        return null;
+    }
+
+    private boolean tryAcquireRefresh(String partnerDid, long now) {
+        Long previous = lastForcedRefresh.get(partnerDid);
+        if (previous != null && now - previous < minRefreshInterval.toMillis()) {
+            return false;
+        }
+        if (previous == null) {
+            purgeIfFull(lastForcedRefresh, timestamp -> now - timestamp >= minRefreshInterval.toMillis());
+            return lastForcedRefresh.putIfAbsent(partnerDid, now) == null;
+        }
+        return lastForcedRefresh.replace(partnerDid, previous, now);
+    }
+
+    private static <V> void purgeIfFull(ConcurrentHashMap<String, V> map, Predicate<V> isObsolete) {
+        if (map.size() >= MAX_TRACKED_ENTRIES) {
+            map.values().removeIf(isObsolete);
+            if (map.size() >= MAX_TRACKED_ENTRIES) {
+                log.warn("Too many tracked did refreshes or unknown key ids, resetting");
+                map.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the verifier for the given key, as long as the did-document, that contains the key, has not expired.
+     */
+    private JWSVerifier getVerifier(String partnerDid, String keyId) {
+        var verifiers = knownJwsVerifiers.get(partnerDid);
+        if (verifiers == null || keyId == null || !isFresh(didDocumentsCache.get(partnerDid))) {
+            return null;
+        }
+        return verifiers.get(keyId);
+    }
+
+    /**
+     * Returns the did-document for the partner with the given did, either by using a cached document if possible
+     * or by triggering a http GET request, if necessary.
+     *
+     * @param partnerDid the did of the partner in question
+     * @param urlPrefix  the scheme to be used when fetching the did-document, e.g. "https://"
+     * @return the did-document, if successful, otherwise null
+     */
+    public JsonObject retrieveDidDocFromCacheOrFetch(String partnerDid, String urlPrefix) {
+        try {
+            DidDocCacheEntry didDocCacheEntry = didDocumentsCache.get(partnerDid);
+            boolean fresh = isFresh(didDocCacheEntry);
+            metrics.countCacheLookup("diddocument", partnerDid, fresh);
+            if (fresh) {
+                return didDocCacheEntry.didDocument();
+            }
+            return refreshDidDocument(partnerDid, urlPrefix);
+        } catch (Exception e) {
+            log.error("Failure while retrieving Did-Doc Request {}", partnerDid, e);
+            return null;
+        }
+    }
+
+    /**
+     * Fetches the did-document of the given partner and replaces the cached document and verifiers. If the fetch
+     * fails, the cached state is kept.
+     *
+     * @param partnerDid the did of the partner in question
+     * @param urlPrefix  the scheme to be used when fetching the did-document, e.g. "https://"
+     * @return the did-document, if successful, otherwise null
+     */
+    private JsonObject refreshDidDocument(String partnerDid, String urlPrefix) {
+        long start = System.nanoTime();
+        String outcome = DcpValidationMetrics.ERROR;
+        try {
+            JsonObject didJson = fetchDidDoc(partnerDid, urlPrefix);
+            if (didJson == null) {
+                outcome = DcpValidationMetrics.FAILURE;
+                return null;
+            }
+            outcome = DcpValidationMetrics.SUCCESS;
+            log.info("Retrieved did-doc:\n{}", prettyPrint(didJson));
+            registerDidDocument(partnerDid, didJson, Instant.now(), urlPrefix);
+            return didJson;
+        } catch (Exception e) {
+            log.error("Failure while retrieving Did-Doc Request {}", partnerDid, e);
+            return null;
+        } finally {
+            metrics.recordDidFetch(partnerDid, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Puts the given did-document into the cache and replaces the partner's verifiers with
+     * those built from the keys in the document.
+     *
+     * @param partnerDid  the did of the partner in question
+     * @param didJson     the did-document
+     * @param lastUpdated the point in time, when the document was fetched
+     * @param urlPrefix   the scheme, with which the document was fetched
+     */
+    void registerDidDocument(String partnerDid, JsonObject didJson, Instant lastUpdated, String urlPrefix) {
+        Map<String, JWSVerifier> verifierMap = new ConcurrentHashMap<>();
+        for (var entry : didJson.getJsonArray("verificationMethod")) {
+            if (entry instanceof JsonObject entryObject) {
+                try {
+                    String keyId = entryObject.getString("id", null);
+                    if (keyId == null) {
+                        log.error("Missing key id: \n{}", prettyPrint(entryObject));
+                        continue;
+                    }
+                    JsonObject publicKeyJwk = entryObject.getJsonObject("publicKeyJwk");
+                    JWK jwk = JWK.parse(publicKeyJwk.toString());
+                    log.info("Found public key: {}", jwk);
+                    if (jwk.getKeyType().equals(KeyType.EC)) {
+                        ECKey ecKey = jwk.toPublicJWK().toECKey();
+                        ECDSAVerifier jwsVerifier = new ECDSAVerifier(ecKey);
+                        if ("secp256k1".equals(ecKey.getCurve().getName())) {
+                            jwsVerifier.getJCAContext().setProvider(bouncyCastleProvider);
+                        }
+                        verifierMap.put(keyId, jwsVerifier);
+                    } else if (jwk.getKeyType().equals(KeyType.OKP)) {
+                        verifierMap.put(keyId, new Ed25519Verifier((OctetKeyPair) jwk.toPublicJWK()));
+                    } else {
+                        log.error("Unsupported encryption algorithm {}", jwk.getKeyType());
+                    }
+                } catch (Exception e) {
+                    log.error("Failure while retrieving public key for {}", partnerDid, e);
+                }
+            }
+        }
+        knownJwsVerifiers.put(partnerDid, verifierMap);
+        didDocumentsCache.put(partnerDid, new DidDocCacheEntry(didJson, lastUpdated, urlPrefix));
+    }
+
+    private boolean isFresh(DidDocCacheEntry didDocCacheEntry) {
+        return didDocCacheEntry != null && didDocCacheEntry.lastUpdated() != null && didDocCacheEntry.didDocument() != null
+                && Instant.now().isBefore(didDocCacheEntry.lastUpdated().plus(didCacheUpdateInterval));
+    }
+
+    /**
+     * Derives the url of the did-document from the given partnerDid and
+     * attempts a GET request to obtain it.
+     *
+     * @param partnerDid the did of the partner in question
+     * @param urlPrefix  the scheme to be used, e.g. "https://"
+     * @return the did-document, if successful, otherwise null
+     */
+    private JsonObject fetchDidDoc(String partnerDid, String urlPrefix) {
+        String url = partnerDid.replace("did:web:", "");
+        url = url.replace(":", "/");
+        url = url.replace("%3A", ":");
+        url = urlPrefix + url;
+        URI uri = URI.create(url);
+        uri = uri.getPath().isEmpty() ? uri.resolve("/.well-known/did.json") : URI.create(url + "/did.json");
+        String didDocResponse = restClient.get()
+                .uri(uri)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> {
+                    log.info("Status of Did-Doc Request for {}: {}", partnerDid, res.getStatusCode());
+                })
+                .onStatus(HttpStatusCode::is2xxSuccessful, (req, res) -> {
+                    log.info("Status of Did-Doc Request for {}: {}", partnerDid, res.getStatusCode());
+                })
+                .body(String.class);
+        JsonObject didJson = parse(didDocResponse);
+        if (didJson.getString("id").equals(partnerDid)) {
+            return didJson;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a copy of all cached did-documents, which have not yet expired.
+     *
+     * @return the cache entries, keyed by did
+     */
+    public Map<String, DidDocCacheEntry> exportDidDocuments() {
+        return didDocumentsCache.entrySet().stream()
+                .filter(entry -> isFresh(entry.getValue()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Restores a did-document from a snapshot. The entry expires as if there had been no restart, but
+     * not later than the given maximum time from now, since keys may have been rotated or revoked while this
+     * instance was down. Entries that have expired meanwhile, or that don't belong to the given did, are
+     * ignored. Documents already present in the cache take precedence.
+     *
+     * @param partnerDid the did of the partner in question
+     * @param entry      the cache entry from the snapshot
+     * @param maxTtl     the maximum time, for which the restored entry is used
+     * @return true, if the entry was restored
+     */
+    public boolean restoreDidDocument(String partnerDid, DidDocCacheEntry entry, Duration maxTtl) {
+        if (!isFresh(entry) || !partnerDid.equals(entry.didDocument().getString("id", null))
+                || didDocumentsCache.containsKey(partnerDid)) {
+            return false;
+        }
+        Instant latestLastUpdated = Instant.now().plus(maxTtl).minus(didCacheUpdateInterval);
+        Instant lastUpdated = entry.lastUpdated().isBefore(latestLastUpdated) ? entry.lastUpdated() : latestLastUpdated;
+        registerDidDocument(partnerDid, entry.didDocument(), lastUpdated, entry.urlPrefix());
+        return true;
+    }
+
+    /**
+     * Fetches a restored did-document again, so that keys, which have been rotated or revoked in the meantime,
+     * are replaced. If the fetch fails, the restored document is used until it expires.
+     *
+     * @param partnerDid the did of the partner in question
+     */
+    public void refreshRestoredDidDocument(String partnerDid) {
+        DidDocCacheEntry entry = didDocumentsCache.get(partnerDid);
+        if (entry != null && entry.urlPrefix() != null) {
+            refreshDidDocument(partnerDid, entry.urlPrefix());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.repository.ReplayCacheRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This service keeps track of the token ids (jti) of all DCP tokens that were received, in order
+ * to reject replayed tokens.
+ * <p>
+ * An in-memory near-cache answers the common case locally. If a {@link ReplayCacheRepository} is available,
+ * every new jti is additionally inserted there, so that a token which was already presented at another
+ * instance (or before a restart) is rejected as well.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class ReplayProtectionService {
+
+    /**
+     * Interval after which expired entries are purged
+     */
+    private final Duration cleanUpInterval = Duration.ofMinutes(1);
+
+    /**
+     * Near-cache for seen jti's. The attached value represents the timestamp, after which the
+     * respective token has expired and thus became obsolete anyway.
+     */
+    private final ConcurrentHashMap<String, Long> seenJtis = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextCleanUp = new AtomicLong();
+
+    @Value("${org.factoryx.library.replaycache.persistent:true}")
+    private boolean usePersistentReplayCache;
+
+    private final ReplayCacheRepository replayCacheRepository;
+    private final ExecutorService executorService;
+
+    public ReplayProtectionService(Optional<ReplayCacheRepository> replayCacheRepository, ExecutorService executorService) {
+        this.replayCacheRepository = replayCacheRepository.orElse(null);
+        this.executorService = executorService;
+    }
+
+    /**
+     * Registers the given token id.
+     *
+     * @param jti       the id of the token
+     * @param expiresAt the timestamp (epoch millis) after which the token would be rejected anyway
+     * @return true, if the jti has never been seen before, false if the token is a replay or if
+     * the check could not be performed
+     */
+    public boolean registerJti(String jti, long expiresAt) {
+        if (jti == null) {
+            return false;
+        }
+        cleanUpIfDue();
+        if (seenJtis.putIfAbsent(jti, expiresAt) != null) {
+            log.warn("Rejecting already seen jti {}", jti);
+            return false;
+        }
+        if (!isPersistent()) {
+            return true;
+        }
+        try {
+            if (replayCacheRepository.insertIfAbsent(jti, Instant.ofEpochMilli(expiresAt))) {
+                return true;
+            }
+            log.warn("Rejecting jti {}, which was already seen by another instance", jti);
+        } catch (Exception e) {
+            log.error("Failure while persisting jti {}", jti, e);
+        }
+        return false;
+    }
+
+    private boolean isPersistent() {
+        return usePersistentReplayCache && replayCacheRepository != null;
+    }
+
+    /**
+     * In order to stop the near-cache and the persistent store from growing infinitely large,
+     * we periodically purge all token-id's which would be rejected because of expiration
+     * anyway.
+     */
+    private void cleanUpIfDue() {
+        long now = System.currentTimeMillis();
+        long due = nextCleanUp.get();
+        if (now < due || !nextCleanUp.compareAndSet(due, now + cleanUpInterval.toMillis())) {
+            return;
+        }
+        seenJtis.entrySet().removeIf(entry -> entry.getValue() < now);
+        if (isPersistent()) {
+            executorService.submit(() -> {
+                try {
+                    replayCacheRepository.deleteAllByExpiresAtBefore(Instant.ofEpochMilli(now));
+                } catch (Exception e) {
+                    log.warn("Failure while purging expired jti's", e);
+                }
+            });
+        }
+    }
+}
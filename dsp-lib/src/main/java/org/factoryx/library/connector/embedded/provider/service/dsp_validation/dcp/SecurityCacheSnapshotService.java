@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+import com.apicatalog.jsonld.document.JsonDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonStructure;
+import jakarta.json.JsonValue;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils;
+import org.factoryx.library.connector.embedded.provider.service.helpers.contextdefinitions.UtilDocLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the security-related caches (resolved did-documents and fetched JSON-LD contexts)
+ * to a local file and restores them at startup, so that a restarted instance doesn't have to
+ * fetch all of them again on the first request of each partner.
+ * <p>
+ * Restored did-documents and contexts are only used for a short time (org.factoryx.library.cachesnapshot.restoredttl),
+ * and every restored did-document is fetched again in the background, so that keys, which have been rotated or
+ * revoked while the instance was down, are not accepted for long.
+ * <p>
+ * The snapshot is authenticated with an HMAC, a snapshot with a missing or wrong HMAC is not restored. Still,
+ * the file and the HMAC key must be protected like key material.
+ * <p>
+ * Disabled unless org.factoryx.library.cachesnapshot.path and org.factoryx.library.cachesnapshot.hmackey are set.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class SecurityCacheSnapshotService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${org.factoryx.library.cachesnapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${org.factoryx.library.cachesnapshot.interval:PT5M}")
+    private Duration snapshotInterval;
+
+    /**
+     * Maximum time, for which restored entries are used
+     */
+    @Value("${org.factoryx.library.cachesnapshot.restoredttl:PT5M}")
+    private Duration restoredTtl = Duration.ofMinutes(5);
+
+    /**
+     * Base64-encoded key for the HMAC (SHA-256) of the snapshot
+     */
+    @Value("${org.factoryx.library.cachesnapshot.hmackey:}")
+    private String hmacKey;
+
+    private final DidDocumentResolver didDocumentResolver;
+    private final ExecutorService executorService;
+    private ScheduledExecutorService scheduler;
+
+    public SecurityCacheSnapshotService(DidDocumentResolver didDocumentResolver, ExecutorService executorService) {
+        this.didDocumentResolver = didDocumentResolver;
+        this.executorService = executorService;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!isEnabled()) {
+            if (snapshotPath != null && !snapshotPath.isBlank()) {
+                log.warn("Snapshots of security caches are disabled, org.factoryx.library.cachesnapshot.hmackey is missing");
+            }
+            return;
+        }
+        executorService.submit(this::restoreSnapshot);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "security-cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::writeSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Snapshots of security caches enabled at {}", snapshotPath);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            writeSnapshot();
+        }
+    }
+
+    private boolean isEnabled() {
+        return snapshotPath != null && !snapshotPath.isBlank() && hmacKey != null && !hmacKey.isBlank();
+    }
+
+    private String hmac(String content) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(hmacKey), HMAC_ALGORITHM));
+        return Base64.getEncoder().encodeToString(mac.doFinal(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Writes the current content of the caches to the snapshot file. The file is replaced atomically,
+     * so that a crash during the write can't leave a corrupted snapshot behind.
+     */
+    public void writeSnapshot() {
+        try {
+            JsonArrayBuilder didDocuments = Json.createArrayBuilder();
+            didDocumentResolver.exportDidDocuments().forEach((did, entry) -> didDocuments.add(Json.createObjectBuilder()
+                    .add("did", did)
+                    .add("lastUpdated", entry.lastUpdated().toEpochMilli())
+                    .add("urlPrefix", entry.urlPrefix() == null ? JsonValue.NULL : Json.createValue(entry.urlPrefix()))
+                    .add("document", entry.didDocument())));
+            JsonArrayBuilder contexts = Json.createArrayBuilder();
+            JsonUtils.getDocumentLoader().exportFetchedDocuments().forEach((uri, document) ->
+                    document.getJsonContent().ifPresent(content -> contexts.add(Json.createObjectBuilder()
+                            .add("uri", uri.toString())
+                            .add("document", content))));
+            String content = Json.createObjectBuilder()
+                    .add("didDocuments", didDocuments)
+                    .add("contexts", contexts)
+                    .build().toString();
+            JsonObject snapshot = Json.createObjectBuilder()
+                    .add("snapshot", content)
+                    .add("hmac", hmac(content))
+                    .build();
+            Path target = Path.of(snapshotPath);
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+            Files.writeString(temp, snapshot.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote security cache snapshot to {}", target);
+        } catch (Exception e) {
+            log.warn("Failure while writing security cache snapshot", e);
+        }
+    }
+
+    /**
+     * Reads the snapshot file (if present) and, if its HMAC is valid, hands its entries to the respective caches,
+     * which decide whether they are still valid. Restored did-documents are fetched again in the background.
+     */
+    public void restoreSnapshot() {
+        Path source = Path.of(snapshotPath);
+        if (!Files.isRegularFile(source)) {
+            return;
+        }
+        try {
+            JsonObject file = JsonUtils.parse(Files.readString(source, StandardCharsets.UTF_8));
+            String content = file.getString("snapshot");
+            if (!MessageDigest.isEqual(hmac(content).getBytes(StandardCharsets.UTF_8),
+                    file.getString("hmac", "").getBytes(StandardCharsets.UTF_8))) {
+                log.warn("Not restoring security cache snapshot from {}, its HMAC is invalid", source);
+                return;
+            }
+            JsonObject snapshot = JsonUtils.parse(content);
+            int restoredDidDocuments = 0;
+            for (JsonValue value : snapshot.getJsonArray("didDocuments")) {
+                try {
+                    JsonObject item = value.asJsonObject();
+                    String did = item.getString("did");
+                    var entry = new DidDocumentResolver.DidDocCacheEntry(item.getJsonObject("document"),
+                            Instant.ofEpochMilli(item.getJsonNumber("lastUpdated").longValue()),
+                            item.getString("urlPrefix", null));
+                    if (didDocumentResolver.restoreDidDocument(did, entry, restoredTtl)) {
+                        restoredDidDocuments++;
+                        executorService.submit(() -> didDocumentResolver.refreshRestoredDidDocument(did));
+                    }
+                } catch (Exception e) {
+                    log.warn("Skipping invalid did-document entry in snapshot", e);
+                }
+            }
+            UtilDocLoader documentLoader = JsonUtils.getDocumentLoader();
+            int restoredContexts = 0;
+            for (JsonValue value : snapshot.getJsonArray("contexts")) {
+                try {
+                    JsonObject item = value.asJsonObject();
+                    documentLoader.importDocument(URI.create(item.getString("uri")),
+                            JsonDocument.of((JsonStructure) item.get("document")), restoredTtl);
+                    restoredContexts++;
+                } catch (Exception e) {
+                    log.warn("Skipping invalid context entry in snapshot", e);
+                }
+            }
+            log.info("Restored {} did-documents and {} contexts from {}", restoredDidDocuments, restoredContexts, source);
+        } catch (Exception e) {
+            log.warn("Failure while restoring security cache snapshot from {}", source, e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp;
+
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache for the outcome of successful membership checks. Keyed by partner did, it holds the
+ * partner properties that were derived from the verified presentation, so that subsequent
+ * requests of the same partner don't need to repeat the STS call, the credential service query and
+ * the verification of the presentation and its credentials.
+ * <p>
+ * An entry is valid until the earliest expiry of the presentation and the credentials it contained,
+ * but never longer than the configured maximum age. It is dropped as soon as the key set in the
+ * partner's did-document has changed.
+ * <p>
+ * The revocation status of the credentials is not checked, so a revoked membership is accepted for at most
+ * the maximum age after its last verification.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class VerifiedCredentialCache {
+
+    /**
+     * Upper bound for the lifetime of an entry, and thus for the time a revoked membership is still accepted.
+     * A zero or negative value disables the cache.
+     */
+    @Value("${org.factoryx.library.dcp.credentialcache.maxage:PT5M}")
+    private Duration maxAge = Duration.ofMinutes(5);
+
+    private final ConcurrentHashMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    private record CacheEntry(Map<String, String> partnerProperties, long validUntil, String keySetFingerprint) {
+    }
+
+    /**
+     * Returns the cached partner properties, if there is a valid entry for the given partner.
+     *
+     * @param partnerDid  the did of the partner
+     * @param didDocument the partner's current did-document
+     * @return the partner properties, or null if there is no valid entry
+     */
+    public Map<String, String> get(String partnerDid, JsonObject didDocument) {
+        if (!isEnabled() || partnerDid == null) {
+            return null;
+        }
+        CacheEntry entry = entries.get(partnerDid);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.validUntil() < System.currentTimeMillis()) {
+            entries.remove(partnerDid, entry);
+            return null;
+        }
+        if (!entry.keySetFingerprint().equals(keySetFingerprint(didDocument))) {
+            log.info("Key set of {} has changed, membership must be re-verified", partnerDid);
+            entries.remove(partnerDid, entry);
+            return null;
+        }
+        return entry.partnerProperties();
+    }
+
+    /**
+     * Checks whether there is an unexpired entry for the given partner, without comparing the key set.
+     * Useful for deciding whether preparatory remote calls for a full verification are worthwhile.
+     *
+     * @param partnerDid the did of the partner
+     * @return true, if there is an unexpired entry
+     */
+    public boolean contains(String partnerDid) {
+        if (!isEnabled() || partnerDid == null) {
+            return false;
+        }
+        CacheEntry entry = entries.get(partnerDid);
+        return entry != null && entry.validUntil() >= System.currentTimeMillis();
+    }
+
+    /**
+     * Stores the partner properties, that were derived from a successfully verified presentation.
+     *
+     * @param partnerDid        the did of the partner
+     * @param didDocument       the partner's did-document, that was used during verification
+     * @param partnerProperties the partner properties
+     * @param earliestExpiry    the earliest expiry (epoch millis) of the presentation and its credentials
+     */
+    public void put(String partnerDid, JsonObject didDocument, Map<String, String> partnerProperties, long earliestExpiry) {
+        if (!isEnabled() || partnerDid == null) {
+            return;
+        }
+        String fingerprint = keySetFingerprint(didDocument);
+        if (fingerprint == null) {
+            return;
+        }
+        long validUntil = Math.min(earliestExpiry, System.currentTimeMillis() + maxAge.toMillis());
+        entries.put(partnerDid, new CacheEntry(Map.copyOf(partnerProperties), validUntil, fingerprint));
+    }
+
+    /**
+     * Drops all entries.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Lowers the given expiry to the expiration time of the given token, if the latter is earlier.
+     *
+     * @param earliestExpiry the expiry (epoch millis) collected so far
+     * @param token          the presentation or credential token
+     * @throws ParseException if the token's claims can't be parsed
+     */
+    public static void trackExpiry(AtomicLong earliestExpiry, SignedJWT token) throws ParseException {
+        Date exp = token.getJWTClaimsSet().getExpirationTime();
+        if (exp != null) {
+            earliestExpiry.accumulateAndGet(exp.getTime(), Math::min);
+        }
+    }
+
+    private boolean isEnabled() {
+        return maxAge != null && maxAge.isPositive();
+    }
+
+    /**
+     * Creates a fingerprint of the verification methods in the given did-document.
+     *
+     * @param didDocument the did-document
+     * @return the fingerprint, or null if the document doesn't contain any verification methods
+     */
+    static String keySetFingerprint(JsonObject didDocument) {
+        if (didDocument == null) {
+            return null;
+        }
+        try {
+            JsonArray verificationMethods = didDocument.getJsonArray("verificationMethod");
+            if (verificationMethods == null) {
+                return null;
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            verificationMethods.stream()
+                    .map(Object::toString)
+                    .sorted()
+                    .forEach(method -> digest.update(method.getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            log.warn("Failure while creating key set fingerprint", e);
+            return null;
+        }
+    }
+}
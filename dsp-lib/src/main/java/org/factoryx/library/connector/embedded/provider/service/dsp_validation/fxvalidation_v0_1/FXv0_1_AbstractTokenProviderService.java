@@ -1,13 +1,65 @@
 package org.factoryx.library.connector.embedded.provider.service.dsp_validation.fxvalidation_v0_1;
 
-import jakarta.json.Json;
-import jakarta.json.JsonObject;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
 import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenProviderService;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
 import org.factoryx.library.connector.embedded.provider.model.transfer.TransferRecord;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Slf4j
 public abstract class FXv0_1_AbstractTokenProviderService implements DspTokenProviderService {
 
+    /**
+     * Safety margin (in milliseconds), by which cached tokens are considered expired before their actual expiry
+     */
+    static final long EXPIRY_SKEW = 30_000;
+
+    /**
+     * Toggle, whether tokens for outbound messages are reused per partner until they expire. Only enable this,
+     * if your partners don't reject tokens with an already seen jti.
+     */
+    @Value("${org.factoryx.library.fxv01.cachepartnertokens:false}")
+    private boolean cachePartnerTokens;
+
+    /**
+     * Cache for tokens for outbound messages. The key is the partner's did.
+     */
+    private final ConcurrentHashMap<String, CachedToken> partnerTokens = new ConcurrentHashMap<>();
+
+    /**
+     * A token together with the points in time (epoch millis), when it should be refreshed
+     * and when it must not be used any more.
+     */
+    record CachedToken(String value, long refreshAt, long expiresAt) {
+
+        /**
+         * Creates an entry for a token with the given lifetime, taking the safety margin into account.
+         *
+         * @param value    the token
+         * @param lifetime the lifetime of the token in milliseconds, as announced by its issuer
+         * @return the entry
+         */
+        static CachedToken of(String value, long lifetime) {
+            long now = System.currentTimeMillis();
+            long expiresAt = now + lifetime - Math.min(EXPIRY_SKEW, lifetime / 2);
+            long refreshAt = Math.min(now + lifetime * 3 / 4, expiresAt);
+            return new CachedToken(value, refreshAt, expiresAt);
+        }
+
+        boolean isUsable(long now) {
+            return now < expiresAt;
+        }
+
+        boolean isDueForRefresh(long now) {
+            return now >= refreshAt;
+        }
+    }
+
     @Override
     abstract public String provideTokenForPartner(NegotiationRecord record);
 
@@ -15,4 +67,32 @@ public abstract class FXv0_1_AbstractTokenProviderService implements DspTokenPro
     abstract public String provideTokenForPartner(TransferRecord record);
 
     abstract String getWrappedToken(String partnerDid, String tokenFromPartner);
+
+    /**
+     * Returns a token for the given partner, either from the cache (if enabled) or by using
+     * the given factory.
+     *
+     * @param partnerDid   the did of the partner
+     * @param tokenFactory creates a fresh token for the partner
+     * @return the token
+     */
+    String getPartnerToken(String partnerDid, Function<String, String> tokenFactory) {
+        if (!cachePartnerTokens) {
+            return tokenFactory.apply(partnerDid);
+        }
+        CachedToken cachedToken = partnerTokens.get(partnerDid);
+        if (cachedToken != null && cachedToken.isUsable(System.currentTimeMillis())) {
+            return cachedToken.value();
+        }
+        String token = tokenFactory.apply(partnerDid);
+        try {
+            Date exp = SignedJWT.parse(token).getJWTClaimsSet().getExpirationTime();
+            if (exp != null) {
+                partnerTokens.put(partnerDid, CachedToken.of(token, exp.getTime() - System.currentTimeMillis()));
+            }
+        } catch (Exception e) {
+            log.warn("Unable to determine expiry of token for {}, not caching it", partnerDid, e);
+        }
+        return token;
+    }
 }
@@ -17,6 +17,7 @@
 package org.factoryx.library.connector.embedded.provider.service.dsp_validation.fxvalidation_v0_1;
 
 import jakarta.json.Json;
+import jakarta.json.JsonNumber;
 import jakarta.json.JsonObject;
 import lombok.extern.slf4j.Slf4j;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
@@ -32,6 +33,11 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestClient;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
 import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
 import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.prettyPrint;
 
@@ -42,6 +48,7 @@ public class FXv0_1_DimWalletTokenProviderService extends FXv0_1_AbstractTokenPr
 
     private final EnvService envService;
     private final RestClient restClient;
+    private final ExecutorService executorService;
 
     @Value("${org.factoryx.library.fxv01.vaultroottoken:root}")
     private String vaultRootToken;
@@ -67,11 +74,27 @@ public class FXv0_1_DimWalletTokenProviderService extends FXv0_1_AbstractTokenPr
     /**
      * Is initialized at runtime via request to the vault
      */
-    private String dimTokenAccessSecret;
+    private volatile String dimTokenAccessSecret;
+
+    /**
+     * The current access token for the DIM wallet, shared by all threads
+     */
+    private final AtomicReference<CachedToken> dimAccessToken = new AtomicReference<>();
 
-    public FXv0_1_DimWalletTokenProviderService(EnvService envService, RestClient restClient) {
+    /**
+     * Guards the synchronous fetch of a DIM access token, when there is no usable one
+     */
+    private final ReentrantLock dimAccessTokenLock = new ReentrantLock();
+
+    /**
+     * Indicates whether a background refresh of the DIM access token is in progress
+     */
+    private final AtomicBoolean dimAccessTokenRefreshing = new AtomicBoolean();
+
+    public FXv0_1_DimWalletTokenProviderService(EnvService envService, RestClient restClient, ExecutorService executorService) {
         this.envService = envService;
         this.restClient = restClient;
+        this.executorService = executorService;
     }
 
     @Override
@@ -85,7 +108,10 @@ public class FXv0_1_DimWalletTokenProviderService extends FXv0_1_AbstractTokenPr
     }
 
     private String provideTokenForPartner(String partnerDid) {
+        return getPartnerToken(partnerDid, this::createTokenForPartner);
+    }
 
+    private String createTokenForPartner(String partnerDid) {
         JsonObject payload = Json.createObjectBuilder()
                 .add("grantAccess", Json.createObjectBuilder()
                         .add("scope", "read")
@@ -129,6 +155,10 @@ public class FXv0_1_DimWalletTokenProviderService extends FXv0_1_AbstractTokenPr
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, (req, res) -> {
                     log.info("dim request status: " + res.getStatusCode());
+                    if (res.getStatusCode().value() == 401) {
+                        // our access token has been rejected, don't reuse it
+                        dimAccessToken.compareAndSet(dimAccessTokenFor(dimCurrentToken), null);
+                    }
                 })
                 .onStatus(HttpStatusCode::is2xxSuccessful, (req, res) -> {
                     log.info("dim request status: " + res.getStatusCode());
@@ -139,7 +169,47 @@ public class FXv0_1_DimWalletTokenProviderService extends FXv0_1_AbstractTokenPr
         return stsResponseObject.getString("jwt");
     }
 
+    /**
+     * Returns an access token for the DIM wallet. A cached token is used as long as it is valid. When it is
+     * about to expire, a refresh is triggered in the background, so that callers don't have to wait for it.
+     *
+     * @return the access token
+     */
     String obtainDimAccessToken() {
+        long now = System.currentTimeMillis();
+        CachedToken current = dimAccessToken.get();
+        if (current != null && current.isUsable(now)) {
+            if (current.isDueForRefresh(now) && dimAccessTokenRefreshing.compareAndSet(false, true)) {
+                executorService.submit(() -> {
+                    try {
+                        fetchDimAccessToken();
+                    } catch (Exception e) {
+                        log.warn("Background refresh of dim access token failed", e);
+                    } finally {
+                        dimAccessTokenRefreshing.set(false);
+                    }
+                });
+            }
+            return current.value();
+        }
+        dimAccessTokenLock.lock();
+        try {
+            current = dimAccessToken.get();
+            if (current != null && current.isUsable(System.currentTimeMillis())) {
+                return current.value();
+            }
+            return fetchDimAccessToken().value();
+        } finally {
+            dimAccessTokenLock.unlock();
+        }
+    }
+
+    private CachedToken dimAccessTokenFor(String token) {
+        CachedToken current = dimAccessToken.get();
+        return current != null && current.value().equals(token) ? current : null;
+    }
+
+    private CachedToken fetchDimAccessToken() {
         if (dimTokenAccessSecret == null) {
             String vaultRequestUrl = vaultBaseUrl + "/v1/secret/data/" + vaultSecretAlias;
             String vaultResponse = restClient.get()
@@ -148,9 +218,9 @@ public class FXv0_1_DimWalletTokenProviderService extends FXv0_1_AbstractTokenPr
                     .retrieve()
                     .body(String.class);
             JsonObject vaultResponseJson = parse(vaultResponse);
-            dimTokenAccessSecret = vaultResponseJson.getJsonObject("data").getJsonObject("data").getString("content");
-            if (dimTokenAccessSecret != null) {
-                dimTokenAccessSecret = dimTokenAccessSecret.strip();
+            String secret = vaultResponseJson.getJsonObject("data").getJsonObject("data").getString("content");
+            if (secret != null) {
+                dimTokenAccessSecret = secret.strip();
                 log.info("dimTokenAccessSecret found");
             }
         }
@@ -172,6 +242,11 @@ public class FXv0_1_DimWalletTokenProviderService extends FXv0_1_AbstractTokenPr
                 .body(String.class);
         log.info("dim token response body: \n{}", dimTokenResponse);
         JsonObject jsonResponseBody = parse(dimTokenResponse);
-        return jsonResponseBody.getString("access_token").strip();
+        String accessToken = jsonResponseBody.getString("access_token").strip();
+        // without an announced lifetime, the token is used for the current request only
+        long lifetime = jsonResponseBody.get("expires_in") instanceof JsonNumber expiresIn ? expiresIn.longValue() * 1000 : 0;
+        CachedToken cachedToken = CachedToken.of(accessToken, lifetime);
+        dimAccessToken.set(cachedToken);
+        return cachedToken;
     }
 }
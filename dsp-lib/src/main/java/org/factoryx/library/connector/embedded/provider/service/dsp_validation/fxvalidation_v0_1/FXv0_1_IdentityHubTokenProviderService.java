@@ -43,7 +43,7 @@ public class FXv0_1_IdentityHubTokenProviderService extends FXv0_1_AbstractToken
     /**
      * Is initialized at runtime via request to the vault
      */
-    private String stsSecret;
+    private volatile String stsSecret;
 
     public FXv0_1_IdentityHubTokenProviderService(EnvService envService, RestClient restClient) {
         this.envService = envService;
@@ -65,7 +65,7 @@ public class FXv0_1_IdentityHubTokenProviderService extends FXv0_1_AbstractToken
     String getWrappedToken(String partnerDid, String tokenFromPartner) {
         MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
         requestBody.add("grant_type", "client_credentials");
-        requestBody.add("client_secret", stsSecret);
+        requestBody.add("client_secret", getStsSecret());
         requestBody.add("client_id", envService.getBackendId());
         requestBody.add("audience", partnerDid);
         requestBody.add("token", tokenFromPartner);
@@ -75,9 +75,13 @@ public class FXv0_1_IdentityHubTokenProviderService extends FXv0_1_AbstractToken
 
 
     private String provideTokenForPartner(String partnerDid) {
+        return getPartnerToken(partnerDid, this::createTokenForPartner);
+    }
+
+    private String createTokenForPartner(String partnerDid) {
         MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
         requestBody.add("grant_type", "client_credentials");
-        requestBody.add("client_secret", stsSecret);
+        requestBody.add("client_secret", getStsSecret());
         requestBody.add("client_id", envService.getBackendId());
         requestBody.add("audience", partnerDid);
         requestBody.add("bearer_access_scope", "org.eclipse.edc.vc.type:MembershipCredential:read org.eclipse.edc.vc.type:DataProcessorCredential:read");
@@ -94,18 +98,6 @@ public class FXv0_1_IdentityHubTokenProviderService extends FXv0_1_AbstractToken
      * @return the token from the STS
      */
     String obtainSelfSignedSignatureFromSTS(MultiValueMap<String, String> requestBody) {
-        if (stsSecret == null) {
-            String vaultResponse = restClient.get()
-                    .uri(vaultBaseUrl + "/v1/secret/data/" + vaultSecretAlias)
-                    .header("X-Vault-Token", vaultRootToken)
-                    .retrieve()
-                    .body(String.class);
-            JsonObject vaultResponseJson = parse(vaultResponse);
-            stsSecret = vaultResponseJson.getJsonObject("data").getJsonObject("data").getString("content");
-            if (stsSecret != null) {
-                log.info("STS Secret found");
-            }
-        }
         String stsResponse = restClient.post()
                 .uri(identityHubTokenUrl)
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
@@ -121,4 +113,25 @@ public class FXv0_1_IdentityHubTokenProviderService extends FXv0_1_AbstractToken
         var stsResponseObject = JsonUtils.parse(stsResponse);
         return stsResponseObject.getString("access_token").strip();
     }
+
+    /**
+     * Returns the secret for the STS, which is loaded from the vault on first use.
+     *
+     * @return the secret
+     */
+    private String getStsSecret() {
+        if (stsSecret == null) {
+            String vaultResponse = restClient.get()
+                    .uri(vaultBaseUrl + "/v1/secret/data/" + vaultSecretAlias)
+                    .header("X-Vault-Token", vaultRootToken)
+                    .retrieve()
+                    .body(String.class);
+            JsonObject vaultResponseJson = parse(vaultResponse);
+            stsSecret = vaultResponseJson.getJsonObject("data").getJsonObject("data").getString("content");
+            if (stsSecret != null) {
+                log.info("STS Secret found");
+            }
+        }
+        return stsSecret;
+    }
 }
@@ -16,399 +16,85 @@
 
 package org.factoryx.library.connector.embedded.provider.service.dsp_validation.fxvalidation_v0_1;
 
-import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.ECDSAVerifier;
-import com.nimbusds.jose.crypto.Ed25519Verifier;
-import com.nimbusds.jose.jwk.ECKey;
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.KeyType;
-import com.nimbusds.jose.jwk.OctetKeyPair;
-import com.nimbusds.jwt.SignedJWT;
-import jakarta.json.Json;
-import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonString;
 import lombok.extern.slf4j.Slf4j;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenValidationService;
-import org.factoryx.library.connector.embedded.provider.service.helpers.EnvService;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DcpValidationEngine;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DcpValidationProfile;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
-import java.net.URI;
-import java.security.Security;
-import java.time.Duration;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
-import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
-import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.prettyPrint;
-
+/**
+ * DCP validation according to the Factory-X profile v0.1. Any credential from the trusted issuer
+ * in the partner's presentation is accepted as proof of membership.
+ */
 @Service
 @Slf4j
 @ConditionalOnProperty(name = "org.factoryx.library.validationservice", havingValue = "fxv0_1")
-public class FXv0_1_ValidationService implements DspTokenValidationService {
+public class FXv0_1_ValidationService implements DspTokenValidationService, DcpValidationProfile {
 
-    /**
-     * Cache for Did-documents
-     */
-    private final HashMap<String, DidDocCacheEntry> didDocumentsCache = new HashMap<>();
-
-    /**
-     * Interval after which a renewed fetch must be performed
-     */
-    private final Duration didCacheUpdateInterval = Duration.ofDays(1);
-
-    private record DidDocCacheEntry(JsonObject didDocument, LocalDateTime lastUpdated) {
-    }
-
-    /**
-     * Cache for seen jti's. The attached value represents the timestamp, after which the
-     * respective token has expired and thus became obsolete anyway. Expired tokens are expected
-     * to be purged.
-     */
-    private final HashMap<String, Long> seenJtis = new HashMap<>();
+    @Value("${org.factoryx.library.fxv01.trustedissuer:did:web:dataspace-issuer}")
+    private String TRUSTED_ISSUER;
 
     /**
-     * Cache for token-signature-verifiers. The outer map's key is a partner's did.
-     * The inner map's key is a key-id. The value contains a verifier that is expected
-     * to verify all signatures that were created with that key.
+     * Scheme used for resolving did:web documents. Only meant to be changed for local test setups.
      */
-    private final HashMap<String, HashMap<String, JWSVerifier>> knownJwsVerifiers = new HashMap<>();
-
-    @Value("${org.factoryx.library.fxv01.trustedissuer:did:web:dataspace-issuer}")
-    private String TRUSTED_ISSUER;
+    @Value("${org.factoryx.library.fxv01.didurlprefix:https://}")
+    private String didUrlPrefix = "https://";
 
-    private final RestClient restClient;
-    private final EnvService envService;
+    private final DcpValidationEngine dcpValidationEngine;
     private final FXv0_1_AbstractTokenProviderService fXv01TokenProviderService;
-    private final BouncyCastleProvider bouncyCastleProvider = new BouncyCastleProvider();
 
-    public FXv0_1_ValidationService(RestClient restClient, EnvService envService, FXv0_1_DimWalletTokenProviderService fXv01TokenProviderService) {
-        this.restClient = restClient;
-        this.envService = envService;
+    public FXv0_1_ValidationService(DcpValidationEngine dcpValidationEngine, FXv0_1_DimWalletTokenProviderService fXv01TokenProviderService) {
+        this.dcpValidationEngine = dcpValidationEngine;
         this.fXv01TokenProviderService = fXv01TokenProviderService;
-        Security.addProvider(bouncyCastleProvider);
     }
 
     @Override
     public Map<String, String> validateToken(String token) {
-        try {
-            if ("Bearer ".equalsIgnoreCase(token.substring(0, 7))) {
-                token = token.substring(7);
-            }
-            SignedJWT jwt = SignedJWT.parse(token);
-            var claims = jwt.getJWTClaimsSet();
-            String partnerDid = claims.getStringClaim("sub");
-
-            String accessTokenForPartnerCredentialService = claims.getStringClaim("token");
-            log.info("Received AccessToken from partner:\n{}", accessTokenForPartnerCredentialService);
-            boolean signatureCheckResult = verifyTokenSignature(jwt, partnerDid);
-            boolean tokenBasicCheckResult = basicValidation(jwt);
-            String selfSignedTokenForPartnerCredentialService = fXv01TokenProviderService.getWrappedToken(partnerDid, accessTokenForPartnerCredentialService);
-
-            boolean membershipCheck = checkMembershipVerifiablePresentation(selfSignedTokenForPartnerCredentialService, partnerDid);
-            if (signatureCheckResult && tokenBasicCheckResult && membershipCheck) {
-                return Map.of(ReservedKeys.partnerId.toString(), partnerDid,
-                        ReservedKeys.credentials.toString(), "dataspacemember");
-            }
-            log.warn("Signature check: {}, membership check: {}, basic check: {}", signatureCheckResult, membershipCheck, tokenBasicCheckResult);
-            return Map.of();
-        } catch (Exception e) {
-            log.error("Failure while validating token {}", token, e);
-            return Map.of();
-        }
-    }
-
-    /**
-     * Resolves the key for the given partner and tries to verify the given token's signature with it
-     *
-     * @param token      the token, whose signature is to be checked
-     * @param partnerDid the id of the partner, who is expected to be the signer of the token
-     * @return true if verification was successful, false otherwise
-     */
-    private boolean verifyTokenSignature(SignedJWT token, String partnerDid) {
-        log.info("Validating token signature for signer {}", partnerDid);
-        try {
-            HashMap<String, JWSVerifier> verifiers = knownJwsVerifiers.computeIfAbsent(partnerDid, any -> new HashMap<>());
-            JWSVerifier jwsVerifier = verifiers.get(token.getHeader().getKeyID());
-            if (jwsVerifier == null) {
-                didDocumentsCache.put(partnerDid, null);
-                retrieveDidDocFromCacheOrFetch(partnerDid);
-                jwsVerifier = verifiers.get(token.getHeader().getKeyID());
-            }
-            boolean signatureCheck = token.verify(jwsVerifier);
-            log.info("JWS Verifier result with Key-Id: {}, {}", token.getHeader().getKeyID(), signatureCheck);
-            return signatureCheck;
-        } catch (Exception e) {
-            log.error("Failure while validating token signature", e);
-            return false;
-        }
-    }
-
-    /**
-     * Performs verification steps required by the DCP, that aren't done elsewhere.
-     *
-     * @param token the token to be validated
-     * @return true, if all checks turned out as expected, false otherwise
-     */
-    private boolean basicValidation(SignedJWT token) {
-        try {
-            log.debug("Basic validation for \n{}", prettyPrint(token.getPayload().toString()));
-            var claims = token.getJWTClaimsSet();
-            boolean valid = claims.getStringClaim("iss").equals(claims.getStringClaim("sub"));
-            log.debug("Valid after iss=sub {}", valid);
-            valid = valid && claims.getAudience().contains(envService.getBackendId());
-            log.debug("Valid after aud=myself {}", valid);
-            long now = Instant.now().toEpochMilli();
-            long leeway = 5000; // five seconds leeway
-            var nbfDate = claims.getNotBeforeTime();
-            if (nbfDate != null) {
-                long nbf = claims.getNotBeforeTime().getTime();
-                valid = valid && nbf <= now + leeway;
-            }
-            log.info("Valid after nbf {}", valid);
-
-            long exp = claims.getExpirationTime().getTime();
-            valid = valid && exp >= now - leeway;
-            log.debug("Valid after exp {}", valid);
-            String jti = claims.getJWTID();
-            valid = valid && jti != null && !seenJtis.containsKey(jti);
-            log.debug("Valid after jti {}", valid);
-            seenJtis.put(jti, exp + leeway);
-            cleanUpSeenJtis();
-
-            return valid;
-        } catch (Exception e) {
-            log.error("Failure while validating token", e);
-        }
-        return false;
+        return dcpValidationEngine.validateToken(token, this);
     }
 
-    /**
-     * In order to stop the seenJtis map from growing infinitely large,
-     * we purge all token-id's which would be rejected because of expiration
-     * anyway.
-     */
-    private void cleanUpSeenJtis() {
-        long now = Instant.now().toEpochMilli();
-        HashSet<String> expiredJtis = new HashSet<>();
-        for (var entry : seenJtis.entrySet()) {
-            if (entry.getValue() < now) {
-                expiredJtis.add(entry.getKey());
-            }
-        }
-        expiredJtis.forEach(seenJtis::remove);
+    @Override
+    public String getProfileName() {
+        return "fxv0_1";
     }
 
-    /**
-     * Derives the url of the did-document from the given partnerDid and
-     * attempts a GET request to obtain it.
-     *
-     * @param partnerDid the did of the partner in question
-     * @return the did-document, if successful, otherwise null
-     */
-    private JsonObject fetchDidDoc(String partnerDid) {
-        String url = partnerDid.replace("did:web:", "");
-        url = url.replace(":", "/");
-        url = url.replace("%3A", ":");
-        url = "https://" + url;
-        URI uri = URI.create(url);
-        uri = uri.getPath().isEmpty() ? uri.resolve("/.well-known/did.json") : URI.create(url + "/did.json");
-        String didDocResponse = restClient.get()
-                .uri(uri)
-                .retrieve()
-                .onStatus(HttpStatusCode::isError, (req, res) -> {
-                    log.info("Status of Did-Doc Request for {}: {}", partnerDid, res.getStatusCode());
-                })
-                .onStatus(HttpStatusCode::is2xxSuccessful, (req, res) -> {
-                    log.info("Status of Did-Doc Request for {}: {}", partnerDid, res.getStatusCode());
-                })
-                .body(String.class);
-        JsonObject didJson = parse(didDocResponse);
-        if (didJson.getString("id").equals(partnerDid)) {
-            return didJson;
-        }
-        return null;
+    @Override
+    public String getTrustedIssuer() {
+        return TRUSTED_ISSUER;
     }
 
-    /**
-     * Returns the did-document for the partner with the given did, either by using a cached document if possible
-     * or by triggering a http GET request, if necessary.
-     *
-     * @param partnerDid the did of the partner in question
-     * @return the did-document, if successful, otherwise null
-     */
-    private JsonObject retrieveDidDocFromCacheOrFetch(String partnerDid) {
-        try {
-            DidDocCacheEntry didDocCacheEntry = didDocumentsCache.get(partnerDid);
-            if (didDocCacheEntry != null && didDocCacheEntry.lastUpdated() != null && didDocCacheEntry.didDocument() != null) {
-                if (LocalDateTime.now().isBefore(didDocCacheEntry.lastUpdated().plus(didCacheUpdateInterval))) {
-                    return didDocCacheEntry.didDocument();
-                }
-            }
-            JsonObject didJson = fetchDidDoc(partnerDid);
-            if (didJson == null) {
-                return null;
-            }
-            log.info("Retrieved did-doc:\n{}", prettyPrint(didJson));
-            for (var entry : didJson.getJsonArray("verificationMethod")) {
-                if (entry instanceof JsonObject entryObject) {
-                    try {
-                        String keyId = entryObject.getString("id");
-                        if (keyId == null) {
-                            log.error("Missing key id: \n{}", prettyPrint(entryObject));
-                            continue;
-                        }
-                        JsonObject publicKeyJwk = entryObject.getJsonObject("publicKeyJwk");
-                        JWK jwk = JWK.parse(publicKeyJwk.toString());
-                        log.info("Found public key: {}", jwk);
-                        if (jwk.getKeyType().equals(KeyType.EC)) {
-                            ECKey ecKey = jwk.toPublicJWK().toECKey();
-                            ECDSAVerifier jwsVerifier = new ECDSAVerifier(ecKey);
-                            if ("secp256k1".equals(ecKey.getCurve().getName())) {
-                                jwsVerifier.getJCAContext().setProvider(bouncyCastleProvider);
-                            }
-                            var verifierMap = knownJwsVerifiers.computeIfAbsent(partnerDid, any -> new HashMap<>());
-                            verifierMap.put(keyId, jwsVerifier);
-                        } else if (jwk.getKeyType().equals(KeyType.OKP)) {
-                            JWSVerifier jwsVerifier = new Ed25519Verifier((OctetKeyPair) jwk.toPublicJWK());
-                            var verifierMap = knownJwsVerifiers.computeIfAbsent(partnerDid, any -> new HashMap<>());
-                            verifierMap.put(keyId, jwsVerifier);
-                        } else {
-                            log.error("Unsupported encryption algorithm {}", jwk.getKeyType());
-                        }
-
-                    } catch (Exception e) {
-                        log.error("Failure while retrieving public key for {}", partnerDid, e);
-                    }
-                }
-            }
-            didDocumentsCache.put(partnerDid, new DidDocCacheEntry(didJson, LocalDateTime.now()));
-            return didJson;
-        } catch (Exception e) {
-            log.error("Failure while retrieving Did-Doc Request {}", partnerDid, e);
-            return null;
-        }
+    @Override
+    public String getDidUrlPrefix() {
+        return didUrlPrefix;
     }
 
-    /**
-     * Retrieves and inspects the membership credential for a given partner, using the provided token.
-     *
-     * @param selfSignedTokenForPartnerCredentialService a self-signed token that wraps an access token from the partner
-     * @param partnerDid                                 the id of the partner in question
-     * @return true if the check was successful, false otherwise
-     */
-    private boolean checkMembershipVerifiablePresentation(String selfSignedTokenForPartnerCredentialService,
-                                                          String partnerDid) {
-        try {
-            String credentialServiceUrl = extractCredentialServiceUrlFromDidDocument(retrieveDidDocFromCacheOrFetch(partnerDid));
-            credentialServiceUrl += "/presentations/query";
-            String credServiceResponse = restClient
-                    .post()
-                    .uri(credentialServiceUrl)
-                    .header("Authorization", "Bearer " + selfSignedTokenForPartnerCredentialService)
-                    .header("Content-Type", "application/json")
-                    .body(getPresentationQuery())
-                    .retrieve()
-                    .onStatus(HttpStatusCode::isError, (req, res) -> {
-                        log.info("Call to CredentialService Endpoint Status: " + res.getStatusCode());
-                    })
-                    .onStatus(HttpStatusCode::is2xxSuccessful, (req, res) -> {
-                        log.info("Call to CredentialService Endpoint Status: " + res.getStatusCode());
-                    })
-                    .body(String.class);
-            JsonObject credServiceResponseJson = parse(credServiceResponse);
-            log.info("Got Response from CredentialService \n{}", prettyPrint(credServiceResponseJson));
-            boolean vcExpectationSatisfied = false;
-            if (credServiceResponseJson.getString("type").equals("PresentationResponseMessage")) {
-                JsonArray presentationsArray = credServiceResponseJson.getJsonArray("presentation");
-                for (var item : presentationsArray) {
-                    if (item instanceof JsonString jsonString) {
-                        String presentationToken = jsonString.getString();
-                        SignedJWT signedPresentationJWT = SignedJWT.parse(presentationToken);
-                        if (verifyTokenSignature(signedPresentationJWT, partnerDid)) {
-                            // inspect "verifiableCredential" array
-                            try {
-                                JsonObject vpPayloadObject = parse(signedPresentationJWT.getPayload().toString());
-                                log.info("Got PresentationPayloadObject \n{}", prettyPrint(vpPayloadObject));
-                                JsonObject vcObject = vpPayloadObject.getJsonObject("vp");
-                                log.info("Got VPObject \n{}", prettyPrint(vcObject));
-                                for (var vcItem : vcObject.getJsonArray("verifiableCredential")) {
-                                    if (vcItem instanceof JsonString vcRawJsonString) {
-                                        String vcRawString = vcRawJsonString.getString();
-                                        SignedJWT signedVcRawJWT = SignedJWT.parse(vcRawString);
-                                        String vcIssuer = signedVcRawJWT.getJWTClaimsSet().getIssuer();
-                                        if (TRUSTED_ISSUER.equals(vcIssuer) && verifyTokenSignature(signedVcRawJWT, vcIssuer)) {
-                                            JsonObject vcPayload = parse(signedVcRawJWT.getPayload().toString());
-                                            log.info("found verifiable credential \n{}", prettyPrint(vcPayload));
-                                            vcExpectationSatisfied = true;
-                                        }
-                                    } else {
-                                        log.info("Not a JsonString \n{}", vcItem);
-                                    }
-                                }
-                                return vcExpectationSatisfied;
-                            } catch (Exception e) {
-                                log.error(e.getMessage(),e);
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error while checking membership vpp", e);
-            return false;
-        }
+    @Override
+    public boolean isNbfRequired() {
         return false;
     }
 
-    /**
-     * A helper method that extracts the url of the credential service from a partner's did-document.
-     *
-     * @param didDocument the did-document, we want to extract the url from
-     * @return the url, if successful, otherwise null
-     */
-    private String extractCredentialServiceUrlFromDidDocument(JsonObject didDocument) {
-        try {
-            var serviceArray = didDocument.getJsonArray("service");
-            JsonObject credentialService = (JsonObject) serviceArray.stream()
-                    .filter(entry -> entry instanceof JsonObject)
-                    .filter(entry -> ((JsonObject) entry).getString("type").equals("CredentialService"))
-                    .findFirst().orElse(null);
-            if (credentialService != null) {
-                String serviceEndpoint = credentialService.getString("serviceEndpoint");
-                log.info("Credential Service url found {}", serviceEndpoint);
-                return serviceEndpoint;
-            } else {
-                log.error("Credential Service not found");
-                return null;
-            }
-        } catch (Exception e) {
-            log.error("Failure while parsing Did-Doc \n{}", prettyPrint(didDocument), e);
-            return null;
-        }
+    @Override
+    public String getWrappedToken(String partnerDid, String tokenFromPartner) {
+        return fXv01TokenProviderService.getWrappedToken(partnerDid, tokenFromPartner);
     }
 
-
-    /**
-     * A helper method that generates a presentation query request body for a membership credential.
-     *
-     * @return the query request body
-     */
-    private String getPresentationQuery() {
-        var presentationQuery = Json.createObjectBuilder();
-        var context = Json.createArrayBuilder();
-        context.add("https://w3id.org/dspace-dcp/v1.0/dcp.jsonld");
-        presentationQuery.add("@context", context.build());
-        presentationQuery.add("type", "PresentationQueryMessage");
-        return presentationQuery.build().toString();
+    @Override
+    public List<String> extractPresentations(JsonObject presentationResponse) {
+        return presentationResponse.getJsonArray("presentation").stream()
+                .filter(item -> item instanceof JsonString)
+                .map(item -> ((JsonString) item).getString())
+                .toList();
     }
 
+    @Override
+    public boolean evaluateCredential(String partnerDid, JsonObject vcPayload) {
+        return true;
+    }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.fileassets;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAssetManagementService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * A ready-to-use {@link DataAssetManagementService}, that offers every regular file in a directory
+ * as a {@link FileDataAsset}. The directory is watched, so that added, replaced and deleted files
+ * are reflected in the catalog without a restart.
+ * <p>
+ * Hidden files (starting with ".") are ignored, so that files can be uploaded under a hidden
+ * temporary name and then be moved to their final name. Subdirectories are not served.
+ * <p>
+ * All files are visible to every partner. Override {@link #isVisible(FileDataAsset, Map)} in order to
+ * restrict the visibility based on the partner properties.
+ * <p>
+ * Disabled unless org.factoryx.library.fileassets.directory is set.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "org.factoryx.library.fileassets.directory")
+public class DirectoryDataAssetManagementService implements DataAssetManagementService {
+
+    @Value("${org.factoryx.library.fileassets.directory}")
+    private Path directory;
+
+    /**
+     * The assets, keyed by their dsp id
+     */
+    private final ConcurrentHashMap<String, FileDataAsset> assets = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    public DirectoryDataAssetManagementService() {
+    }
+
+    public DirectoryDataAssetManagementService(Path directory) {
+        this.directory = directory;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        rescan();
+        watcher = new Thread(this::watch, "file-asset-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Serving {} files from {}", assets.size(), directory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Failure while closing watch service", e);
+            }
+        }
+    }
+
+    /**
+     * Decides, whether a partner with the given properties may see the given asset.
+     *
+     * @param asset             the asset
+     * @param partnerProperties the properties of the partner
+     * @return true, if the asset is visible
+     */
+    protected boolean isVisible(FileDataAsset asset, Map<String, String> partnerProperties) {
+        return true;
+    }
+
+    @Override
+    public DataAsset getById(String id) {
+        return id == null ? null : assets.get(id);
+    }
+
+    @Override
+    public DataAsset getByIdForProperties(String id, Map<String, String> partnerProperties) {
+        FileDataAsset asset = id == null ? null : assets.get(id);
+        return asset != null && isVisible(asset, partnerProperties) ? asset : null;
+    }
+
+    @Override
+    public List<DataAsset> getAll(Map<String, String> partnerProperties) {
+        List<DataAsset> result = new ArrayList<>();
+        for (FileDataAsset asset : assets.values()) {
+            if (isVisible(asset, partnerProperties)) {
+                result.add(asset);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Synchronizes the assets with the current content of the directory.
+     */
+    public synchronized void rescan() {
+        Set<String> found = new HashSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(DirectoryDataAssetManagementService::isServed).forEach(file -> {
+                FileDataAsset asset = register(file);
+                found.add(asset.getDspId());
+            });
+        } catch (IOException e) {
+            log.error("Failure while scanning {}", directory, e);
+            return;
+        }
+        assets.keySet().retainAll(found);
+    }
+
+    private static boolean isServed(Path file) {
+        return !file.getFileName().toString().startsWith(".") && Files.isRegularFile(file);
+    }
+
+    private FileDataAsset register(Path file) {
+        return assets.computeIfAbsent(FileDataAsset.dspIdForFileName(file.getFileName().toString()),
+                id -> new FileDataAsset(file, id, Map.of()));
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    handle(event);
+                }
+                if (!key.reset()) {
+                    log.error("Directory {} is no longer accessible", directory);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Stopped watching {}", directory);
+        }
+    }
+
+    private synchronized void handle(WatchEvent<?> event) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            log.info("Missed events for {}, rescanning", directory);
+            rescan();
+            return;
+        }
+        Path file = directory.resolve((Path) event.context());
+        String dspId = FileDataAsset.dspIdForFileName(file.getFileName().toString());
+        if (isServed(file)) {
+            // modifications need no further action, size, modification time and content hash are read lazily
+            register(file);
+            log.debug("Serving {} as {}", file, dspId);
+        } else if (assets.remove(dspId) != null) {
+            log.debug("Removed {}", file);
+        }
+    }
+}
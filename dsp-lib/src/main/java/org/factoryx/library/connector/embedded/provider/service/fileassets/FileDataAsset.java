@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.fileassets;
+
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A {@link DataAsset} that is backed by a single (typically large and static) file, e.g. a CAD model,
+ * a log archive or an export.
+ * <p>
+ * On the data access path the file is handed over as is (see {@link #getDtoRepresentationFile()}), so that
+ * it is handed to the servlet container's sendfile support where available, otherwise streamed through a buffer.
+ * Wherever the content has to be read within the JVM (the channel for other consumers, the content hash), the
+ * file is memory-mapped in windows, instead of being read into heap buffers.
+ * <p>
+ * The content hash (SHA-256) serves as version and thus as ETag. It is computed lazily on first use and
+ * recomputed only after size or modification time of the file have changed.
+ * <p>
+ * Attention: a file that is truncated while it is mapped causes an error on access. Files should therefore be
+ * replaced atomically (written to a temporary file and then moved), rather than being rewritten in place.
+ *
+ * @author eschrewe
+ */
+@Slf4j
+public class FileDataAsset implements DataAsset {
+
+    /**
+     * Size of the regions, that are mapped at once
+     */
+    static final long MAPPING_WINDOW = 64L * 1024 * 1024;
+
+    static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final Path file;
+    private final String dspId;
+    private final String contentType;
+    private final Map<String, String> properties;
+
+    private volatile ContentHash contentHash;
+
+    /**
+     * The content hash of the file in a certain state.
+     */
+    private record ContentHash(long size, long lastModified, String hash) {
+    }
+
+    /**
+     * Creates an asset for the given file. The dsp id is derived from the file name, so that it is stable
+     * across restarts and identical on all instances serving the same directory.
+     *
+     * @param file the file
+     */
+    public FileDataAsset(Path file) {
+        this(file, dspIdForFileName(file.getFileName().toString()), Map.of());
+    }
+
+    /**
+     * Creates an asset for the given file.
+     *
+     * @param file       the file
+     * @param dspId      the dsp id of the asset
+     * @param properties additional properties to be published in the catalog
+     */
+    public FileDataAsset(Path file, String dspId, Map<String, String> properties) {
+        this.file = file;
+        this.dspId = dspId;
+        this.contentType = detectContentType(file);
+        Map<String, String> allProperties = new HashMap<>(properties);
+        allProperties.putIfAbsent("name", file.getFileName().toString());
+        allProperties.putIfAbsent("contentType", contentType);
+        this.properties = Map.copyOf(allProperties);
+    }
+
+    /**
+     * Derives a stable dsp id from a file name.
+     *
+     * @param fileName the name of the file
+     * @return the dsp id
+     */
+    public static String dspIdForFileName(String fileName) {
+        return UUID.nameUUIDFromBytes(("file:" + fileName).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Detects the content type by the means of the platform, falling back to the file name and
+     * finally to application/octet-stream.
+     *
+     * @param file the file
+     * @return the content type
+     */
+    static String detectContentType(Path file) {
+        String contentType = null;
+        try {
+            contentType = Files.probeContentType(file);
+        } catch (IOException e) {
+            log.debug("Could not probe content type of {}", file, e);
+        }
+        if (contentType == null) {
+            contentType = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+        }
+        return contentType == null ? DEFAULT_CONTENT_TYPE : contentType;
+    }
+
+    @Override
+    public String getDspId() {
+        return dspId;
+    }
+
+    @Override
+    public String getNativeId() {
+        return file.getFileName().toString();
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Reads the whole file into a byte array. Should be avoided for large files, the data access path
+     * uses {@link #getDtoRepresentationFile()} instead.
+     */
+    @Override
+    public byte[] getDtoRepresentation() {
+        try (SeekableByteChannel channel = openDtoRepresentationChannel()) {
+            if (channel.size() > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("File " + file + " is too large for a byte array representation");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full
+            }
+            return buffer.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long getDtoRepresentationLength() {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Opens a seekable channel, that reads from memory-mapped windows of the file.
+     */
+    @Override
+    public SeekableByteChannel openDtoRepresentationChannel() throws IOException {
+        return new MappedFileChannel(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    @Override
+    public Path getDtoRepresentationFile() {
+        return file;
+    }
+
+    /**
+     * The SHA-256 hash of the file's content (hex-encoded).
+     */
+    @Override
+    public String getVersion() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            ContentHash current = contentHash;
+            if (current != null && current.size() == attributes.size()
+                    && current.lastModified() == attributes.lastModifiedTime().toMillis()) {
+                return current.hash();
+            }
+            return computeContentHash(attributes).hash();
+        } catch (IOException e) {
+            log.warn("Could not compute content hash of {}", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public Instant getLastModified() {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The file is already in the page cache, copying it into the representation cache would only waste heap.
+     */
+    @Override
+    public Duration getDtoRepresentationCacheTtl() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * Hashes the file over memory-mapped windows. Synchronized, so that concurrent first requests
+     * for a large file don't all hash it at the same time.
+     */
+    private synchronized ContentHash computeContentHash(BasicFileAttributes attributes) throws IOException {
+        ContentHash current = contentHash;
+        if (current != null && current.size() == attributes.size()
+                && current.lastModified() == attributes.lastModifiedTime().toMillis()) {
+            return current;
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            for (long position = 0; position < size; position += MAPPING_WINDOW) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPING_WINDOW, size - position)));
+            }
+        }
+        ContentHash computed = new ContentHash(size, attributes.lastModifiedTime().toMillis(), HexFormat.of().formatHex(digest.digest()));
+        contentHash = computed;
+        log.debug("Computed content hash of {}", file);
+        return computed;
+    }
+
+    @Override
+    public String toString() {
+        return "FileDataAsset{" + dspId + ", " + file + "}";
+    }
+
+    /**
+     * A read-only channel, that serves reads from the currently mapped window of the file and maps
+     * the next window on demand.
+     */
+    static class MappedFileChannel implements SeekableByteChannel {
+
+        private final FileChannel fileChannel;
+        private final long size;
+        private long position;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        MappedFileChannel(FileChannel fileChannel) throws IOException {
+            this.fileChannel = fileChannel;
+            this.size = fileChannel.size();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (position >= size) {
+                return -1;
+            }
+            if (window == null || position < windowStart || position >= windowStart + window.capacity()) {
+                windowStart = position;
+                window = fileChannel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(MAPPING_WINDOW, size - windowStart));
+            }
+            int offset = (int) (position - windowStart);
+            int length = Math.min(dst.remaining(), window.capacity() - offset);
+            dst.put(window.slice(offset, length));
+            position += length;
+            return length;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            if (newPosition < 0) {
+                throw new IllegalArgumentException("Negative position " + newPosition);
+            }
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return fileChannel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            fileChannel.close();
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!fileChannel.isOpen()) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+}
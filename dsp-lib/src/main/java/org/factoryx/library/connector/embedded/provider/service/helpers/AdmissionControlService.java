@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.helpers;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenValidationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the (expensive) DSP token validation.
+ * <p>
+ * Every inbound request first has to pass a token bucket, that is keyed by the unverified subject
+ * (or issuer) of the presented token. Only then the token is handed to the {@link DspTokenValidationService}.
+ * After successful validation, a second token bucket, keyed by the verified partner id, is applied, so that
+ * a partner can't circumvent its limit by presenting tokens with arbitrary subjects.
+ * <p>
+ * Limits are configured per {@link EndpointClass}. The limiter is disabled by default.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class AdmissionControlService {
+
+    /**
+     * Upper bound for the number of tracked buckets. Beyond that, idle buckets are purged.
+     */
+    static final int MAX_TRACKED_BUCKETS = 10_000;
+
+    /**
+     * Bucket key for tokens that can't be parsed as JWT. These are all sharing the same bucket.
+     */
+    static final String UNPARSEABLE = "unparseable";
+
+    public enum EndpointClass {
+        CATALOG, NEGOTIATION, TRANSFER
+    }
+
+    @Value("${org.factoryx.library.ratelimit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.factoryx.library.ratelimit.catalog.rate:5}")
+    private double catalogRate;
+
+    @Value("${org.factoryx.library.ratelimit.catalog.burst:20}")
+    private int catalogBurst;
+
+    @Value("${org.factoryx.library.ratelimit.negotiation.rate:2}")
+    private double negotiationRate;
+
+    @Value("${org.factoryx.library.ratelimit.negotiation.burst:10}")
+    private int negotiationBurst;
+
+    @Value("${org.factoryx.library.ratelimit.transfer.rate:5}")
+    private double transferRate;
+
+    @Value("${org.factoryx.library.ratelimit.transfer.burst:20}")
+    private int transferBurst;
+
+    private final ConcurrentHashMap<String, TokenBucket> unverifiedBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> verifiedBuckets = new ConcurrentHashMap<>();
+
+    private final DspTokenValidationService dspTokenValidationService;
+
+    public AdmissionControlService(DspTokenValidationService dspTokenValidationService) {
+        this.dspTokenValidationService = dspTokenValidationService;
+    }
+
+    /**
+     * Validates the given token, if the request is admitted by the configured limits.
+     *
+     * @param authString    the Authorization header of the request
+     * @param endpointClass the class of the requested endpoint
+     * @return the result of {@link DspTokenValidationService#validateToken(String)}
+     * @throws AdmissionRejectedException if the request exceeds the limits of the partner
+     */
+    public Map<String, String> validateToken(String authString, EndpointClass endpointClass) {
+        if (!enabled) {
+            return dspTokenValidationService.validateToken(authString);
+        }
+        admit(unverifiedBuckets, extractUnverifiedPartner(authString), endpointClass);
+        Map<String, String> tokenValidationResult = dspTokenValidationService.validateToken(authString);
+        String partnerId = tokenValidationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
+        if (partnerId != null) {
+            admit(verifiedBuckets, partnerId, endpointClass);
+        }
+        return tokenValidationResult;
+    }
+
+    private void admit(ConcurrentHashMap<String, TokenBucket> buckets, String partner, EndpointClass endpointClass) {
+        long now = System.nanoTime();
+        purgeIfFull(buckets, now);
+        TokenBucket bucket = buckets.computeIfAbsent(endpointClass + "|" + partner,
+                key -> createBucket(endpointClass, now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            log.warn("Rejecting {} request of {} due to rate limit", endpointClass, partner);
+            throw new AdmissionRejectedException(TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+        }
+    }
+
+    private TokenBucket createBucket(EndpointClass endpointClass, long now) {
+        return switch (endpointClass) {
+            case CATALOG -> new TokenBucket(catalogRate, catalogBurst, now);
+            case NEGOTIATION -> new TokenBucket(negotiationRate, negotiationBurst, now);
+            case TRANSFER -> new TokenBucket(transferRate, transferBurst, now);
+        };
+    }
+
+    /**
+     * Extracts the subject (or, as a fallback, the issuer) from the given token without verifying it.
+     *
+     * @param authString the Authorization header of the request
+     * @return the unverified subject or issuer
+     */
+    static String extractUnverifiedPartner(String authString) {
+        if (authString == null) {
+            return UNPARSEABLE;
+        }
+        try {
+            JWTClaimsSet claims = JWTParser.parse(authString.replace("Bearer ", "").replace("bearer ", "")).getJWTClaimsSet();
+            if (claims.getSubject() != null) {
+                return claims.getSubject();
+            }
+            if (claims.getIssuer() != null) {
+                return claims.getIssuer();
+            }
+        } catch (Exception e) {
+            log.debug("Unable to parse token for admission control");
+        }
+        return UNPARSEABLE;
+    }
+
+    private static void purgeIfFull(ConcurrentHashMap<String, TokenBucket> buckets, long now) {
+        if (buckets.size() >= MAX_TRACKED_BUCKETS) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+            if (buckets.size() >= MAX_TRACKED_BUCKETS) {
+                log.warn("Too many tracked rate limit buckets, resetting");
+                buckets.clear();
+            }
+        }
+    }
+
+    /**
+     * Classic token bucket, refilled continuously with the given rate.
+     */
+    private static class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double tokensPerSecond, int burst, long now) {
+            this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * Takes a token from the bucket, if there is one.
+         *
+         * @param now the current value of {@link System#nanoTime()}
+         * @return 0, if a token was taken, otherwise the nanos until the next token is available
+         */
+        synchronized long tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            if (tokensPerNano <= 0) {
+                return TimeUnit.HOURS.toNanos(1);
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+
+    /**
+     * Signals that a request was rejected by the admission control.
+     */
+    public static class AdmissionRejectedException extends RuntimeException {
+
+        private final long retryAfterSeconds;
+
+        public AdmissionRejectedException(long retryAfterSeconds) {
+            super("Rate limit exceeded");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        /**
+         * Creates a 429 response with a Retry-After header.
+         *
+         * @param <T> the body type of the response
+         * @return the response
+         */
+        public <T> ResponseEntity<T> toResponse() {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.helpers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.ApiAsset;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Forwards requests to {@link ApiAsset}s, that provide a backend URL, as a streaming reverse proxy.
+ * <p>
+ * Neither the request body nor the response body is buffered as a whole: the request body is pulled from the
+ * servlet input stream as fast as the backend connection accepts it, and the response body is copied to the
+ * servlet output stream, which blocks (and thereby stops reading from the backend) while the consumer is slow.
+ * <p>
+ * A single {@link HttpClient} is shared for all backends, which keeps HTTP/1.1 connections alive for reuse and
+ * multiplexes requests over HTTP/2 connections, where the backend supports it.
+ * <p>
+ * Hop-by-hop headers are dropped in both directions, and the Authorization header of the consumer (which holds the
+ * write access token) is never forwarded to the backend.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class ApiAssetProxy {
+
+    /**
+     * Headers that only apply to a single connection (RFC 9110, section 7.6.1), or that the http client sets itself.
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade", "http2-settings");
+
+    private static final Set<String> RESTRICTED_REQUEST_HEADERS = Set.of("host", "content-length", "expect",
+            "authorization", "x-forwarded-for", "x-forwarded-proto", "x-forwarded-host");
+
+    @Value("${org.factoryx.library.apiproxy.connecttimeout:PT5S}")
+    private Duration connectTimeout;
+
+    /**
+     * Maximum time to wait for the response headers of the backend
+     */
+    @Value("${org.factoryx.library.apiproxy.requesttimeout:PT1M}")
+    private Duration requestTimeout;
+
+    @Value("${org.factoryx.library.apiproxy.http2:true}")
+    private boolean useHttp2;
+
+    private final ExecutorService executorService;
+    private HttpClient httpClient;
+
+    public ApiAssetProxy(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(useHttp2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executorService)
+                .build();
+    }
+
+    /**
+     * Forwards the given request to the backend of the given asset and streams the backend's response back.
+     * Answers with 400, if the path would leave the backend's base path, with 502 if the backend can't be
+     * reached and with 504 if it doesn't respond in time.
+     *
+     * @param apiAsset the asset, whose backend URL is set
+     * @param method   the http method
+     * @param path     the path after /data-access/{assetId}
+     * @param request  the incoming request
+     * @param response the response to write to
+     * @throws IOException if the response to the consumer can't be written
+     */
+    public void forward(ApiAsset apiAsset, HttpMethod method, String path, HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        URI target = resolveTarget(apiAsset.getBackendUrl(), path, request.getQueryString());
+        if (target == null) {
+            log.warn("Rejecting path {} for api asset {}", path, apiAsset.getDspId());
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        HttpRequest.Builder backendRequest = HttpRequest.newBuilder(target)
+                .timeout(requestTimeout)
+                .method(method.name(), bodyPublisher(request));
+        copyRequestHeaders(request, backendRequest);
+        apiAsset.getBackendHeaders().forEach(backendRequest::setHeader);
+
+        HttpResponse<InputStream> backendResponse;
+        try {
+            backendResponse = httpClient.send(backendRequest.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (HttpTimeoutException e) {
+            log.warn("Backend of api asset {} did not respond in time", apiAsset.getDspId());
+            response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            return;
+        } catch (IOException e) {
+            log.warn("Backend of api asset {} is not reachable: {}", apiAsset.getDspId(), e.getMessage());
+            response.setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        // closing the body before it has been read completely cancels the backend exchange
+        try (InputStream body = backendResponse.body()) {
+            response.setStatus(backendResponse.statusCode());
+            copyResponseHeaders(backendResponse, response);
+            OutputStream outputStream = response.getOutputStream();
+            body.transferTo(outputStream);
+        }
+    }
+
+    /**
+     * Appends path and query to the base URL.
+     *
+     * @return the target, or null if the normalized path is not within the base path
+     */
+    static URI resolveTarget(URI backendUrl, String path, String rawQuery) {
+        try {
+            String base = backendUrl.toString().replaceAll("/+$", "");
+            String encodedPath = path == null || path.isEmpty() ? "" : UriUtils.encodePath(path, StandardCharsets.UTF_8);
+            URI target = URI.create(base + encodedPath + (rawQuery == null ? "" : "?" + rawQuery)).normalize();
+            String basePath = URI.create(base).getRawPath();
+            String targetPath = target.getRawPath();
+            if (targetPath.equals(basePath) || targetPath.startsWith(basePath + "/")) {
+                return target;
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid target path {}", path, e);
+        }
+        return null;
+    }
+
+    private static HttpRequest.BodyPublisher bodyPublisher(HttpServletRequest request) throws IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength == 0 || (contentLength < 0 && request.getHeader(HttpHeaders.TRANSFER_ENCODING) == null)) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        InputStream inputStream = request.getInputStream();
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> inputStream);
+        return contentLength > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength) : publisher;
+    }
+
+    private static void copyRequestHeaders(HttpServletRequest request, HttpRequest.Builder backendRequest) {
+        Set<String> excluded = excludedHeaders(request.getHeader(HttpHeaders.CONNECTION));
+        excluded.addAll(RESTRICTED_REQUEST_HEADERS);
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (excluded.contains(name.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            try {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    backendRequest.header(name, value);
+                }
+            } catch (IllegalArgumentException e) {
+                // a header the http client doesn't allow to be set
+                log.debug("Not forwarding header {}", name);
+            }
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        backendRequest.header("X-Forwarded-For", forwardedFor == null ? request.getRemoteAddr() : forwardedFor + ", " + request.getRemoteAddr());
+        backendRequest.header("X-Forwarded-Proto", request.getScheme());
+        if (request.getHeader(HttpHeaders.HOST) != null) {
+            backendRequest.header("X-Forwarded-Host", request.getHeader(HttpHeaders.HOST));
+        }
+    }
+
+    private static void copyResponseHeaders(HttpResponse<?> backendResponse, HttpServletResponse response) {
+        Set<String> excluded = excludedHeaders(backendResponse.headers().firstValue(HttpHeaders.CONNECTION).orElse(null));
+        backendResponse.headers().map().forEach((name, values) -> {
+            String lowerCaseName = name.toLowerCase(Locale.ROOT);
+            // HTTP/2 pseudo headers like :status
+            if (lowerCaseName.startsWith(":") || excluded.contains(lowerCaseName)) {
+                return;
+            }
+            if (lowerCaseName.equals("content-length")) {
+                response.setContentLengthLong(Long.parseLong(values.getFirst()));
+                return;
+            }
+            values.forEach(value -> response.addHeader(name, value));
+        });
+    }
+
+    /**
+     * The hop-by-hop headers, including those that are listed in the Connection header.
+     */
+    private static Set<String> excludedHeaders(String connectionHeader) {
+        Set<String> excluded = new HashSet<>(HOP_BY_HOP_HEADERS);
+        if (connectionHeader != null) {
+            for (String token : connectionHeader.split(",")) {
+                excluded.add(token.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return excluded;
+    }
+}
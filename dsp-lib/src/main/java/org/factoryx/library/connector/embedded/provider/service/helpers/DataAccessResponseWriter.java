@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.helpers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes the DTO representation of a {@link DataAsset} to the response of a data access request,
+ * without holding the whole representation in memory.
+ * <p>
+ * File-backed assets are handed over to the servlet container's sendfile support, if available (Tomcat
+ * NIO connectors), so that the kernel copies the file directly to the socket. Otherwise, like all other
+ * assets, they are streamed from their channel to the servlet output stream through a buffer.
+ * <p>
+ * Assets with a known length, that are either file-backed or provide a {@link SeekableByteChannel}, also
+ * support Range requests (single ranges as 206 Partial Content, multiple ranges as multipart/byteranges),
+ * so that consumers can resume interrupted downloads or download segments in parallel.
+ * <p>
+ * Conditional requests (If-None-Match, If-Modified-Since, If-Match, If-Unmodified-Since) are evaluated
+ * against the asset's version and last modification, before the representation is even opened. For files,
+ * both are derived from the file's attributes, unless the asset provides them.
+ * <p>
+ * If compression is enabled, the content coding is negotiated with the {@link EncodedRepresentationCache}. Encoded
+ * variants carry their own entity tag, and all responses for a negotiable representation carry Vary: Accept-Encoding.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class DataAccessResponseWriter {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${org.factoryx.library.dataaccess.sendfile:true}")
+    private boolean useSendfile;
+
+    private final EncodedRepresentationCache encodedRepresentationCache;
+
+    public DataAccessResponseWriter(EncodedRepresentationCache encodedRepresentationCache) {
+        this.encodedRepresentationCache = encodedRepresentationCache;
+    }
+
+    /**
+     * The validators of a representation.
+     *
+     * @param etag         the entity tag (quoted), or null if unknown
+     * @param lastModified the last modification (epoch millis), or -1 if unknown
+     */
+    private record Validators(String etag, long lastModified) {
+    }
+
+    /**
+     * A representation, that supports reads at arbitrary positions.
+     *
+     * @param channel    the channel to read from
+     * @param length     the length in bytes
+     * @param file       the file, if the representation is file-backed, otherwise null
+     * @param validators the validators of the representation
+     */
+    private record SeekableRepresentation(SeekableByteChannel channel, long length, Path file, Validators validators) {
+    }
+
+    /**
+     * An inclusive byte range.
+     */
+    private record Region(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    /**
+     * Writes status, headers and body for the given asset, honoring the conditional and the Range headers of the request.
+     *
+     * @param dataAsset the requested asset
+     * @param request   the current request
+     * @param response  the response to write to
+     * @throws IOException if the representation can't be read or the response can't be written
+     */
+    public void write(DataAsset dataAsset, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = dataAsset.getDtoRepresentationFile();
+        Validators validators = validators(dataAsset, file);
+        String coding = null;
+        byte[] encoded = null;
+        if (encodedRepresentationCache.isApplicable(dataAsset, validators.etag())) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            coding = encodedRepresentationCache.negotiate(dataAsset, validators.etag(), request);
+            // the variant must be known before the conditional headers are evaluated against its entity tag
+            encoded = coding == null ? null : encodedRepresentationCache.getEncoded(dataAsset, validators.etag(), coding);
+        }
+        Validators selectedValidators = encoded == null ? validators
+                : new Validators(variantEtag(validators.etag(), coding), validators.lastModified());
+        if ((selectedValidators.etag() != null || selectedValidators.lastModified() >= 0)
+                && new ServletWebRequest(request, response).checkNotModified(selectedValidators.etag(), selectedValidators.lastModified())) {
+            // 304 Not Modified or 412 Precondition Failed, the headers have been set already
+            return;
+        }
+        response.setContentType(dataAsset.getContentType());
+        if (encoded != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, coding);
+            write(new SeekableRepresentation(new ByteArrayChannel(encoded), encoded.length, null, selectedValidators),
+                    dataAsset, request, response);
+            return;
+        }
+        if (file != null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                write(new SeekableRepresentation(channel, channel.size(), file, validators), dataAsset, request, response);
+            }
+            return;
+        }
+        long length = dataAsset.getDtoRepresentationLength();
+        try (ReadableByteChannel channel = dataAsset.openDtoRepresentationChannel()) {
+            if (length >= 0 && channel instanceof SeekableByteChannel seekableChannel) {
+                write(new SeekableRepresentation(seekableChannel, length, null, validators), dataAsset, request, response);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            if (length >= 0) {
+                response.setContentLengthLong(length);
+            }
+            copy(channel, response.getOutputStream());
+        }
+    }
+
+    private static Validators validators(DataAsset dataAsset, Path file) throws IOException {
+        String version = dataAsset.getVersion();
+        Instant lastModified = dataAsset.getLastModified();
+        if (file != null) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (lastModified == null) {
+                lastModified = attributes.lastModifiedTime().toInstant();
+            }
+            if (version == null) {
+                version = Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis());
+            }
+        }
+        return new Validators(version == null ? null : "\"" + version + "\"", lastModified == null ? -1 : lastModified.toEpochMilli());
+    }
+
+    /**
+     * The entity tag of an encoded variant, e.g. "abc-gzip" for "abc".
+     */
+    private static String variantEtag(String etag, String coding) {
+        return etag.substring(0, etag.length() - 1) + "-" + coding + "\"";
+    }
+
+    private void write(SeekableRepresentation representation, DataAsset dataAsset, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request, representation)) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            writeRegion(representation, new Region(0, representation.length() - 1), request, response);
+            return;
+        }
+        List<Region> regions = parseRegions(rangeHeader, representation.length());
+        if (regions.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + representation.length());
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            Region region = regions.getFirst();
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(region, representation.length()));
+            writeRegion(representation, region, request, response);
+        } else {
+            writeMultipart(representation, regions, dataAsset.getContentType(), response);
+        }
+    }
+
+    /**
+     * A Range request is only served partially, if the If-Range validator (if any) still matches, i.e.
+     * if it equals the (strong) entity tag or the last modification date.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, SeekableRepresentation representation) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        Validators validators = representation.validators();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(validators.etag());
+        }
+        if (validators.lastModified() < 0) {
+            return false;
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == validators.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses the Range header and drops all unsatisfiable ranges.
+     *
+     * @return the satisfiable regions, empty if there are none, or if the header is malformed or
+     * the ranges request more bytes than the representation has
+     */
+    private static List<Region> parseRegions(String rangeHeader, long length) {
+        List<Region> regions = new ArrayList<>();
+        try {
+            long total = 0;
+            for (HttpRange range : HttpRange.parseRanges(rangeHeader)) {
+                if (length == 0) {
+                    continue;
+                }
+                try {
+                    Region region = new Region(range.getRangeStart(length), range.getRangeEnd(length));
+                    regions.add(region);
+                    total += region.length();
+                } catch (IllegalArgumentException e) {
+                    // start is beyond the end of the representation
+                }
+            }
+            if (total > length) {
+                log.warn("Rejecting ranges {}, which exceed the length {}", rangeHeader, length);
+                return List.of();
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejecting malformed range header {}", rangeHeader);
+            return List.of();
+        }
+        return regions;
+    }
+
+    private void writeRegion(SeekableRepresentation representation, Region region, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(region.length());
+        if (region.length() == 0) {
+            return;
+        }
+        if (representation.file() != null && useSendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // the container sends the file, after the handler has returned
+            request.setAttribute(SENDFILE_FILENAME, representation.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, region.start());
+            request.setAttribute(SENDFILE_END, region.end() + 1);
+            return;
+        }
+        transfer(representation, region, response.getOutputStream());
+    }
+
+    private static void writeMultipart(SeekableRepresentation representation, List<Region> regions, String contentType,
+                                       HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (Region region : regions) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(region, representation.length()) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + region.length();
+        }
+        byte[] closingBoundary = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closingBoundary.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        OutputStream outputStream = response.getOutputStream();
+        for (int i = 0; i < regions.size(); i++) {
+            outputStream.write(partHeaders.get(i));
+            transfer(representation, regions.get(i), outputStream);
+        }
+        outputStream.write(closingBoundary);
+    }
+
+    private static String contentRange(Region region, long length) {
+        return "bytes " + region.start() + "-" + region.end() + "/" + length;
+    }
+
+    /**
+     * Copies the given region through a buffer. The servlet output stream is not a channel, that
+     * {@link FileChannel#transferTo} could write to without copying, so files are read the same way.
+     */
+    private static void transfer(SeekableRepresentation representation, Region region, OutputStream outputStream) throws IOException {
+        WritableByteChannel out = Channels.newChannel(outputStream);
+        long position = region.start();
+        long remaining = region.length();
+        SeekableByteChannel channel = representation.channel().position(position);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (remaining > 0) {
+            buffer.limit((int) Math.min(BUFFER_SIZE, remaining));
+            int read = channel.read(buffer);
+            if (read < 0) {
+                throw new IOException("Representation is shorter than its declared length");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            remaining -= read;
+            buffer.clear();
+        }
+    }
+
+    private static void copy(ReadableByteChannel in, OutputStream outputStream) throws IOException {
+        WritableByteChannel out = Channels.newChannel(outputStream);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (in.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -17,7 +17,8 @@
 package org.factoryx.library.connector.embedded.provider.service.helpers;
 
 import lombok.extern.slf4j.Slf4j;
-import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
+import org.factoryx.library.connector.embedded.provider.model.negotiation.ContractProjection;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationState;
 import org.factoryx.library.connector.embedded.provider.service.AuthorizationService;
 import org.factoryx.library.connector.embedded.provider.service.ContractRecordService;
@@ -26,8 +27,6 @@ import org.springframework.stereotype.Service;
 import java.util.Objects;
 import java.util.UUID;
 
-import static org.factoryx.library.connector.embedded.provider.service.AuthorizationService.*;
-
 @Service
 @Slf4j
 /**
@@ -56,18 +55,17 @@ public class DataAccessTokenValidationService {
             Objects.requireNonNull(token, "Token must not be null");
             Objects.requireNonNull(assetId, "AssetId must not be null");
             token = token.replace("Bearer ", "").replace("bearer ", "");
-            var claims = authorizationService.extractAllClaims(token);
-            String contractId = claims.getStringClaim(CONTRACT_ID);
-            String claimsAssetId = claims.getStringClaim(API_ASSET_ID);
-            String claimsIssuer = claims.getIssuer();
-            NegotiationRecord negotiationRecord = contractRecordService.findByContractId(UUID.fromString(contractId));
-            boolean result = negotiationRecord != null
-                    && assetId.equals(claimsAssetId)
-                    && claimsIssuer.equals(expectedWriteAccessIssuer)
-                    && NegotiationState.FINALIZED.equals(negotiationRecord.getState())
-                    && authorizationService.validateToken(token);
+            DataAccessGrant grant = authorizationService.resolveGrant(token);
+            if (grant == null || grant.type() != DataAccessGrant.Type.WRITE_ACCESS) {
+                return false;
+            }
+            ContractProjection contract = contractRecordService.findContract(UUID.fromString(grant.contractId()));
+            boolean result = contract != null
+                    && assetId.equals(grant.target())
+                    && expectedWriteAccessIssuer.equals(grant.issuer())
+                    && NegotiationState.FINALIZED.equals(contract.state());
             if (result) {
-                log.info("Granted write access for partner {}", negotiationRecord.getPartnerId());
+                log.info("Granted write access for partner {}", contract.partnerId());
             }
             return result;
         } catch (Exception e) {
@@ -81,17 +79,16 @@ public class DataAccessTokenValidationService {
             Objects.requireNonNull(token, "Token must not be null");
             Objects.requireNonNull(assetId, "AssetId must not be null");
             token = token.replace("Bearer ", "").replace("bearer ", "");
-            var claims = authorizationService.extractAllClaims(token);
-            String contractId = claims.getStringClaim(CONTRACT_ID);
-            String dataAddress = claims.getStringClaim(DATA_ADDRESS);
-            String issuer = claims.getIssuer();
-            NegotiationRecord negotiationRecord = contractRecordService.findByContractId(UUID.fromString(contractId));
-            return negotiationRecord != null
-                    && assetId.equals(negotiationRecord.getTargetAssetId())
-                    && NegotiationState.FINALIZED.equals(negotiationRecord.getState())
-                    && authorizationService.validateToken(token)
-                    && dataAddress.endsWith(assetId)
-                    && expectedReadOnlyIssuer.equals(issuer);
+            DataAccessGrant grant = authorizationService.resolveGrant(token);
+            if (grant == null || grant.type() != DataAccessGrant.Type.DATA_ACCESS) {
+                return false;
+            }
+            ContractProjection contract = contractRecordService.findContract(UUID.fromString(grant.contractId()));
+            return contract != null
+                    && assetId.equals(contract.targetAssetId())
+                    && NegotiationState.FINALIZED.equals(contract.state())
+                    && grant.target().endsWith(assetId)
+                    && expectedReadOnlyIssuer.equals(grant.issuer());
         } catch (Exception e) {
             log.error("Failure while validating token", e);
             return false;
@@ -104,25 +101,18 @@ public class DataAccessTokenValidationService {
             Objects.requireNonNull(partnerId, "PartnerId must not be null");
             
             refreshToken = refreshToken.replace("Bearer ", "").replace("bearer ", "");
-            var refreshTokenClaims = authorizationService.extractAllClaims(refreshToken);
-            String refreshTokenIssuer = refreshTokenClaims.getIssuer();
-            String refreshTokenSubject = refreshTokenClaims.getSubject();
-            String accessToken = refreshTokenClaims.getStringClaim(AuthorizationService.TOKEN);
-
-            var accessTokenClaims = authorizationService.extractAllClaims(accessToken);
-            String contractId = accessTokenClaims.getStringClaim(CONTRACT_ID);
-            String dataAddress = accessTokenClaims.getStringClaim(DATA_ADDRESS);
-            String accessTokenIssuer = accessTokenClaims.getIssuer();
+            DataAccessGrant grant = authorizationService.resolveGrant(refreshToken);
+            if (grant == null || grant.type() != DataAccessGrant.Type.REFRESH) {
+                return false;
+            }
 
-            NegotiationRecord negotiationRecord = contractRecordService.findByContractId(UUID.fromString(contractId));
+            ContractProjection contract = contractRecordService.findContract(UUID.fromString(grant.contractId()));
 
-            return negotiationRecord != null
-                    && NegotiationState.FINALIZED.equals(negotiationRecord.getState())
-                    && expectedReadOnlyIssuer.equals(accessTokenIssuer)
-                    && expectedReadOnlyIssuer.equals(refreshTokenIssuer)
-                    && partnerId.equals(refreshTokenSubject)
-                    && dataAddress.endsWith(negotiationRecord.getTargetAssetId())
-                    && authorizationService.validateToken(refreshToken);
+            return contract != null
+                    && NegotiationState.FINALIZED.equals(contract.state())
+                    && expectedReadOnlyIssuer.equals(grant.issuer())
+                    && partnerId.equals(grant.partnerId())
+                    && grant.target().endsWith(contract.targetAssetId());
         } catch (Exception e) {
             log.error("Failure while validating refresh token", e);
             return false;
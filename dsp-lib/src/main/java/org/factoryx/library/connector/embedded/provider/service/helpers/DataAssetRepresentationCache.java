@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.helpers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAssetManagementService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Caches the DTO representations of data assets on the data access path, for deployments where creating
+ * a representation is expensive and the same asset is pulled by many consumers.
+ * <p>
+ * The cache is bounded by the total size of the cached payloads and evicts the least recently used entries
+ * first. Each entry lives for the asset's TTL ({@link DataAsset#getDtoRepresentationCacheTtl()}) or the configured
+ * default. Entries that are requested after a configurable fraction of their lifetime are reloaded in the
+ * background (refresh-ahead), so that popular assets never expire while being requested. Concurrent misses for
+ * the same asset share a single load.
+ * <p>
+ * File-backed assets are never cached, since they are streamed from the file (or sent with sendfile) anyway. If the importing
+ * project provides a {@link MeterRegistry}, hits, misses, refreshes and evictions are counted.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class DataAssetRepresentationCache {
+
+    static final String CACHE_COUNTER = "dsp.dataaccess.cache";
+    static final String WEIGHT_GAUGE = "dsp.dataaccess.cache.weight";
+
+    @Value("${org.factoryx.library.dataaccess.cache.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Upper bound for the total size of all cached payloads. Payloads larger than a quarter of it are not cached.
+     */
+    @Value("${org.factoryx.library.dataaccess.cache.maxweight:64MB}")
+    private DataSize maxWeight = DataSize.ofMegabytes(64);
+
+    /**
+     * Time to live for assets that don't specify their own
+     */
+    @Value("${org.factoryx.library.dataaccess.cache.ttl:PT1M}")
+    private Duration defaultTtl = Duration.ofMinutes(1);
+
+    /**
+     * Fraction of an entry's lifetime, after which a request triggers a background reload
+     */
+    @Value("${org.factoryx.library.dataaccess.cache.refreshahead:0.8}")
+    private double refreshAhead = 0.8;
+
+    private final DataAssetManagementService dataAssetManagementService;
+    private final ExecutorService executorService;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The cached representations in access order. Guarded by this.
+     */
+    private final LinkedHashMap<String, CachedDataAsset> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    /**
+     * Loads in progress, so that concurrent misses for the same asset wait for the same load
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<DataAsset>> loading = new ConcurrentHashMap<>();
+
+    public DataAssetRepresentationCache(DataAssetManagementService dataAssetManagementService, ExecutorService executorService,
+                                        Optional<MeterRegistry> meterRegistry) {
+        this.dataAssetManagementService = dataAssetManagementService;
+        this.executorService = executorService;
+        this.meterRegistry = meterRegistry.orElse(null);
+        if (this.meterRegistry != null) {
+            Gauge.builder(WEIGHT_GAUGE, this, DataAssetRepresentationCache::getWeight)
+                    .description("Total size of the cached data asset representations")
+                    .baseUnit("bytes")
+                    .register(this.meterRegistry);
+        }
+    }
+
+    /**
+     * Returns the asset with the given id, with its representation served from the cache, if possible.
+     * Must only be called after the data access token has been validated.
+     *
+     * @param assetId the id of the asset
+     * @return the (cached) asset, or null if there is no such asset
+     */
+    public DataAsset getById(String assetId) {
+        if (!enabled) {
+            return dataAssetManagementService.getById(assetId);
+        }
+        long now = System.currentTimeMillis();
+        CachedDataAsset cached = get(assetId);
+        if (cached != null && now < cached.expiresAt) {
+            count("hit");
+            if (now >= cached.refreshAt && !loading.containsKey(assetId)) {
+                count("refresh");
+                executorService.submit(() -> {
+                    try {
+                        load(assetId);
+                    } catch (Exception e) {
+                        log.warn("Failure while refreshing the representation of {}", assetId, e);
+                    }
+                });
+            }
+            return cached;
+        }
+        count("miss");
+        return load(assetId);
+    }
+
+    /**
+     * Drops the cached representation of the given asset, e.g. because it is known to have changed.
+     *
+     * @param assetId the id of the asset
+     */
+    public synchronized void invalidate(String assetId) {
+        CachedDataAsset removed = entries.remove(assetId);
+        if (removed != null) {
+            weight -= removed.payload.length;
+        }
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    private synchronized CachedDataAsset get(String assetId) {
+        return entries.get(assetId);
+    }
+
+    private DataAsset load(String assetId) {
+        CompletableFuture<DataAsset> future = new CompletableFuture<>();
+        CompletableFuture<DataAsset> existing = loading.putIfAbsent(assetId, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+            }
+        }
+        try {
+            DataAsset loaded = loadAndStore(assetId);
+            future.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(assetId, future);
+        }
+    }
+
+    private DataAsset loadAndStore(String assetId) {
+        DataAsset dataAsset = dataAssetManagementService.getById(assetId);
+        if (dataAsset == null || dataAsset.getDtoRepresentationFile() != null) {
+            invalidate(assetId);
+            return dataAsset;
+        }
+        Duration ttl = dataAsset.getDtoRepresentationCacheTtl() == null ? defaultTtl : dataAsset.getDtoRepresentationCacheTtl();
+        if (!ttl.isPositive()) {
+            return dataAsset;
+        }
+        byte[] payload = dataAsset.getDtoRepresentation();
+        if (payload.length > maxWeight.toBytes() / 4) {
+            log.debug("Representation of {} is too large for caching", assetId);
+            invalidate(assetId);
+            return dataAsset;
+        }
+        long now = System.currentTimeMillis();
+        CachedDataAsset cached = new CachedDataAsset(dataAsset, payload, now + ttl.toMillis(),
+                now + (long) (ttl.toMillis() * refreshAhead));
+        put(assetId, cached);
+        return cached;
+    }
+
+    private synchronized void put(String assetId, CachedDataAsset cached) {
+        CachedDataAsset previous = entries.put(assetId, cached);
+        weight += cached.payload.length - (previous == null ? 0 : previous.payload.length);
+        Iterator<Map.Entry<String, CachedDataAsset>> iterator = entries.entrySet().iterator();
+        while (weight > maxWeight.toBytes() && iterator.hasNext()) {
+            Map.Entry<String, CachedDataAsset> eldest = iterator.next();
+            weight -= eldest.getValue().payload.length;
+            iterator.remove();
+            count("eviction");
+        }
+    }
+
+    private void count(String result) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Counter.builder(CACHE_COUNTER)
+                .description("Lookups and evictions of the data asset representation cache")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * An immutable copy of a data asset and its representation. If the asset doesn't provide a version,
+     * a hash of the payload is used, so that consumers can poll with If-None-Match.
+     */
+    private static class CachedDataAsset implements DataAsset {
+
+        private final String dspId;
+        private final String nativeId;
+        private final Map<String, String> properties;
+        private final String contentType;
+        private final byte[] payload;
+        private final String version;
+        private final Instant lastModified;
+        private final long expiresAt;
+        private final long refreshAt;
+
+        private CachedDataAsset(DataAsset dataAsset, byte[] payload, long expiresAt, long refreshAt) {
+            this.dspId = dataAsset.getDspId();
+            this.nativeId = dataAsset.getNativeId();
+            this.properties = dataAsset.getProperties() == null ? Map.of() : Map.copyOf(dataAsset.getProperties());
+            this.contentType = dataAsset.getContentType();
+            this.payload = payload;
+            this.version = dataAsset.getVersion() != null ? dataAsset.getVersion() : hash(payload);
+            this.lastModified = dataAsset.getLastModified();
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+
+        @Override
+        public String getDspId() {
+            return dspId;
+        }
+
+        @Override
+        public String getNativeId() {
+            return nativeId;
+        }
+
+        @Override
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public byte[] getDtoRepresentation() {
+            return payload.clone();
+        }
+
+        @Override
+        public long getDtoRepresentationLength() {
+            return payload.length;
+        }
+
+        @Override
+        public ReadableByteChannel openDtoRepresentationChannel() {
+            return new ByteArrayChannel(payload);
+        }
+
+        @Override
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public Instant getLastModified() {
+            return lastModified;
+        }
+
+        private static String hash(byte[] payload) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.helpers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.interfaces.RepresentationEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Negotiates the content coding of DTO representations on the data access path (Accept-Encoding) and
+ * holds the encoded variants, so that each version of a representation is encoded only once.
+ * <p>
+ * Variants are keyed by asset id, entity tag and coding. Only representations with an entity tag (i.e. assets that
+ * provide a version, file-backed assets and those served from the representation cache) and a compressible content
+ * type are encoded. A representation that doesn't get smaller, or that turns out to exceed the maximum size,
+ * is remembered as such and sent as is.
+ * <p>
+ * The variants are kept in an LRU bounded by their total size. Concurrent requests for the same variant share
+ * a single encoding.
+ *
+ * @author eschrewe
+ */
+@Service
+@Slf4j
+public class EncodedRepresentationCache {
+
+    /**
+     * Marks variants, that are not smaller than the representation itself
+     */
+    private static final byte[] INCOMPRESSIBLE = new byte[0];
+
+    /**
+     * Marks variants of representations of unknown length, that turned out to exceed the maximum size
+     */
+    private static final byte[] TOO_LARGE = new byte[0];
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    @Value("${org.factoryx.library.dataaccess.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${org.factoryx.library.dataaccess.compression.mimetypes:application/json,application/ld+json,application/xml,text/*,image/svg+xml}")
+    private List<String> mimeTypes = List.of("application/json", "application/ld+json", "application/xml", "text/*", "image/svg+xml");
+
+    /**
+     * Smaller representations are not worth the encoding overhead
+     */
+    @Value("${org.factoryx.library.dataaccess.compression.minsize:1KB}")
+    private DataSize minSize = DataSize.ofKilobytes(1);
+
+    /**
+     * Larger representations are sent as is
+     */
+    @Value("${org.factoryx.library.dataaccess.compression.maxsize:32MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Upper bound for the total size of all cached variants. Variants larger than a quarter of it are not cached.
+     */
+    @Value("${org.factoryx.library.dataaccess.compression.maxweight:128MB}")
+    private DataSize maxWeight = DataSize.ofMegabytes(128);
+
+    private final List<RepresentationEncoder> encoders;
+
+    private record Key(String assetId, String etag, String encoding) {
+    }
+
+    /**
+     * The encoded variants in access order. Guarded by this.
+     */
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    /**
+     * Encodings in progress, so that concurrent requests for the same variant wait for the same encoding
+     */
+    private final ConcurrentHashMap<Key, CompletableFuture<byte[]>> encoding = new ConcurrentHashMap<>();
+
+    public EncodedRepresentationCache(List<RepresentationEncoder> encoders) {
+        this.encoders = encoders.stream()
+                .sorted(Comparator.comparingInt(RepresentationEncoder::getPriority).reversed())
+                .toList();
+    }
+
+    /**
+     * Checks, whether the representation of the given asset may be sent in another coding than identity, so that
+     * responses must carry Vary: Accept-Encoding.
+     *
+     * @param dataAsset the asset
+     * @param etag      the entity tag of the identity representation, or null if unknown
+     * @return true, if content negotiation applies
+     */
+    public boolean isApplicable(DataAsset dataAsset, String etag) {
+        if (!enabled || etag == null || encoders.isEmpty() || !isCompressible(dataAsset.getContentType())) {
+            return false;
+        }
+        long length = length(dataAsset);
+        return length < 0 || (length >= minSize.toBytes() && length <= maxSize.toBytes());
+    }
+
+    /**
+     * Selects the coding, that the consumer prefers (by quality value) among those that are available.
+     * Ties are resolved by the priority of the encoders.
+     *
+     * @param dataAsset the asset
+     * @param etag      the entity tag of the identity representation
+     * @param request   the current request
+     * @return the coding, or null if the identity representation should be sent
+     */
+    public String negotiate(DataAsset dataAsset, String etag, HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Map<String, Double> qualities = parseQualities(acceptEncoding);
+        String selected = null;
+        double selectedQuality = 0;
+        for (RepresentationEncoder encoder : encoders) {
+            Double quality = qualities.getOrDefault(encoder.getEncoding(), qualities.get("*"));
+            if (quality != null && quality > selectedQuality) {
+                selected = encoder.getEncoding();
+                selectedQuality = quality;
+            }
+        }
+        if (selected == null || qualities.getOrDefault("identity", 0.0) > selectedQuality
+                || isKnownUnencodable(new Key(dataAsset.getDspId(), etag, selected))) {
+            return null;
+        }
+        return selected;
+    }
+
+    /**
+     * Returns the encoded variant of the given asset's representation, encoding it if necessary.
+     *
+     * @param dataAsset the asset
+     * @param etag      the entity tag of the identity representation, as determined before reading the representation
+     * @param coding    the coding, as returned by {@link #negotiate(DataAsset, String, HttpServletRequest)}
+     * @return the encoded representation, or null if it should be sent as is
+     */
+    public byte[] getEncoded(DataAsset dataAsset, String etag, String coding) {
+        Key key = new Key(dataAsset.getDspId(), etag, coding);
+        byte[] cached = get(key);
+        if (cached != null) {
+            return usable(cached);
+        }
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = encoding.putIfAbsent(key, future);
+        if (existing != null) {
+            return usable(existing.join());
+        }
+        byte[] encoded = null;
+        try {
+            encoded = encode(dataAsset, coding);
+            put(key, encoded);
+        } catch (Exception e) {
+            log.warn("Failure while encoding the representation of {} with {}", dataAsset.getDspId(), coding, e);
+        } finally {
+            future.complete(encoded);
+            encoding.remove(key, future);
+        }
+        return usable(encoded);
+    }
+
+    private static byte[] usable(byte[] encoded) {
+        return encoded == INCOMPRESSIBLE || encoded == TOO_LARGE ? null : encoded;
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MimeType mimeType = MimeType.valueOf(contentType);
+            return mimeTypes.stream().anyMatch(pattern -> MimeType.valueOf(pattern.trim()).includes(mimeType));
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+
+    private static long length(DataAsset dataAsset) {
+        Path file = dataAsset.getDtoRepresentationFile();
+        if (file == null) {
+            return dataAsset.getDtoRepresentationLength();
+        }
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses the codings and their quality values, e.g. "gzip;q=0.8, br, *;q=0.1".
+     */
+    static Map<String, Double> parseQualities(String acceptEncoding) {
+        Map<String, Double> qualities = new HashMap<>();
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.isEmpty()) {
+                continue;
+            }
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            qualities.put(coding, quality);
+        }
+        return qualities;
+    }
+
+    /**
+     * Encodes the representation, without holding the unencoded representation in memory.
+     *
+     * @return the encoded representation, {@link #INCOMPRESSIBLE} if it isn't smaller, or {@link #TOO_LARGE} if the
+     * representation exceeds the maximum size
+     */
+    private byte[] encode(DataAsset dataAsset, String coding) throws IOException {
+        RepresentationEncoder encoder = encoders.stream()
+                .filter(candidate -> candidate.getEncoding().equals(coding))
+                .findFirst()
+                .orElseThrow();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long total = 0;
+        try (ReadableByteChannel channel = open(dataAsset); OutputStream outputStream = encoder.encode(buffer)) {
+            ByteBuffer chunk = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(chunk) != -1) {
+                total += chunk.position();
+                if (total > maxSize.toBytes()) {
+                    log.debug("Representation of {} is too large for encoding", dataAsset.getDspId());
+                    return TOO_LARGE;
+                }
+                outputStream.write(chunk.array(), 0, chunk.position());
+                chunk.clear();
+            }
+        }
+        if (buffer.size() >= total) {
+            return INCOMPRESSIBLE;
+        }
+        log.debug("Encoded representation of {} with {} from {} to {} bytes", dataAsset.getDspId(), coding, total, buffer.size());
+        return buffer.toByteArray();
+    }
+
+    private static ReadableByteChannel open(DataAsset dataAsset) throws IOException {
+        Path file = dataAsset.getDtoRepresentationFile();
+        return file != null ? FileChannel.open(file, StandardOpenOption.READ) : dataAsset.openDtoRepresentationChannel();
+    }
+
+    private synchronized boolean isKnownUnencodable(Key key) {
+        byte[] cached = entries.get(key);
+        return cached == INCOMPRESSIBLE || cached == TOO_LARGE;
+    }
+
+    private synchronized byte[] get(Key key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(Key key, byte[] encoded) {
+        if (encoded.length > maxWeight.toBytes() / 4) {
+            return;
+        }
+        byte[] previous = entries.put(key, encoded);
+        weight += encoded.length - (previous == null ? 0 : previous.length);
+        Iterator<Map.Entry<Key, byte[]>> iterator = entries.entrySet().iterator();
+        while ((weight > maxWeight.toBytes() || entries.size() > MAX_ENTRIES) && iterator.hasNext()) {
+            Map.Entry<Key, byte[]> eldest = iterator.next();
+            weight -= eldest.getValue().length;
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.provider.service.helpers;
+
+import org.factoryx.library.connector.embedded.provider.interfaces.RepresentationEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The built-in gzip coding. Since encoded representations are computed once per version and then cached,
+ * the best compression level is used by default.
+ *
+ * @author eschrewe
+ */
+@Service
+public class GzipRepresentationEncoder implements RepresentationEncoder {
+
+    @Value("${org.factoryx.library.dataaccess.compression.gziplevel:9}")
+    private int level = 9;
+
+    @Override
+    public String getEncoding() {
+        return "gzip";
+    }
+
+    @Override
+    public OutputStream encode(OutputStream outputStream) throws IOException {
+        return new GZIPOutputStream(outputStream, 64 * 1024) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+}
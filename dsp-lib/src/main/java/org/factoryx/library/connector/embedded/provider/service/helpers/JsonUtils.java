@@ -19,7 +19,6 @@ package org.factoryx.library.connector.embedded.provider.service.helpers;
 import com.apicatalog.jsonld.JsonLd;
 import com.apicatalog.jsonld.JsonLdOptions;
 import com.apicatalog.jsonld.document.JsonDocument;
-import com.apicatalog.jsonld.loader.DocumentLoader;
 import jakarta.json.*;
 import jakarta.json.stream.JsonGenerator;
 import org.factoryx.library.connector.embedded.provider.model.DspVersion;
@@ -46,7 +45,7 @@ public class JsonUtils {
     public static final String DSPACE_NAMESPACE = "https://w3id.org/dspace/v0.8/";
     public static final String ODRL_NAMESPACE = "http://www.w3.org/ns/odrl/2/";
     private static final Logger log = LoggerFactory.getLogger(JsonUtils.class);
-    private static final DocumentLoader UTIL_DOCLOADER = new UtilDocLoader();
+    private static final UtilDocLoader UTIL_DOCLOADER = new UtilDocLoader();
     private static final JsonLdOptions JSONLD_OPTIONS = new JsonLdOptions();
     private static final JsonDocument cachedDSP2025Context = CacheProvider.getDSP2025Context();
 
@@ -75,6 +74,16 @@ public class JsonUtils {
     public static final JsonArray DSP_2025_1_CONTEXT = Json.createArrayBuilder()
             .add("https://w3id.org/dspace/2025/1/context.jsonld").build();
 
+    /**
+     * Returns the document loader that is used for JSON-LD processing, e.g. for taking
+     * snapshots of the remote contexts it has fetched.
+     *
+     * @return the document loader
+     */
+    public static UtilDocLoader getDocumentLoader() {
+        return UTIL_DOCLOADER;
+    }
+
     public static JsonValue getContextForDspVersion(DspVersion version) {
         return switch (version) {
             case V_08 -> LEGACY_CONTEXT;
@@ -193,4 +202,27 @@ public class JsonUtils {
         return responseBuilder.build().toString().getBytes(StandardCharsets.UTF_8);
     }
 
+    /**
+     * Reads the value of an endpoint property of a DataAddress. Properties are matched by the end of
+     * their name, so that e.g. both "authorization" and "https://w3id.org/edc/v0.0.1/ns/authorization" are found.
+     *
+     * @param dataAddress - the DataAddress, may be null
+     * @param prefix      - "dspace:" for DSP 0.8, "" otherwise
+     * @param name        - the name of the property
+     * @return - the value, or null if there is no such property
+     */
+    public static String getEndpointProperty(JsonObject dataAddress, String prefix, String name) {
+        if (dataAddress == null || !(dataAddress.get(prefix + "endpointProperties") instanceof JsonArray properties)) {
+            return null;
+        }
+        for (JsonValue value : properties) {
+            if (value instanceof JsonObject property
+                    && property.getString(prefix + "name", "").endsWith(name)
+                    && property.get(prefix + "value") instanceof JsonString propertyValue) {
+                return propertyValue.getString();
+            }
+        }
+        return null;
+    }
+
 }
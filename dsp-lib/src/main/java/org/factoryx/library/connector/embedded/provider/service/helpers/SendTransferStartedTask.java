@@ -26,6 +26,7 @@ import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
 import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenProviderService;
 import org.factoryx.library.connector.embedded.provider.model.DspVersion;
 import org.factoryx.library.connector.embedded.provider.model.transfer.TransferRecord;
+import org.factoryx.library.connector.embedded.provider.model.transfer.TransferState;
 import org.factoryx.library.connector.embedded.provider.service.AuthorizationService;
 import org.factoryx.library.connector.embedded.provider.service.TransferRecordService;
 import org.springframework.http.HttpStatusCode;
@@ -80,16 +81,16 @@ public class SendTransferStartedTask implements Runnable {
 
         String datasetId = transferRecord.getDatasetId();
 
-        String datasetUrl = envService.getEdrEndpoint(dataAsset);
-
         log.info("Starting transfer process {} for dataset {} under version {}", transferId, datasetId, dspVersion);
 
-        TransferRecord transferRecordUpdated = transferRecordService.startTransferRecord(transferId,
-                datasetUrl);
+        boolean push = TransferRecord.HTTP_PUSH.equals(transferRecord.getFormat());
+        TransferRecord transferRecordUpdated = push
+                ? transferRecordService.updateTransferRecordState(transferId, TransferState.STARTED)
+                : transferRecordService.startTransferRecord(transferId, envService.getEdrEndpoint(dataAsset));
 
         String targetURL = transferRecord.getPartnerDspUrl() + "/transfers/" + transferRecord.getConsumerPid()
                 + "/start";
-        String requestBody = switch (dspVersion) {
+        String requestBody = push ? buildPushTransferStartedMessage(transferRecordUpdated) : switch (dspVersion) {
             case V_08 -> buildTransferStartedMessage_V_08(transferRecordUpdated, dataAsset);
             default -> buildTransferStartedMessage(transferRecordUpdated, dataAsset);
         };
@@ -121,6 +122,20 @@ public class SendTransferStartedTask implements Runnable {
     }
 
 
+    /**
+     * In push transfers, the consumer has sent the DataAddress with its request, so there is none in this message.
+     */
+    private String buildPushTransferStartedMessage(TransferRecord transferRecord) {
+        String prefix = DspVersion.V_08.equals(dspVersion) ? "dspace:" : "";
+        return Json.createObjectBuilder()
+                .add("@context", JsonUtils.getContextForDspVersion(dspVersion))
+                .add("@type", prefix + "TransferStartMessage")
+                .add(prefix + "consumerPid", transferRecord.getConsumerPid())
+                .add(prefix + "providerPid", transferRecord.getOwnPid().toString())
+                .build()
+                .toString();
+    }
+
     private String buildTransferStartedMessage(TransferRecord transferRecord, DataAsset asset) {
         try {
             String dataAccessToken = asset instanceof ApiAsset ?
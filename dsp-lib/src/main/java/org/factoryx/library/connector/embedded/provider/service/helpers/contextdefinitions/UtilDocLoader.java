@@ -26,24 +26,74 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedInputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
 
 public class UtilDocLoader implements DocumentLoader {
     static final Logger log = LoggerFactory.getLogger(UtilDocLoader.class);
-    private final Map<URI, JsonDocument> CACHE = new HashMap<>();
+    private final Map<URI, JsonDocument> CACHE = new ConcurrentHashMap<>();
+    private final Set<URI> BUILT_IN;
+
+    /**
+     * Expiry of the documents, that were imported from a snapshot and have not been fetched since
+     */
+    private final Map<URI, Long> IMPORTED_UNTIL = new ConcurrentHashMap<>();
 
     public UtilDocLoader() {
         CACHE.put(URI.create("https://w3id.org/dspace/2025/1/context.jsonld"), CacheProvider.getDSP2025Context());
         CACHE.put(URI.create("https://w3id.org/dspace/2025/1/odrl-profile.jsonld"), CacheProvider.getDSP2025OdrlProfile());
         CACHE.put(URI.create("https://w3id.org/edc/dspace/v0.0.1"), CacheProvider.getEDCContext());
+        BUILT_IN = Set.copyOf(CACHE.keySet());
     }
 
     @Override
     public Document loadDocument(URI uri, DocumentLoaderOptions options) {
-        return CACHE.computeIfAbsent(uri, any -> fetchDocument(uri));
+        Long importedUntil = IMPORTED_UNTIL.get(uri);
+        if (importedUntil != null && System.currentTimeMillis() >= importedUntil && IMPORTED_UNTIL.remove(uri, importedUntil)) {
+            // the imported document has expired, it is fetched again below
+            CACHE.remove(uri);
+        }
+        JsonDocument document = CACHE.get(uri);
+        if (document == null) {
+            // fetch outside the map, so that a slow remote doesn't block lookups of other documents
+            document = fetchDocument(uri);
+            if (document != null) {
+                JsonDocument existing = CACHE.putIfAbsent(uri, document);
+                document = existing != null ? existing : document;
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Returns all documents that were fetched from remote locations at runtime. Imported documents are
+     * only included, once they have been fetched again.
+     *
+     * @return the documents, keyed by their uri
+     */
+    public Map<URI, JsonDocument> exportFetchedDocuments() {
+        return CACHE.entrySet().stream()
+                .filter(entry -> !BUILT_IN.contains(entry.getKey()) && !IMPORTED_UNTIL.containsKey(entry.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * Adds a previously fetched document (e.g. from a snapshot). Documents already present take precedence.
+     * Once the given time has passed, the document is fetched again on its next use.
+     *
+     * @param uri      the uri of the document
+     * @param document the document
+     * @param ttl      the time, for which the imported document is used
+     */
+    public void importDocument(URI uri, JsonDocument document, Duration ttl) {
+        if (CACHE.putIfAbsent(uri, document) == null) {
+            IMPORTED_UNTIL.put(uri, System.currentTimeMillis() + ttl.toMillis());
+        }
     }
 
     private JsonDocument fetchDocument(URI uri)  {
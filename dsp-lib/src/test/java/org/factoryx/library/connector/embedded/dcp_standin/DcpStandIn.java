@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.dcp_standin;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
+
+/**
+ * An in-JVM stand-in for the parties involved in a DCP token validation, so that the validation services
+ * can be exercised (and load tested) without wallets, containers or network access.
+ * <p>
+ * A single HTTP server on the loopback interface serves
+ * <ul>
+ *     <li>did:web documents for the trusted issuer, the own connector and any number of partners,</li>
+ *     <li>a DIM-like STS (access token endpoint and signing endpoint),</li>
+ *     <li>a credential service per partner, that answers presentation queries with a signed presentation
+ *     containing a membership credential signed by the issuer,</li>
+ *     <li>a vault stub, that returns the same secret for every alias.</li>
+ * </ul>
+ * Latency and failures can be injected per {@link Endpoint}, and calls are counted per endpoint, so that the
+ * effectiveness of caches can be measured.
+ *
+ * @author eschrewe
+ */
+public class DcpStandIn implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DcpStandIn.class);
+
+    public static final String ISSUER = "issuer";
+    public static final String OWN_CONNECTOR = "provider";
+    public static final String VAULT_SECRET = "stand-in-secret";
+
+    public enum Endpoint {
+        DID_DOCUMENT, STS_TOKEN, STS_SIGN, CREDENTIAL_SERVICE, VAULT
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final String baseUrl;
+    private final String didPrefix;
+
+    private final Map<String, ECKey> participantKeys = new ConcurrentHashMap<>();
+    private final Map<Endpoint, Duration> latencies = new ConcurrentHashMap<>();
+    private final Map<Endpoint, Double> failureRates = new ConcurrentHashMap<>();
+    private final Map<Endpoint, AtomicLong> callCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the presentation response contains an array of presentations (Factory-X) or a single one (MVD).
+     */
+    private volatile boolean presentationAsArray = true;
+
+    private volatile Duration credentialLifetime = Duration.ofHours(1);
+
+    private volatile String membershipType = "FullMember";
+
+    /**
+     * The body of the last presentation query, that was received by any credential service
+     */
+    private volatile String lastPresentationQuery;
+
+    public DcpStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        int port = server.getAddress().getPort();
+        baseUrl = "http://localhost:" + port;
+        didPrefix = "did:web:localhost%3A" + port + ":";
+        for (Endpoint endpoint : Endpoint.values()) {
+            callCounts.put(endpoint, new AtomicLong());
+        }
+        addParticipant(ISSUER);
+        addParticipant(OWN_CONNECTOR);
+        log.info("DCP stand-in listening on {}", baseUrl);
+    }
+
+    /**
+     * Registers a participant with a fresh key pair, unless it is already known.
+     *
+     * @param name the name of the participant, which becomes the last segment of its did
+     * @return the did of the participant
+     */
+    public String addParticipant(String name) {
+        participantKeys.computeIfAbsent(name, key -> generateKey(didOf(name)));
+        return didOf(name);
+    }
+
+    /**
+     * Replaces the key of the given participant, so that a key rotation can be simulated.
+     *
+     * @param name the name of the participant
+     */
+    public void rotateKey(String name) {
+        participantKeys.put(name, generateKey(didOf(name) + "#" + UUID.randomUUID()));
+    }
+
+    public String didOf(String name) {
+        return didPrefix + name;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getStsTokenUrl() {
+        return baseUrl + "/sts/token";
+    }
+
+    public String getStsSignUrl() {
+        return baseUrl + "/sts/sign";
+    }
+
+    public String getVaultUrl() {
+        return baseUrl + "/vault";
+    }
+
+    public void setPresentationAsArray(boolean presentationAsArray) {
+        this.presentationAsArray = presentationAsArray;
+    }
+
+    public void setCredentialLifetime(Duration credentialLifetime) {
+        this.credentialLifetime = credentialLifetime;
+    }
+
+    public void setMembershipType(String membershipType) {
+        this.membershipType = membershipType;
+    }
+
+    public String getLastPresentationQuery() {
+        return lastPresentationQuery;
+    }
+
+    /**
+     * Delays every response of the given endpoint.
+     *
+     * @param endpoint the endpoint
+     * @param latency  the delay
+     */
+    public void injectLatency(Endpoint endpoint, Duration latency) {
+        latencies.put(endpoint, latency);
+    }
+
+    /**
+     * Lets the given endpoint answer the given share of requests with status 503.
+     *
+     * @param endpoint    the endpoint
+     * @param failureRate a value between 0 (no failures) and 1 (only failures)
+     */
+    public void injectFailures(Endpoint endpoint, double failureRate) {
+        failureRates.put(endpoint, failureRate);
+    }
+
+    /**
+     * Removes all injected latencies and failures and resets the call counts.
+     */
+    public void reset() {
+        latencies.clear();
+        failureRates.clear();
+        callCounts.values().forEach(count -> count.set(0));
+    }
+
+    public long getCallCount(Endpoint endpoint) {
+        return callCounts.get(endpoint).get();
+    }
+
+    /**
+     * Creates a self-issued token, as a partner would send it along with a DSP request.
+     *
+     * @param name     the name of the partner
+     * @param audience the id of the receiving connector
+     * @return the serialized token
+     */
+    public String createSelfIssuedToken(String name, String audience) {
+        return createSelfIssuedToken(name, audience, participantKeys.get(name));
+    }
+
+    /**
+     * Creates a self-issued token for the given partner, but signs it with an arbitrary key.
+     *
+     * @param name     the name of the partner
+     * @param audience the id of the receiving connector
+     * @return the serialized token
+     */
+    public String createForgedToken(String name, String audience) {
+        ECKey genuineKey = participantKeys.get(name);
+        return createSelfIssuedToken(name, audience, generateKey(genuineKey.getKeyID()));
+    }
+
+    private String createSelfIssuedToken(String name, String audience, ECKey key) {
+        String did = didOf(name);
+        Date now = new Date();
+        return sign(key, new JWTClaimsSet.Builder()
+                .issuer(did)
+                .subject(did)
+                .audience(audience)
+                .notBeforeTime(now)
+                .issueTime(now)
+                .expirationTime(new Date(now.getTime() + Duration.ofMinutes(5).toMillis()))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("token", "access-token-of-" + name)
+                .build());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            Endpoint endpoint = route(path);
+            if (endpoint == null) {
+                respond(exchange, 404, "");
+                return;
+            }
+            callCounts.get(endpoint).incrementAndGet();
+            Duration latency = latencies.get(endpoint);
+            if (latency != null && latency.isPositive()) {
+                Thread.sleep(latency);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < failureRates.getOrDefault(endpoint, 0.0)) {
+                respond(exchange, 503, "");
+                return;
+            }
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            switch (endpoint) {
+                case DID_DOCUMENT -> serveDidDocument(exchange, participantName(path, "/did.json"));
+                case STS_TOKEN -> respond(exchange, 200, Json.createObjectBuilder()
+                        .add("access_token", "sts-access-token-" + UUID.randomUUID())
+                        .add("expires_in", 300).build().toString());
+                case STS_SIGN -> serveSignedToken(exchange, body);
+                case CREDENTIAL_SERVICE -> {
+                    lastPresentationQuery = body;
+                    servePresentation(exchange, participantName(path, "/cs/presentations/query"));
+                }
+                case VAULT -> respond(exchange, 200, Json.createObjectBuilder()
+                        .add("data", Json.createObjectBuilder()
+                                .add("data", Json.createObjectBuilder().add("content", VAULT_SECRET)))
+                        .build().toString());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failure in DCP stand-in", e);
+        }
+    }
+
+    private static Endpoint route(String path) {
+        if (path.startsWith("/vault/v1/secret/data/")) {
+            return Endpoint.VAULT;
+        }
+        if (path.equals("/sts/token")) {
+            return Endpoint.STS_TOKEN;
+        }
+        if (path.equals("/sts/sign")) {
+            return Endpoint.STS_SIGN;
+        }
+        if (path.endsWith("/did.json")) {
+            return Endpoint.DID_DOCUMENT;
+        }
+        if (path.endsWith("/cs/presentations/query")) {
+            return Endpoint.CREDENTIAL_SERVICE;
+        }
+        return null;
+    }
+
+    private static String participantName(String path, String suffix) {
+        return path.substring(1, path.length() - suffix.length());
+    }
+
+    private void serveDidDocument(HttpExchange exchange, String name) throws IOException {
+        ECKey key = participantKeys.get(name);
+        if (key == null) {
+            respond(exchange, 404, "");
+            return;
+        }
+        String did = didOf(name);
+        String didDocument = Json.createObjectBuilder()
+                .add("id", did)
+                .add("verificationMethod", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder()
+                                .add("id", key.getKeyID())
+                                .add("type", "JsonWebKey2020")
+                                .add("controller", did)
+                                .add("publicKeyJwk", parse(key.toPublicJWK().toJSONString()))))
+                .add("service", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder()
+                                .add("id", did + "#credential-service")
+                                .add("type", "CredentialService")
+                                .add("serviceEndpoint", baseUrl + "/" + name + "/cs")))
+                .build().toString();
+        respond(exchange, 200, didDocument);
+    }
+
+    private void serveSignedToken(HttpExchange exchange, String body) throws IOException {
+        JsonObject request = parse(body);
+        JsonObject signToken = request.getJsonObject("signToken");
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(didOf(OWN_CONNECTOR))
+                .subject(didOf(OWN_CONNECTOR))
+                .jwtID(UUID.randomUUID().toString())
+                .expirationTime(new Date(System.currentTimeMillis() + Duration.ofMinutes(5).toMillis()));
+        if (signToken != null) {
+            claims.audience(signToken.getString("audience", null)).claim("token", signToken.getString("token", null));
+        }
+        String jwt = sign(participantKeys.get(OWN_CONNECTOR), claims.build());
+        respond(exchange, 200, Json.createObjectBuilder().add("jwt", jwt).build().toString());
+    }
+
+    private void servePresentation(HttpExchange exchange, String name) throws IOException {
+        if (!participantKeys.containsKey(name)) {
+            respond(exchange, 404, "");
+            return;
+        }
+        String did = didOf(name);
+        Date expiry = new Date(System.currentTimeMillis() + credentialLifetime.toMillis());
+        String credential = sign(participantKeys.get(ISSUER), new JWTClaimsSet.Builder()
+                .issuer(didOf(ISSUER))
+                .subject(did)
+                .expirationTime(expiry)
+                .claim("vc", Map.of(
+                        "type", List.of("VerifiableCredential", "MembershipCredential"),
+                        "credentialSubject", Map.of(
+                                "id", did,
+                                "membership", Map.of("membershipType", membershipType))))
+                .build());
+        String presentation = sign(participantKeys.get(name), new JWTClaimsSet.Builder()
+                .issuer(did)
+                .subject(did)
+                .expirationTime(expiry)
+                .claim("vp", Map.of(
+                        "type", List.of("VerifiablePresentation"),
+                        "verifiableCredential", List.of(credential)))
+                .build());
+        var response = Json.createObjectBuilder()
+                .add("type", "PresentationResponseMessage");
+        if (presentationAsArray) {
+            response.add("presentation", Json.createArrayBuilder().add(presentation));
+        } else {
+            response.add("presentation", presentation);
+        }
+        respond(exchange, 200, response.build().toString());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        }
+    }
+
+    private static ECKey generateKey(String keyId) {
+        try {
+            return new ECKeyGenerator(Curve.P_256).keyID(keyId.contains("#") ? keyId : keyId + "#key-1").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sign(ECKey key, JWTClaimsSet claims) {
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256).keyID(key.getKeyID()).build(), claims);
+            jwt.sign(new ECDSASigner(key));
+            return jwt.serialize();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
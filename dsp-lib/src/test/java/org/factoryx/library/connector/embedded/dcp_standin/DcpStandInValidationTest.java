@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.dcp_standin;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+import org.factoryx.library.connector.embedded.dcp_standin.DcpStandIn.Endpoint;
+import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenValidationService;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.*;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.fxvalidation_v0_1.FXv0_1_DimWalletTokenProviderService;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.fxvalidation_v0_1.FXv0_1_ValidationService;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.mvdvalidation.MvdTokenProviderService;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.mvdvalidation.MvdValidationService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.EnvService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the Factory-X and the MVD token validation against the {@link DcpStandIn}. The load test is only executed,
+ * if the system property "dcp.standin.loadtest" is set to "true".
+ */
+public class DcpStandInValidationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DcpStandInValidationTest.class);
+    private static final String PARTNER = "partner-a";
+
+    private DcpStandIn standIn;
+    private ExecutorService executorService;
+    private DidDocumentResolver didDocumentResolver;
+    private RestClient restClient;
+    private EnvService envService;
+    private DcpValidationEngine engine;
+    private FXv0_1_ValidationService validationService;
+    private String ownDid;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        standIn = new DcpStandIn();
+        standIn.addParticipant(PARTNER);
+        ownDid = standIn.didOf(DcpStandIn.OWN_CONNECTOR);
+        executorService = Executors.newCachedThreadPool();
+
+        restClient = RestClient.create();
+        envService = mock(EnvService.class);
+        when(envService.getBackendId()).thenReturn(ownDid);
+
+        DcpValidationMetrics metrics = new DcpValidationMetrics(Optional.of(new SimpleMeterRegistry()));
+        VerifiedCredentialCache verifiedCredentialCache = new VerifiedCredentialCache();
+        ReflectionTestUtils.setField(verifiedCredentialCache, "maxAge", Duration.ofMinutes(10));
+        didDocumentResolver = new DidDocumentResolver(restClient, metrics);
+        engine = new DcpValidationEngine(restClient, envService, didDocumentResolver,
+                new ReplayProtectionService(Optional.empty(), executorService),
+                verifiedCredentialCache, metrics, executorService);
+
+        var tokenProvider = new FXv0_1_DimWalletTokenProviderService(envService, restClient, executorService);
+        ReflectionTestUtils.setField(tokenProvider, "vaultRootToken", "root");
+        ReflectionTestUtils.setField(tokenProvider, "vaultBaseUrl", standIn.getVaultUrl());
+        ReflectionTestUtils.setField(tokenProvider, "vaultSecretAlias", "stand-in");
+        ReflectionTestUtils.setField(tokenProvider, "dimTokenUrl", standIn.getStsTokenUrl());
+        ReflectionTestUtils.setField(tokenProvider, "dimClientId", "stand-in-client");
+        ReflectionTestUtils.setField(tokenProvider, "dimUrl", standIn.getStsSignUrl());
+
+        validationService = new FXv0_1_ValidationService(engine, tokenProvider);
+        ReflectionTestUtils.setField(validationService, "TRUSTED_ISSUER", standIn.didOf(DcpStandIn.ISSUER));
+        ReflectionTestUtils.setField(validationService, "didUrlPrefix", "http://");
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.close();
+        executorService.shutdownNow();
+    }
+
+    private String partnerIdOf(Map<String, String> validationResult) {
+        return validationResult.get(DspTokenValidationService.ReservedKeys.partnerId.toString());
+    }
+
+    @Test
+    void testValidTokenIsAcceptedAndMembershipIsCached() {
+        String partnerDid = standIn.didOf(PARTNER);
+        assertEquals(partnerDid, partnerIdOf(validationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid))));
+        assertEquals(partnerDid, partnerIdOf(validationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid))));
+
+        assertEquals(1, standIn.getCallCount(Endpoint.CREDENTIAL_SERVICE));
+        assertEquals(1, standIn.getCallCount(Endpoint.STS_SIGN));
+        assertEquals(1, standIn.getCallCount(Endpoint.STS_TOKEN));
+        assertEquals(1, standIn.getCallCount(Endpoint.VAULT));
+        // the partner's and the issuer's did-document
+        assertEquals(2, standIn.getCallCount(Endpoint.DID_DOCUMENT));
+    }
+
+    @Test
+    void testForgedTokenIsRejected() {
+        assertTrue(validationService.validateToken(standIn.createForgedToken(PARTNER, ownDid)).isEmpty());
+        assertEquals(0, standIn.getCallCount(Endpoint.CREDENTIAL_SERVICE));
+    }
+
+    @Test
+    void testReplayedTokenIsRejected() {
+        String token = standIn.createSelfIssuedToken(PARTNER, ownDid);
+        assertFalse(validationService.validateToken(token).isEmpty());
+        assertTrue(validationService.validateToken(token).isEmpty());
+    }
+
+    @Test
+    void testCredentialServiceFailureIsNotCached() {
+        standIn.injectFailures(Endpoint.CREDENTIAL_SERVICE, 1.0);
+        assertTrue(validationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid)).isEmpty());
+
+        standIn.injectFailures(Endpoint.CREDENTIAL_SERVICE, 0.0);
+        assertFalse(validationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid)).isEmpty());
+    }
+
+    @Test
+    void testRotatedKeyIsPickedUp() {
+        ReflectionTestUtils.setField(didDocumentResolver, "minRefreshInterval", Duration.ZERO);
+        assertFalse(validationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid)).isEmpty());
+        standIn.rotateKey(PARTNER);
+        assertFalse(validationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid)).isEmpty());
+    }
+
+    private MvdValidationService mvdValidationService() {
+        standIn.setPresentationAsArray(false);
+        when(envService.getURLPrefix()).thenReturn("http://");
+        var tokenProvider = new MvdTokenProviderService(envService, restClient);
+        ReflectionTestUtils.setField(tokenProvider, "vaultRootToken", "root");
+        ReflectionTestUtils.setField(tokenProvider, "vaultBaseUrl", standIn.getVaultUrl());
+        ReflectionTestUtils.setField(tokenProvider, "vaultSecretAlias", "stand-in");
+        ReflectionTestUtils.setField(tokenProvider, "stsTokenUrl", standIn.getStsTokenUrl());
+
+        var mvdValidationService = new MvdValidationService(envService, engine, tokenProvider);
+        ReflectionTestUtils.setField(mvdValidationService, "TRUSTED_ISSUER", standIn.didOf(DcpStandIn.ISSUER));
+        return mvdValidationService;
+    }
+
+    @Test
+    void testMvdValidationQueriesMembershipCredential() {
+        var mvdValidationService = mvdValidationService();
+        String partnerDid = standIn.didOf(PARTNER);
+        assertEquals(partnerDid, partnerIdOf(mvdValidationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid))));
+
+        JsonObject presentationQuery = parse(standIn.getLastPresentationQuery());
+        assertEquals(List.of("https://identity.foundation/presentation-exchange/submission/v1", "https://w3id.org/tractusx-trust/v0.8"),
+                presentationQuery.getJsonArray("@context").getValuesAs(JsonString::getString));
+        assertEquals("PresentationQueryMessage", presentationQuery.getString("@type"));
+        assertEquals(List.of("org.eclipse.edc.vc.type:MembershipCredential:read"),
+                presentationQuery.getJsonArray("scope").getValuesAs(JsonString::getString));
+        assertEquals(1, standIn.getCallCount(Endpoint.CREDENTIAL_SERVICE));
+        assertEquals(1, standIn.getCallCount(Endpoint.STS_TOKEN));
+    }
+
+    @Test
+    void testMvdValidationRequiresFullMembership() {
+        var mvdValidationService = mvdValidationService();
+        standIn.setMembershipType("ProspectMember");
+        assertTrue(mvdValidationService.validateToken(standIn.createSelfIssuedToken(PARTNER, ownDid)).isEmpty());
+        assertEquals(1, standIn.getCallCount(Endpoint.CREDENTIAL_SERVICE));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "dcp.standin.loadtest", matches = "true")
+    void loadTest() throws Exception {
+        int partners = 50;
+        int requests = 5000;
+        for (int i = 0; i < partners; i++) {
+            standIn.addParticipant("partner-" + i);
+        }
+        // the load phase measures the steady state after each partner was seen once
+        for (int i = 0; i < partners; i++) {
+            assertFalse(validationService.validateToken(standIn.createSelfIssuedToken("partner-" + i, ownDid)).isEmpty());
+        }
+        standIn.reset();
+        standIn.injectLatency(Endpoint.DID_DOCUMENT, Duration.ofMillis(20));
+        standIn.injectLatency(Endpoint.STS_SIGN, Duration.ofMillis(30));
+        standIn.injectLatency(Endpoint.CREDENTIAL_SERVICE, Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        List<Future<Map<String, String>>> results = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                String token = standIn.createSelfIssuedToken("partner-" + (i % partners), ownDid);
+                results.add(clients.submit(() -> validationService.validateToken(token)));
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        long accepted = 0;
+        for (var result : results) {
+            if (!result.get().isEmpty()) {
+                accepted++;
+            }
+        }
+        log.info("Validated {} tokens of {} partners in {} ms ({} per second)", requests, partners, elapsedMillis,
+                requests * 1000L / elapsedMillis);
+        for (Endpoint endpoint : Endpoint.values()) {
+            log.info("Calls to {}: {}", endpoint, standIn.getCallCount(endpoint));
+        }
+        assertEquals(requests, accepted);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import com.nimbusds.jose.PlainHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenValidationService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.AdmissionRejectedException;
+import org.factoryx.library.connector.embedded.provider.service.helpers.AdmissionControlService.EndpointClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AdmissionControlServiceTest {
+
+    @Mock
+    private DspTokenValidationService dspTokenValidationService;
+
+    private AdmissionControlService admissionControlService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        admissionControlService = new AdmissionControlService(dspTokenValidationService);
+        ReflectionTestUtils.setField(admissionControlService, "enabled", true);
+        ReflectionTestUtils.setField(admissionControlService, "catalogRate", 0.001);
+        ReflectionTestUtils.setField(admissionControlService, "catalogBurst", 2);
+        ReflectionTestUtils.setField(admissionControlService, "transferRate", 0.001);
+        ReflectionTestUtils.setField(admissionControlService, "transferBurst", 2);
+    }
+
+    @Test
+    void testBurstIsAdmittedAndExcessIsRejectedBeforeValidation() {
+        String token = createToken("did:web:partner-a");
+        admissionControlService.validateToken(token, EndpointClass.CATALOG);
+        admissionControlService.validateToken(token, EndpointClass.CATALOG);
+
+        var exception = assertThrows(AdmissionRejectedException.class,
+                () -> admissionControlService.validateToken(token, EndpointClass.CATALOG));
+        assertTrue(exception.getRetryAfterSeconds() > 0);
+        verify(dspTokenValidationService, times(2)).validateToken(token);
+    }
+
+    @Test
+    void testPartnersAndEndpointClassesHaveSeparateBuckets() {
+        String tokenA = createToken("did:web:partner-a");
+        String tokenB = createToken("did:web:partner-b");
+        admissionControlService.validateToken(tokenA, EndpointClass.CATALOG);
+        admissionControlService.validateToken(tokenA, EndpointClass.CATALOG);
+
+        assertDoesNotThrow(() -> admissionControlService.validateToken(tokenB, EndpointClass.CATALOG));
+        assertDoesNotThrow(() -> admissionControlService.validateToken(tokenA, EndpointClass.TRANSFER));
+    }
+
+    @Test
+    void testVerifiedPartnerIsLimitedAcrossSubjects() {
+        when(dspTokenValidationService.validateToken(anyString()))
+                .thenReturn(Map.of(DspTokenValidationService.ReservedKeys.partnerId.toString(), "did:web:partner-a"));
+        admissionControlService.validateToken(createToken("subject-1"), EndpointClass.CATALOG);
+        admissionControlService.validateToken(createToken("subject-2"), EndpointClass.CATALOG);
+
+        assertThrows(AdmissionRejectedException.class,
+                () -> admissionControlService.validateToken(createToken("subject-3"), EndpointClass.CATALOG));
+    }
+
+    @Test
+    void testDisabledLimiterOnlyDelegates() {
+        ReflectionTestUtils.setField(admissionControlService, "enabled", false);
+        String token = createToken("did:web:partner-a");
+        for (int i = 0; i < 10; i++) {
+            admissionControlService.validateToken(token, EndpointClass.CATALOG);
+        }
+        verify(dspTokenValidationService, times(10)).validateToken(token);
+    }
+
+    @Test
+    void testRejectionResponse() {
+        ResponseEntity<byte[]> response = new AdmissionRejectedException(7).toResponse();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static String createToken(String subject) {
+        return "Bearer " + new PlainJWT(new PlainHeader(), new JWTClaimsSet.Builder().subject(subject).build()).serialize();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import org.factoryx.library.connector.embedded.provider.interfaces.ApiAsset;
+import org.factoryx.library.connector.embedded.provider.service.helpers.ApiAssetProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApiAssetProxyTest {
+
+    private HttpServer backend;
+    private ExecutorService executorService;
+    private ApiAssetProxy apiAssetProxy;
+    private final AtomicReference<Headers> receivedHeaders = new AtomicReference<>();
+    private final AtomicReference<URI> receivedUri = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        backend = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // echoes the request body
+        backend.createContext("/api", exchange -> {
+            receivedHeaders.set(exchange.getRequestHeaders());
+            receivedUri.set(exchange.getRequestURI());
+            exchange.getResponseHeaders().add("X-Backend", "echo");
+            exchange.getResponseHeaders().add("Keep-Alive", "timeout=5");
+            exchange.sendResponseHeaders(201, 0);
+            try (InputStream in = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+                in.transferTo(out);
+            }
+        });
+        backend.start();
+
+        executorService = Executors.newCachedThreadPool();
+        apiAssetProxy = new ApiAssetProxy(executorService);
+        ReflectionTestUtils.setField(apiAssetProxy, "connectTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(apiAssetProxy, "requestTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(apiAssetProxy, "useHttp2", false);
+        ReflectionTestUtils.invokeMethod(apiAssetProxy, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        backend.stop(0);
+        executorService.shutdownNow();
+    }
+
+    private static ApiAsset apiAsset(URI backendUrl) {
+        return new ApiAsset() {
+            @Override
+            public String getDspId() {
+                return "api-asset";
+            }
+
+            @Override
+            public Map<String, String> getProperties() {
+                return Map.of();
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/json";
+            }
+
+            @Override
+            public byte[] getDtoRepresentation() {
+                return new byte[0];
+            }
+
+            @Override
+            public URI getBackendUrl() {
+                return backendUrl;
+            }
+
+            @Override
+            public Map<String, String> getBackendHeaders() {
+                return Map.of("X-Api-Key", "secret");
+            }
+        };
+    }
+
+    private URI backendUrl() {
+        return URI.create("http://localhost:" + backend.getAddress().getPort() + "/api");
+    }
+
+    @Test
+    void testRequestAndResponseAreForwarded() throws Exception {
+        byte[] body = new byte[3 * 1024 * 1024];
+        new Random(7).nextBytes(body);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/dsp/data-access/api-asset/items/1");
+        request.setQueryString("filter=a%20b&limit=10");
+        request.setContent(body);
+        request.addHeader("Authorization", "Bearer consumer-token");
+        request.addHeader("Content-Type", "application/octet-stream");
+        request.addHeader("Connection", "X-Hop");
+        request.addHeader("X-Hop", "dropped");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        apiAssetProxy.forward(apiAsset(backendUrl()), HttpMethod.POST, "/items/1", request, response);
+
+        assertEquals(201, response.getStatus());
+        assertArrayEquals(body, response.getContentAsByteArray());
+        assertEquals("echo", response.getHeader("X-Backend"));
+        assertNull(response.getHeader("Keep-Alive"));
+
+        assertEquals("/api/items/1", receivedUri.get().getRawPath());
+        assertEquals("filter=a%20b&limit=10", receivedUri.get().getRawQuery());
+        Headers headers = receivedHeaders.get();
+        assertNull(headers.getFirst("Authorization"));
+        assertNull(headers.getFirst("X-Hop"));
+        assertEquals("secret", headers.getFirst("X-Api-Key"));
+        assertEquals("application/octet-stream", headers.getFirst("Content-Type"));
+        assertEquals("127.0.0.1", headers.getFirst("X-Forwarded-For"));
+    }
+
+    @Test
+    void testPathOutsideOfBackendUrlIsRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/dsp/data-access/api-asset/../admin");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        apiAssetProxy.forward(apiAsset(backendUrl()), HttpMethod.DELETE, "/../admin", request, response);
+
+        assertEquals(400, response.getStatus());
+        assertNull(receivedUri.get());
+    }
+
+    @Test
+    void testUnreachableBackend() throws Exception {
+        URI unreachable = backendUrl();
+        backend.stop(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/dsp/data-access/api-asset/items/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        apiAssetProxy.forward(apiAsset(unreachable), HttpMethod.DELETE, "/items/1", request, response);
+
+        assertEquals(502, response.getStatus());
+    }
+}
@@ -16,13 +16,31 @@
 
 package org.factoryx.library.connector.embedded.service;
 
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
 import org.factoryx.library.connector.embedded.provider.service.AuthorizationService;
+import org.factoryx.library.connector.embedded.provider.service.DataAccessGrantStore;
+import org.factoryx.library.connector.embedded.provider.service.SigningKeyring;
 import org.factoryx.library.connector.embedded.provider.service.helpers.EnvService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +49,9 @@ public class AuthServiceTest {
 
     @Mock
     private EnvService envService;
+    @Mock
+    private ExecutorService executorService;
+    private SigningKeyring signingKeyring;
     private AuthorizationService authService;
     private static final String CONTRACT_ID = "57e5f3ac-c1ef-4361-89c9-71c51c18f089";
     private static final String DATA_ADDRESS = "http://localhost:8080/path/to/data-asset";
@@ -41,7 +62,8 @@ public class AuthServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         when(envService.getSingleAssetReadOnlyDataAccessIssuer()).thenReturn("test-issuer");
-        authService = new AuthorizationService(envService);
+        signingKeyring = new SigningKeyring(Optional.empty(), executorService);
+        authService = new AuthorizationService(envService, signingKeyring, new DataAccessGrantStore(Optional.empty(), executorService));
     }
 
     /*
@@ -118,4 +140,128 @@ public class AuthServiceTest {
         JWTClaimsSet refreshTokenClaims = authService.extractAllClaims(refreshToken);
         assertNotEquals(INVALID_PARTNER_ID, refreshTokenClaims.getSubject(), "Refresh token should not be valid for different partnerId");
     }
+
+    /*
+     * tests for token introspection
+     */
+    @Test
+    void testIntrospectionIsCached() {
+        String token = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+        AuthorizationService.VerifiedToken first = authService.introspect(token);
+        assertNotNull(first);
+        assertEquals(CONTRACT_ID, first.claims().getClaim(AuthorizationService.CONTRACT_ID));
+        assertNull(first.nestedTokenClaims());
+        assertSame(first, authService.introspect(token), "Second introspection should be served from the cache");
+    }
+
+    @Test
+    void testIntrospectRefreshTokenContainsAccessTokenClaims() {
+        String accessToken = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+        String refreshToken = authService.issueRefreshToken(accessToken, PARTNER_ID);
+        AuthorizationService.VerifiedToken verified = authService.introspect(refreshToken);
+        assertNotNull(verified);
+        assertEquals(PARTNER_ID, verified.claims().getSubject());
+        assertEquals(DATA_ADDRESS, verified.nestedTokenClaims().getClaim(AuthorizationService.DATA_ADDRESS));
+    }
+
+    @Test
+    void testIntrospectInvalidToken() {
+        assertNull(authService.introspect("not-a-token"));
+        assertNull(authService.introspect(null));
+    }
+
+    @Test
+    void testCachedIntrospectionDroppedWhenKeyIsRetired() {
+        String token = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+        assertNotNull(authService.introspect(token));
+        signingKeyring.rotate();
+        ReflectionTestUtils.setField(signingKeyring, "keyRetention", Duration.ZERO);
+        assertNull(authService.introspect(token), "Cached result must not outlive the signing key");
+    }
+
+    @Test
+    void testResolveGrantOfJwt() {
+        String accessToken = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+        DataAccessGrant grant = authService.resolveGrant(authService.issueRefreshToken(accessToken, PARTNER_ID));
+        assertNotNull(grant);
+        assertEquals(DataAccessGrant.Type.REFRESH, grant.type());
+        assertEquals(CONTRACT_ID, grant.contractId());
+        assertEquals(DATA_ADDRESS, grant.target());
+        assertEquals(PARTNER_ID, grant.partnerId());
+    }
+
+    /*
+     * tests for opaque token mode
+     */
+    @Test
+    void testOpaqueTokens() {
+        ReflectionTestUtils.setField(authService, "tokenMode", "opaque");
+        String accessToken = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+        String refreshToken = authService.issueRefreshToken(accessToken, PARTNER_ID);
+        assertEquals(1, accessToken.split("\\.").length, "Opaque token must not be a JWT");
+        assertTrue(authService.validateToken(accessToken));
+
+        DataAccessGrant accessGrant = authService.resolveGrant(accessToken);
+        assertEquals(DataAccessGrant.Type.DATA_ACCESS, accessGrant.type());
+        assertEquals("test-issuer", accessGrant.issuer());
+        assertEquals(DATA_ADDRESS, accessGrant.target());
+
+        DataAccessGrant refreshGrant = authService.resolveGrant(refreshToken);
+        assertEquals(DataAccessGrant.Type.REFRESH, refreshGrant.type());
+        assertEquals(CONTRACT_ID, refreshGrant.contractId());
+        assertEquals(PARTNER_ID, refreshGrant.partnerId());
+
+        assertNull(authService.resolveGrant(accessToken + "x"));
+    }
+
+    /*
+     * tests for key rotation
+     */
+    @Test
+    void testTokenRemainsValidAfterRotationUntilKeyIsRetired() {
+        String token = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+        signingKeyring.rotate();
+        assertTrue(authService.validateToken(token), "Token signed with a previous key should be valid");
+
+        ReflectionTestUtils.setField(signingKeyring, "keyRetention", Duration.ZERO);
+        assertFalse(authService.validateToken(token), "Token signed with a retired key should be invalid");
+    }
+
+    @Test
+    void testTokenCarriesKeyId() throws Exception {
+        String token = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+        assertEquals(signingKeyring.currentKey().kid(), SignedJWT.parse(token).getHeader().getKeyID());
+    }
+
+    @Test
+    void testAsymmetricTokens() throws Exception {
+        for (String algorithm : List.of("ES256", "EdDSA")) {
+            ReflectionTestUtils.setField(signingKeyring, "algorithm", algorithm);
+            signingKeyring.rotate();
+            String token = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+            SignedJWT signedJWT = SignedJWT.parse(token);
+            assertEquals(algorithm, signedJWT.getHeader().getAlgorithm().getName());
+            assertTrue(authService.validateToken(token));
+
+            // the published key alone must suffice for verification
+            JWK publicKey = signingKeyring.getPublicKeys().getKeyByKeyId(signedJWT.getHeader().getKeyID());
+            JWSVerifier verifier = publicKey instanceof ECKey ecKey
+                    ? new ECDSAVerifier(ecKey) : new Ed25519Verifier(publicKey.toOctetKeyPair());
+            assertTrue(signedJWT.verify(verifier));
+        }
+    }
+
+    @Test
+    void testConcurrentIssuanceAndValidation() throws Exception {
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 2000; i++) {
+                results.add(pool.submit(() ->
+                        authService.validateToken(authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS))));
+            }
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+    }
 }
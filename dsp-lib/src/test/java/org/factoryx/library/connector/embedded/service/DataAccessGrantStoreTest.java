@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import org.factoryx.library.connector.embedded.provider.model.DataAccessGrant;
+import org.factoryx.library.connector.embedded.provider.repository.DataAccessGrantRepository;
+import org.factoryx.library.connector.embedded.provider.service.DataAccessGrantStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataAccessGrantStoreTest {
+
+    @Mock
+    private ExecutorService executorService;
+
+    private InMemoryDataAccessGrantRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        repository = new InMemoryDataAccessGrantRepository();
+    }
+
+    private DataAccessGrantStore createNode(boolean persistent) {
+        DataAccessGrantStore store = new DataAccessGrantStore(Optional.of(repository), executorService);
+        ReflectionTestUtils.setField(store, "usePersistentGrants", persistent);
+        return store;
+    }
+
+    private static DataAccessGrant grant(long expiresAt) {
+        return new DataAccessGrant(DataAccessGrant.Type.DATA_ACCESS, "issuer", "contract", "http://localhost/asset",
+                null, expiresAt);
+    }
+
+    @Test
+    void testIssuedTokenResolvesToGrant() {
+        DataAccessGrantStore store = createNode(false);
+        DataAccessGrant grant = grant(System.currentTimeMillis() + 60_000);
+        String token = store.issue(grant);
+
+        assertEquals(grant, store.lookup(token));
+        assertNotEquals(token, store.issue(grant), "Every token must be unique");
+        assertTrue(repository.grants.isEmpty());
+    }
+
+    @Test
+    void testUnknownAndExpiredTokensAreRejected() {
+        DataAccessGrantStore store = createNode(false);
+        String token = store.issue(grant(System.currentTimeMillis() - 1));
+
+        assertNull(store.lookup(token));
+        assertNull(store.lookup("unknown"));
+        assertNull(store.lookup(null));
+    }
+
+    @Test
+    void testExpiredGrantsArePurged() {
+        DataAccessGrantStore store = createNode(false);
+        store.issue(grant(System.currentTimeMillis() - 1));
+        store.issue(grant(System.currentTimeMillis() + 60_000));
+
+        Map<?, ?> grants = (Map<?, ?>) ReflectionTestUtils.getField(store, "grants");
+        assertEquals(1, grants.size());
+    }
+
+    @Test
+    void testTokenOfOtherNodeIsAccepted() {
+        DataAccessGrantStore nodeA = createNode(true);
+        DataAccessGrantStore nodeB = createNode(true);
+        DataAccessGrant grant = grant(System.currentTimeMillis() + 60_000);
+        String token = nodeA.issue(grant);
+
+        assertEquals(grant, nodeB.lookup(token));
+        assertFalse(repository.grants.containsKey(token), "Tokens must only be stored as hashes");
+    }
+
+    private static class InMemoryDataAccessGrantRepository implements DataAccessGrantRepository {
+
+        private final Map<String, DataAccessGrant> grants = new ConcurrentHashMap<>();
+
+        @Override
+        public void storeGrant(String tokenHash, DataAccessGrant grant) {
+            grants.put(tokenHash, grant);
+        }
+
+        @Override
+        public DataAccessGrant findGrant(String tokenHash) {
+            return grants.get(tokenHash);
+        }
+
+        @Override
+        public void deleteAllByExpiresAtBefore(Instant threshold) {
+            grants.values().removeIf(grant -> grant.expiresAt() < threshold.toEpochMilli());
+        }
+    }
+}
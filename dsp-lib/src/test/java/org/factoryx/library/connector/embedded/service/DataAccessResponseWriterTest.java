@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.service.helpers.DataAccessResponseWriter;
+import org.factoryx.library.connector.embedded.provider.service.helpers.EncodedRepresentationCache;
+import org.factoryx.library.connector.embedded.provider.service.helpers.GzipRepresentationEncoder;
+import org.factoryx.library.connector.embedded.teststarter.SampleDataAsset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataAccessResponseWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EncodedRepresentationCache encodedRepresentationCache;
+    private DataAccessResponseWriter writer;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        encodedRepresentationCache = new EncodedRepresentationCache(List.of(new GzipRepresentationEncoder()));
+        writer = new DataAccessResponseWriter(encodedRepresentationCache);
+        ReflectionTestUtils.setField(writer, "useSendfile", true);
+        request = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        response = new MockHttpServletResponse();
+    }
+
+    private static DataAsset fileAsset(Path file) {
+        return new DataAsset() {
+            @Override
+            public String getDspId() {
+                return "file-asset";
+            }
+
+            @Override
+            public Map<String, String> getProperties() {
+                return Map.of();
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/octet-stream";
+            }
+
+            @Override
+            public byte[] getDtoRepresentation() {
+                throw new UnsupportedOperationException("must not be materialized");
+            }
+
+            @Override
+            public Path getDtoRepresentationFile() {
+                return file;
+            }
+        };
+    }
+
+    private Path createFile(int size) throws Exception {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        return Files.write(tempDir.resolve("asset.bin"), content);
+    }
+
+    @Test
+    void testDefaultAssetIsStreamed() throws Exception {
+        SampleDataAsset asset = new SampleDataAsset();
+        writer.write(asset, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertArrayEquals(asset.getDtoRepresentation(), response.getContentAsByteArray());
+    }
+
+    @Test
+    void testFileIsTransferredWithoutSendfile() throws Exception {
+        Path file = createFile(300_000);
+        writer.write(fileAsset(file), request, response);
+
+        assertEquals(300_000, response.getContentLengthLong());
+        assertArrayEquals(Files.readAllBytes(file), response.getContentAsByteArray());
+    }
+
+    @Test
+    void testFileIsHandedToContainerSendfile() throws Exception {
+        Path file = createFile(1000);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        writer.write(fileAsset(file), request, response);
+
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(1000L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(1000, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length, "Body must be left to the container");
+    }
+
+    @Test
+    void testSingleRange() throws Exception {
+        Path file = createFile(1000);
+        request.addHeader("Range", "bytes=100-199");
+        writer.write(fileAsset(file), request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertArrayEquals(Arrays.copyOfRange(Files.readAllBytes(file), 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    void testSuffixRangeWithSendfile() throws Exception {
+        Path file = createFile(1000);
+        request.addHeader("Range", "bytes=-100");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        writer.write(fileAsset(file), request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 900-999/1000", response.getHeader("Content-Range"));
+        assertEquals(900L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(1000L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void testMultipleRanges() throws Exception {
+        Path file = createFile(1000);
+        byte[] content = Files.readAllBytes(file);
+        request.addHeader("Range", "bytes=0-9,500-509");
+        writer.write(fileAsset(file), request, response);
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String boundary = response.getContentType().substring(response.getContentType().indexOf('=') + 1);
+        byte[] body = response.getContentAsByteArray();
+        assertEquals(body.length, response.getContentLengthLong());
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        assertTrue(text.contains("Content-Range: bytes 0-9/1000"));
+        assertTrue(text.contains("Content-Range: bytes 500-509/1000"));
+        assertTrue(text.contains(new String(Arrays.copyOfRange(content, 500, 510), StandardCharsets.ISO_8859_1)));
+        assertTrue(text.endsWith("--" + boundary + "--\r\n"));
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        Path file = createFile(1000);
+        request.addHeader("Range", "bytes=1000-");
+        writer.write(fileAsset(file), request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void testIfRange() throws Exception {
+        Path file = createFile(1000);
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"some-etag\"");
+        writer.write(fileAsset(file), request, response);
+        assertEquals(200, response.getStatus(), "Unknown validator must lead to the full representation");
+        assertEquals(1000, response.getContentAsByteArray().length);
+
+        MockHttpServletRequest resumeRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse resumeResponse = new MockHttpServletResponse();
+        resumeRequest.addHeader("Range", "bytes=0-9");
+        resumeRequest.addHeader("If-Range", response.getHeader("Last-Modified"));
+        writer.write(fileAsset(file), resumeRequest, resumeResponse);
+        assertEquals(206, resumeResponse.getStatus());
+
+        MockHttpServletRequest etagRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse etagResponse = new MockHttpServletResponse();
+        etagRequest.addHeader("Range", "bytes=0-9");
+        etagRequest.addHeader("If-Range", response.getHeader("ETag"));
+        writer.write(fileAsset(file), etagRequest, etagResponse);
+        assertEquals(206, etagResponse.getStatus());
+    }
+
+    /*
+     * tests for conditional requests
+     */
+    private static SampleDataAsset versionedAsset(String version, Instant lastModified) {
+        return new SampleDataAsset() {
+            @Override
+            public byte[] getDtoRepresentation() {
+                throw new UnsupportedOperationException("must not be materialized");
+            }
+
+            @Override
+            public String getVersion() {
+                return version;
+            }
+
+            @Override
+            public Instant getLastModified() {
+                return lastModified;
+            }
+        };
+    }
+
+    @Test
+    void testIfNoneMatchIsAnsweredWithoutRepresentation() throws Exception {
+        request.addHeader("If-None-Match", "\"v7\"");
+        writer.write(versionedAsset("v7", null), request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("\"v7\"", response.getHeader("ETag"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testIfModifiedSinceIsAnsweredWithoutRepresentation() throws Exception {
+        Instant lastModified = Instant.parse("2025-06-01T10:00:00Z");
+        request.addHeader("If-Modified-Since", "Sun, 01 Jun 2025 10:00:00 GMT");
+        writer.write(versionedAsset(null, lastModified), request, response);
+
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void testChangedFileIsSentAgain() throws Exception {
+        Path file = createFile(1000);
+        writer.write(fileAsset(file), request, response);
+        String etag = response.getHeader("ETag");
+        assertNotNull(etag);
+
+        MockHttpServletRequest pollRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse pollResponse = new MockHttpServletResponse();
+        pollRequest.addHeader("If-None-Match", etag);
+        writer.write(fileAsset(file), pollRequest, pollResponse);
+        assertEquals(304, pollResponse.getStatus());
+
+        Files.write(file, new byte[10]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        MockHttpServletRequest changedRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse changedResponse = new MockHttpServletResponse();
+        changedRequest.addHeader("If-None-Match", etag);
+        writer.write(fileAsset(file), changedRequest, changedResponse);
+        assertEquals(200, changedResponse.getStatus());
+        assertEquals(10, changedResponse.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testRangeOnSeekableChannel() throws Exception {
+        byte[] content = Files.readAllBytes(createFile(1000));
+        SampleDataAsset asset = new SampleDataAsset() {
+            @Override
+            public long getDtoRepresentationLength() {
+                return content.length;
+            }
+
+            @Override
+            public ReadableByteChannel openDtoRepresentationChannel() throws IOException {
+                return Files.newByteChannel(tempDir.resolve("asset.bin"));
+            }
+        };
+        request.addHeader("Range", "bytes=990-");
+        writer.write(asset, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(content, 990, 1000), response.getContentAsByteArray());
+    }
+
+    /*
+     * tests for content negotiation
+     */
+    private static SampleDataAsset compressibleAsset(byte[] content, AtomicInteger reads) {
+        return new SampleDataAsset() {
+            @Override
+            public byte[] getDtoRepresentation() {
+                reads.incrementAndGet();
+                return content;
+            }
+
+            @Override
+            public String getVersion() {
+                return "v1";
+            }
+        };
+    }
+
+    private static byte[] jsonContent() {
+        return ("[" + "{\"id\": 1, \"name\": \"sensor\", \"value\": 42.0},".repeat(500) + "{}]").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testGzipVariantIsEncodedOnce() throws Exception {
+        ReflectionTestUtils.setField(encodedRepresentationCache, "enabled", true);
+        byte[] content = jsonContent();
+        AtomicInteger reads = new AtomicInteger();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        writer.write(compressibleAsset(content, reads), request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("\"v1-gzip\"", response.getHeader("ETag"));
+        assertTrue(response.getContentAsByteArray().length < content.length / 5);
+        assertEquals(response.getContentAsByteArray().length, response.getContentLengthLong());
+        try (GZIPInputStream decoded = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertArrayEquals(content, decoded.readAllBytes());
+        }
+
+        MockHttpServletRequest secondRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        secondRequest.addHeader("Accept-Encoding", "gzip");
+        writer.write(compressibleAsset(content, reads), secondRequest, secondResponse);
+        assertArrayEquals(response.getContentAsByteArray(), secondResponse.getContentAsByteArray());
+        assertEquals(1, reads.get(), "Variant must be encoded only once per version");
+    }
+
+    @Test
+    void testGzipVariantIsRevalidatedByItsOwnEtag() throws Exception {
+        ReflectionTestUtils.setField(encodedRepresentationCache, "enabled", true);
+        AtomicInteger reads = new AtomicInteger();
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("If-None-Match", "\"v1-gzip\"");
+        writer.write(compressibleAsset(jsonContent(), reads), request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        // the variant has to be known before its entity tag is compared, but it is only encoded once
+        assertEquals(1, reads.get());
+
+        MockHttpServletRequest secondRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        secondRequest.addHeader("Accept-Encoding", "gzip");
+        secondRequest.addHeader("If-None-Match", "\"v1-gzip\"");
+        writer.write(compressibleAsset(jsonContent(), reads), secondRequest, secondResponse);
+        assertEquals(304, secondResponse.getStatus());
+        assertEquals(1, reads.get());
+
+        MockHttpServletRequest identityRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse identityResponse = new MockHttpServletResponse();
+        identityRequest.addHeader("If-None-Match", "\"v1-gzip\"");
+        writer.write(compressibleAsset(jsonContent(), reads), identityRequest, identityResponse);
+        assertEquals(200, identityResponse.getStatus(), "The identity representation has another entity tag");
+    }
+
+    @Test
+    void testIdentityIsSentIfGzipIsNotAccepted() throws Exception {
+        ReflectionTestUtils.setField(encodedRepresentationCache, "enabled", true);
+        byte[] content = jsonContent();
+        request.addHeader("Accept-Encoding", "gzip;q=0, identity");
+        writer.write(compressibleAsset(content, new AtomicInteger()), request, response);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("\"v1\"", response.getHeader("ETag"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testIncompressibleRepresentationIsValidatedByIdentityEtag() throws Exception {
+        ReflectionTestUtils.setField(encodedRepresentationCache, "enabled", true);
+        byte[] content = new byte[16 * 1024];
+        new Random(42).nextBytes(content);
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("If-None-Match", "\"v1-gzip\"");
+        writer.write(compressibleAsset(content, new AtomicInteger()), request, response);
+
+        assertEquals(200, response.getStatus(), "There is no gzip variant, that could match");
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("\"v1\"", response.getHeader("ETag"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testTooLargeRepresentationOfUnknownLengthIsReadOnlyOnceForEncoding() throws Exception {
+        ReflectionTestUtils.setField(encodedRepresentationCache, "enabled", true);
+        ReflectionTestUtils.setField(encodedRepresentationCache, "maxSize", DataSize.ofKilobytes(4));
+        byte[] content = jsonContent();
+        AtomicInteger reads = new AtomicInteger();
+        request.addHeader("Accept-Encoding", "gzip");
+        writer.write(compressibleAsset(content, reads), request, response);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+
+        MockHttpServletRequest secondRequest = new MockHttpServletRequest("GET", "/dsp/data-access/asset");
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        secondRequest.addHeader("Accept-Encoding", "gzip");
+        writer.write(compressibleAsset(content, reads), secondRequest, secondResponse);
+        assertNull(secondResponse.getHeader("Content-Encoding"));
+        assertArrayEquals(content, secondResponse.getContentAsByteArray());
+        // one attempt to encode and one identity representation per request
+        assertEquals(3, reads.get());
+    }
+}
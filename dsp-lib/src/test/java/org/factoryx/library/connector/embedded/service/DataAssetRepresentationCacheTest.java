@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAssetManagementService;
+import org.factoryx.library.connector.embedded.provider.service.helpers.DataAssetRepresentationCache;
+import org.factoryx.library.connector.embedded.teststarter.SampleDataAsset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DataAssetRepresentationCacheTest {
+
+    @Mock
+    private DataAssetManagementService dataAssetManagementService;
+    @Mock
+    private ExecutorService executorService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DataAssetRepresentationCache cache;
+    private final AtomicInteger representationCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // background refreshes run inline
+        when(executorService.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return CompletableFuture.completedFuture(null);
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DataAssetRepresentationCache(dataAssetManagementService, executorService, Optional.of(meterRegistry));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+    }
+
+    private DataAsset asset(int size, Duration ttl) {
+        return new SampleDataAsset() {
+            @Override
+            public byte[] getDtoRepresentation() {
+                representationCalls.incrementAndGet();
+                return new byte[size];
+            }
+
+            @Override
+            public Duration getDtoRepresentationCacheTtl() {
+                return ttl;
+            }
+        };
+    }
+
+    private double count(String result) {
+        var counter = meterRegistry.find("dsp.dataaccess.cache").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void testRepresentationIsCached() {
+        when(dataAssetManagementService.getById("a")).thenReturn(asset(100, null));
+
+        DataAsset first = cache.getById("a");
+        DataAsset second = cache.getById("a");
+
+        assertSame(first, second);
+        assertEquals(1, representationCalls.get());
+        assertEquals(100, first.getDtoRepresentationLength());
+        assertNotNull(first.getVersion(), "A content hash should be used as version");
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("hit"));
+        assertEquals(100, meterRegistry.get("dsp.dataaccess.cache.weight").gauge().value());
+    }
+
+    @Test
+    void testDisabledCacheDelegates() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        DataAsset asset = asset(100, null);
+        when(dataAssetManagementService.getById("a")).thenReturn(asset);
+
+        assertSame(asset, cache.getById("a"));
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void testZeroTtlIsNotCached() {
+        when(dataAssetManagementService.getById("a")).thenReturn(asset(100, Duration.ZERO));
+        cache.getById("a");
+        cache.getById("a");
+        verify(dataAssetManagementService, times(2)).getById("a");
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvictedByWeight() {
+        ReflectionTestUtils.setField(cache, "maxWeight", DataSize.ofBytes(1000));
+        when(dataAssetManagementService.getById(anyString())).thenAnswer(invocation -> asset(200, null));
+        for (String id : List.of("a", "b", "c", "d", "e")) {
+            cache.getById(id);
+        }
+        cache.getById("a");
+        cache.getById("f");
+
+        assertEquals(1000, cache.getWeight());
+        assertEquals(1, count("eviction"));
+        cache.getById("a");
+        cache.getById("b");
+        verify(dataAssetManagementService, times(1)).getById("a");
+        verify(dataAssetManagementService, times(2)).getById("b");
+    }
+
+    @Test
+    void testRefreshAhead() {
+        ReflectionTestUtils.setField(cache, "refreshAhead", 0.0);
+        when(dataAssetManagementService.getById("a")).thenReturn(asset(100, Duration.ofMinutes(1)));
+        cache.getById("a");
+        cache.getById("a");
+
+        assertEquals(1, count("refresh"));
+        assertEquals(2, representationCalls.get());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(dataAssetManagementService.getById("a")).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return asset(100, null);
+        });
+        List<Future<DataAsset>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.getById("a")));
+            }
+            Thread.sleep(200);
+            release.countDown();
+        }
+        for (Future<DataAsset> result : results) {
+            assertNotNull(result.get());
+        }
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DcpValidationMetrics;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DcpValidationStep;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DcpValidationMetricsTest {
+
+    private static final String PARTNER_DID = "did:web:partner";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DcpValidationMetrics metrics = new DcpValidationMetrics(Optional.of(meterRegistry));
+
+    private void recordStep(String partnerDid) {
+        metrics.recordStep(DcpValidationStep.SIGNATURE, "test", partnerDid, DcpValidationMetrics.SUCCESS, 1000);
+    }
+
+    @Test
+    void testPartnerTagIsDisabledByDefault() {
+        metrics.markVerified(PARTNER_DID);
+        recordStep(PARTNER_DID);
+
+        assertEquals(1, meterRegistry.get("dsp.token.validation.step").tag("partner", "all").timer().count());
+    }
+
+    @Test
+    void testOnlyVerifiedPartnersAreTagged() {
+        ReflectionTestUtils.setField(metrics, "tagPartner", true);
+        for (int i = 0; i < 100; i++) {
+            recordStep("did:web:forged-" + i);
+        }
+        recordStep(PARTNER_DID);
+        metrics.markVerified(PARTNER_DID);
+        recordStep(PARTNER_DID);
+
+        assertEquals(101, meterRegistry.get("dsp.token.validation.step").tag("partner", "unverified").timer().count());
+        assertEquals(1, meterRegistry.get("dsp.token.validation.step").tag("partner", PARTNER_DID).timer().count());
+        assertEquals(2, meterRegistry.find("dsp.token.validation.step").timers().size());
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DcpValidationMetrics;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DidDocumentResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DidDocumentResolverTest {
+
+    private static final String PARTNER_DID = "did:web:partner";
+
+    private RestClient restClient;
+    private SimpleMeterRegistry meterRegistry;
+    private DidDocumentResolver resolver;
+    private ECKey firstKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        restClient = mock(RestClient.class, RETURNS_DEEP_STUBS);
+        meterRegistry = new SimpleMeterRegistry();
+        resolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.of(meterRegistry)));
+        firstKey = new ECKeyGenerator(Curve.P_256).keyID(PARTNER_DID + "#key-1").generate();
+        publishDidDocument(firstKey);
+    }
+
+    private void publishDidDocument(ECKey... keys) {
+        JsonArrayBuilder verificationMethods = Json.createArrayBuilder();
+        for (ECKey key : keys) {
+            verificationMethods.add(Json.createObjectBuilder()
+                    .add("id", key.getKeyID())
+                    .add("type", "JsonWebKey2020")
+                    .add("publicKeyJwk", parse(key.toPublicJWK().toJSONString())));
+        }
+        String didDocument = Json.createObjectBuilder()
+                .add("id", PARTNER_DID)
+                .add("verificationMethod", verificationMethods)
+                .build().toString();
+        when(restClient.get().uri(any(URI.class)).retrieve().onStatus(any(), any()).onStatus(any(), any()).body(String.class))
+                .thenReturn(didDocument);
+        clearInvocations(restClient);
+    }
+
+    private SignedJWT signedToken(ECKey key, String keyId) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256).keyID(keyId).build(),
+                new JWTClaimsSet.Builder().subject(PARTNER_DID).build());
+        jwt.sign(new ECDSASigner(key));
+        return jwt;
+    }
+
+    @Test
+    void testKnownKeyIsResolvedOnce() throws Exception {
+        assertTrue(resolver.verifyTokenSignature(signedToken(firstKey, firstKey.getKeyID()), PARTNER_DID, "https://"));
+        assertTrue(resolver.verifyTokenSignature(signedToken(firstKey, firstKey.getKeyID()), PARTNER_DID, "https://"));
+        verify(restClient, times(1)).get();
+    }
+
+    @Test
+    void testUnknownKeyIdIsNegativelyCached() throws Exception {
+        ReflectionTestUtils.setField(resolver, "minRefreshInterval", Duration.ZERO);
+        String unknownKeyId = PARTNER_DID + "#unknown";
+        assertFalse(resolver.verifyTokenSignature(signedToken(firstKey, unknownKeyId), PARTNER_DID, "https://"));
+        assertFalse(resolver.verifyTokenSignature(signedToken(firstKey, unknownKeyId), PARTNER_DID, "https://"));
+        assertFalse(resolver.verifyTokenSignature(signedToken(firstKey, unknownKeyId), PARTNER_DID, "https://"));
+        verify(restClient, times(1)).get();
+    }
+
+    @Test
+    void testRandomKeyIdsAreRateLimited() throws Exception {
+        assertTrue(resolver.verifyTokenSignature(signedToken(firstKey, firstKey.getKeyID()), PARTNER_DID, "https://"));
+        for (int i = 0; i < 20; i++) {
+            String randomKeyId = PARTNER_DID + "#" + UUID.randomUUID();
+            assertFalse(resolver.verifyTokenSignature(signedToken(firstKey, randomKeyId), PARTNER_DID, "https://"));
+        }
+        // the initial resolution and a single refresh, all further refreshes are suppressed by the rate limit
+        verify(restClient, times(2)).get();
+    }
+
+    @Test
+    void testFirstFetchDoesNotCountAgainstRefreshLimit() throws Exception {
+        assertTrue(resolver.verifyTokenSignature(signedToken(firstKey, firstKey.getKeyID()), PARTNER_DID, "https://"));
+
+        ECKey secondKey = new ECKeyGenerator(Curve.P_256).keyID(PARTNER_DID + "#key-2").generate();
+        publishDidDocument(secondKey);
+        assertTrue(resolver.verifyTokenSignature(signedToken(secondKey, secondKey.getKeyID()), PARTNER_DID, "https://"),
+                "A key rotation right after the first fetch should be picked up");
+    }
+
+    @Test
+    void testKeyRotationIsPickedUp() throws Exception {
+        ReflectionTestUtils.setField(resolver, "minRefreshInterval", Duration.ZERO);
+        assertTrue(resolver.verifyTokenSignature(signedToken(firstKey, firstKey.getKeyID()), PARTNER_DID, "https://"));
+
+        ECKey secondKey = new ECKeyGenerator(Curve.P_256).keyID(PARTNER_DID + "#key-2").generate();
+        publishDidDocument(secondKey);
+        assertTrue(resolver.verifyTokenSignature(signedToken(secondKey, secondKey.getKeyID()), PARTNER_DID, "https://"),
+                "New key should be found after refresh");
+        assertFalse(resolver.verifyTokenSignature(signedToken(firstKey, firstKey.getKeyID()), PARTNER_DID, "https://"),
+                "Rotated-out key should no longer be accepted");
+    }
+
+    @Test
+    void testDidFetchAndCacheLookupsAreMeasured() {
+        assertNotNull(resolver.retrieveDidDocFromCacheOrFetch(PARTNER_DID, "https://"));
+        assertNotNull(resolver.retrieveDidDocFromCacheOrFetch(PARTNER_DID, "https://"));
+
+        assertEquals(1, meterRegistry.get("dsp.token.validation.did.fetch").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("dsp.token.validation.cache").tag("cache", "diddocument").tag("result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get("dsp.token.validation.cache").tag("cache", "diddocument").tag("result", "hit").counter().count());
+    }
+}
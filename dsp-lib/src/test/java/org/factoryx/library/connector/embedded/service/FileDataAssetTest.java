@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.service.fileassets.DirectoryDataAssetManagementService;
+import org.factoryx.library.connector.embedded.provider.service.fileassets.FileDataAsset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileDataAssetTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DirectoryDataAssetManagementService managementService;
+
+    @AfterEach
+    void tearDown() {
+        if (managementService != null) {
+            ReflectionTestUtils.invokeMethod(managementService, "shutdown");
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void testRepresentationAndMetadata() throws Exception {
+        byte[] content = randomBytes(100_000);
+        Path file = Files.write(tempDir.resolve("report.pdf"), content);
+        FileDataAsset asset = new FileDataAsset(file);
+
+        assertEquals(FileDataAsset.dspIdForFileName("report.pdf"), asset.getDspId());
+        assertEquals("report.pdf", asset.getNativeId());
+        assertEquals("application/pdf", asset.getContentType());
+        assertEquals("report.pdf", asset.getProperties().get("name"));
+        assertEquals(file, asset.getDtoRepresentationFile());
+        assertEquals(content.length, asset.getDtoRepresentationLength());
+        assertEquals(Duration.ZERO, asset.getDtoRepresentationCacheTtl());
+        assertArrayEquals(content, asset.getDtoRepresentation());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), asset.getVersion());
+    }
+
+    @Test
+    void testUnknownContentType() throws Exception {
+        Path file = Files.write(tempDir.resolve("model.xyz123"), new byte[]{1, 2, 3});
+        assertEquals("application/octet-stream", new FileDataAsset(file).getContentType());
+    }
+
+    @Test
+    void testContentHashFollowsChanges() throws Exception {
+        Path file = Files.write(tempDir.resolve("log.txt"), "first".getBytes());
+        FileDataAsset asset = new FileDataAsset(file);
+        String firstVersion = asset.getVersion();
+        assertEquals(firstVersion, asset.getVersion());
+
+        Path replacement = Files.write(tempDir.resolve(".log.txt.tmp"), "second".getBytes());
+        Files.setLastModifiedTime(replacement, FileTime.from(Instant.now().plusSeconds(10)));
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        assertNotEquals(firstVersion, asset.getVersion());
+        assertArrayEquals("second".getBytes(), asset.getDtoRepresentation());
+    }
+
+    @Test
+    void testMappedChannelSupportsPositioning() throws Exception {
+        byte[] content = randomBytes(10_000);
+        Path file = Files.write(tempDir.resolve("data.bin"), content);
+        try (SeekableByteChannel channel = new FileDataAsset(file).openDtoRepresentationChannel()) {
+            assertEquals(content.length, channel.size());
+            channel.position(9_000);
+            ByteBuffer buffer = ByteBuffer.allocate(2_000);
+            assertEquals(1_000, channel.read(buffer));
+            assertArrayEquals(Arrays.copyOfRange(content, 9_000, 10_000), Arrays.copyOf(buffer.array(), 1_000));
+            assertEquals(-1, channel.read(buffer.clear()));
+
+            channel.position(0);
+            buffer.clear().limit(10);
+            assertEquals(10, channel.read(buffer));
+            assertArrayEquals(Arrays.copyOf(content, 10), Arrays.copyOf(buffer.array(), 10));
+        }
+    }
+
+    @Test
+    void testDirectoryIsScannedAndWatched() throws Exception {
+        Files.write(tempDir.resolve("a.csv"), "a".getBytes());
+        Files.write(tempDir.resolve(".hidden"), "h".getBytes());
+        Files.createDirectory(tempDir.resolve("sub"));
+        managementService = new DirectoryDataAssetManagementService(tempDir);
+        ReflectionTestUtils.invokeMethod(managementService, "init");
+
+        String idA = FileDataAsset.dspIdForFileName("a.csv");
+        String idB = FileDataAsset.dspIdForFileName("b.csv");
+        assertEquals(1, managementService.getAll(Map.of()).size());
+        DataAsset assetA = managementService.getByIdForProperties(idA, Map.of());
+        assertNotNull(assetA);
+        assertArrayEquals("a".getBytes(), assetA.getDtoRepresentation());
+        assertNull(managementService.getById(FileDataAsset.dspIdForFileName(".hidden")));
+
+        Files.write(tempDir.resolve("b.csv"), "b".getBytes());
+        await(() -> managementService.getById(idB) != null);
+
+        Files.delete(tempDir.resolve("a.csv"));
+        await(() -> managementService.getById(idA) == null);
+        assertEquals(1, managementService.getAll(Map.of()).size());
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.factoryx.library.connector.embedded.provider.interfaces.DataAsset;
+import org.factoryx.library.connector.embedded.provider.interfaces.DspTokenProviderService;
+import org.factoryx.library.connector.embedded.provider.model.DspVersion;
+import org.factoryx.library.connector.embedded.provider.model.transfer.TransferRecord;
+import org.factoryx.library.connector.embedded.provider.model.transfer.TransferState;
+import org.factoryx.library.connector.embedded.provider.service.HttpPushTransferService;
+import org.factoryx.library.connector.embedded.provider.service.TransferRecordService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class HttpPushTransferServiceTest {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private HttpServer consumer;
+    private ExecutorService executorService;
+    private TransferRecordService transferRecordService;
+    private HttpPushTransferService httpPushTransferService;
+    private TransferRecord transferRecord;
+
+    /**
+     * The received chunks by their start position
+     */
+    private final Map<Long, byte[]> chunks = new ConcurrentHashMap<>();
+    private final List<String> dspMessages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresToSimulate = new AtomicInteger();
+    private final AtomicInteger uploadRequests = new AtomicInteger();
+    private volatile boolean suspendOnFailure;
+    private volatile String receivedAuthorization;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        consumer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        consumer.createContext("/upload", exchange -> {
+            uploadRequests.incrementAndGet();
+            receivedAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            if (failuresToSimulate.getAndDecrement() > 0) {
+                if (suspendOnFailure) {
+                    // the consumer suspends the transfer in the meantime
+                    transferRecord.setState(TransferState.SUSPENDED);
+                }
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            Matcher matcher = CONTENT_RANGE.matcher(exchange.getRequestHeaders().getFirst("Content-Range"));
+            assertTrue(matcher.matches());
+            long start = Long.parseLong(matcher.group(1));
+            assertEquals(Long.parseLong(matcher.group(2)) - start + 1, body.length);
+            chunks.put(start, body);
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        consumer.createContext("/dsp", exchange -> {
+            dspMessages.add(exchange.getRequestURI().getPath());
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        consumer.start();
+
+        transferRecord = new TransferRecord() {};
+        transferRecord.setOwnPid(UUID.randomUUID());
+        transferRecord.setConsumerPid("consumer-pid");
+        transferRecord.setPartnerDspUrl(baseUrl() + "/dsp");
+        transferRecord.setFormat(TransferRecord.HTTP_PUSH);
+        transferRecord.setDatasetAddressUrl(baseUrl() + "/upload");
+        transferRecord.setDatasetAddressAuthorization("consumer-secret");
+        transferRecord.setPushedBytes(0L);
+        transferRecord.setState(TransferState.STARTED);
+
+        // an in-memory transfer record
+        transferRecordService = mock(TransferRecordService.class);
+        when(transferRecordService.findByTransferRecordId(transferRecord.getOwnPid())).thenReturn(transferRecord);
+        when(transferRecordService.updateTransferRecordState(eq(transferRecord.getOwnPid()), any())).thenAnswer(invocation -> {
+            transferRecord.setState(invocation.getArgument(1));
+            return transferRecord;
+        });
+        doAnswer(invocation -> {
+            transferRecord.setPushedBytes(Math.max(transferRecord.getPushedBytes(), invocation.<Long>getArgument(1)));
+            return null;
+        }).when(transferRecordService).updatePushedBytes(eq(transferRecord.getOwnPid()), anyLong());
+
+        DspTokenProviderService dspTokenProviderService = mock(DspTokenProviderService.class);
+        when(dspTokenProviderService.provideTokenForPartner(any(TransferRecord.class))).thenReturn("dsp-token");
+
+        executorService = Executors.newCachedThreadPool();
+        httpPushTransferService = new HttpPushTransferService(transferRecordService, executorService,
+                RestClient.create(), dspTokenProviderService);
+        ReflectionTestUtils.setField(httpPushTransferService, "chunkSize", DataSize.ofBytes(CHUNK_SIZE));
+        ReflectionTestUtils.setField(httpPushTransferService, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.invokeMethod(httpPushTransferService, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.stop(0);
+        executorService.shutdownNow();
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + consumer.getAddress().getPort();
+    }
+
+    private static DataAsset dataAsset(byte[] content) {
+        return new DataAsset() {
+            @Override
+            public String getDspId() {
+                return "push-asset";
+            }
+
+            @Override
+            public Map<String, String> getProperties() {
+                return Map.of();
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/octet-stream";
+            }
+
+            @Override
+            public byte[] getDtoRepresentation() {
+                return content;
+            }
+        };
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(3).nextBytes(bytes);
+        return bytes;
+    }
+
+    private byte[] reassemble() {
+        byte[] result = new byte[0];
+        for (long start = 0; chunks.containsKey(start); start = result.length) {
+            byte[] chunk = chunks.get(start);
+            result = Arrays.copyOf(result, result.length + chunk.length);
+            System.arraycopy(chunk, 0, result, result.length - chunk.length, chunk.length);
+        }
+        return result;
+    }
+
+    @Test
+    void testChunksAreUploadedWithRetries() {
+        byte[] content = randomBytes(10 * CHUNK_SIZE + 123);
+        failuresToSimulate.set(3);
+
+        httpPushTransferService.push(transferRecord.getOwnPid(), dataAsset(content), DspVersion.V_2025_1);
+
+        assertEquals(11, chunks.size());
+        assertArrayEquals(content, reassemble());
+        assertEquals("consumer-secret", receivedAuthorization);
+        assertEquals(content.length, transferRecord.getPushedBytes());
+        assertEquals(TransferState.COMPLETED, transferRecord.getState());
+        assertEquals(List.of("/dsp/transfers/consumer-pid/completion"), dspMessages);
+    }
+
+    @Test
+    void testResumedTransferStartsAtCheckpoint() {
+        byte[] content = randomBytes(4 * CHUNK_SIZE);
+        transferRecord.setPushedBytes(2L * CHUNK_SIZE);
+
+        httpPushTransferService.push(transferRecord.getOwnPid(), dataAsset(content), DspVersion.V_2025_1);
+
+        assertEquals(Set.of(2L * CHUNK_SIZE, 3L * CHUNK_SIZE), chunks.keySet());
+        assertArrayEquals(Arrays.copyOfRange(content, 2 * CHUNK_SIZE, 3 * CHUNK_SIZE), chunks.get(2L * CHUNK_SIZE));
+        assertArrayEquals(Arrays.copyOfRange(content, 3 * CHUNK_SIZE, 4 * CHUNK_SIZE), chunks.get(3L * CHUNK_SIZE));
+        assertEquals(content.length, transferRecord.getPushedBytes());
+        assertEquals(TransferState.COMPLETED, transferRecord.getState());
+    }
+
+    @Test
+    void testFailedUploadSuspendsTransfer() {
+        byte[] content = randomBytes(3 * CHUNK_SIZE);
+        ReflectionTestUtils.setField(httpPushTransferService, "maxRetries", 1);
+        ReflectionTestUtils.setField(httpPushTransferService, "parallelism", 1);
+        failuresToSimulate.set(Integer.MAX_VALUE);
+
+        httpPushTransferService.push(transferRecord.getOwnPid(), dataAsset(content), DspVersion.V_2025_1);
+
+        assertTrue(chunks.isEmpty());
+        assertEquals(0L, transferRecord.getPushedBytes());
+        assertEquals(TransferState.SUSPENDED, transferRecord.getState());
+        assertEquals(List.of("/dsp/transfers/consumer-pid/suspension"), dspMessages);
+    }
+
+    @Test
+    void testChunkIsNotRetriedAfterSuspension() {
+        byte[] content = randomBytes(3 * CHUNK_SIZE);
+        ReflectionTestUtils.setField(httpPushTransferService, "parallelism", 1);
+        failuresToSimulate.set(Integer.MAX_VALUE);
+        suspendOnFailure = true;
+
+        httpPushTransferService.push(transferRecord.getOwnPid(), dataAsset(content), DspVersion.V_2025_1);
+
+        assertEquals(1, uploadRequests.get());
+        assertTrue(chunks.isEmpty());
+        assertEquals(TransferState.SUSPENDED, transferRecord.getState());
+        assertTrue(dspMessages.isEmpty(), "The provider must not notify the consumer about its own suspension");
+    }
+
+    @Test
+    void testSuspendedTransferIsNotUploaded() {
+        transferRecord.setState(TransferState.SUSPENDED);
+
+        httpPushTransferService.push(transferRecord.getOwnPid(), dataAsset(randomBytes(CHUNK_SIZE)), DspVersion.V_2025_1);
+
+        assertTrue(chunks.isEmpty());
+        assertEquals(TransferState.SUSPENDED, transferRecord.getState());
+        verify(transferRecordService, never()).updatePushedBytes(any(), anyLong());
+    }
+}
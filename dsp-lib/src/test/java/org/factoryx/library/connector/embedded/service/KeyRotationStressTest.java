@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import org.factoryx.library.connector.embedded.provider.service.AuthorizationService;
+import org.factoryx.library.connector.embedded.provider.service.DataAccessGrantStore;
+import org.factoryx.library.connector.embedded.provider.service.SigningKeyring;
+import org.factoryx.library.connector.embedded.provider.service.helpers.EnvService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress tests for the lock-free key rotation. Each round releases all threads at the same time via a
+ * barrier, so that rotation, signing and validation actually interleave, and then checks invariants that
+ * must hold for every possible interleaving.
+ */
+public class KeyRotationStressTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 200;
+    private static final String CONTRACT_ID = "57e5f3ac-c1ef-4361-89c9-71c51c18f089";
+    private static final String DATA_ADDRESS = "http://localhost:8080/path/to/data-asset";
+
+    @Mock
+    private EnvService envService;
+    @Mock
+    private ExecutorService executorService;
+    private SigningKeyring signingKeyring;
+    private AuthorizationService authService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(envService.getSingleAssetReadOnlyDataAccessIssuer()).thenReturn("test-issuer");
+        signingKeyring = new SigningKeyring(Optional.empty(), executorService);
+        authService = new AuthorizationService(envService, signingKeyring, new DataAccessGrantStore(Optional.empty(), executorService));
+    }
+
+    @SuppressWarnings("unchecked")
+    private SigningKeyring.Keyring keyring() {
+        return ((AtomicReference<SigningKeyring.Keyring>) ReflectionTestUtils.getField(signingKeyring, "keyring")).get();
+    }
+
+    /**
+     * Runs the given action on all threads per round, each round starting simultaneously.
+     */
+    private <T> List<T> runRounds(Callable<T> action) throws Exception {
+        List<T> results = new ArrayList<>();
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int round = 0; round < ROUNDS; round++) {
+                List<Future<T>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(pool.submit(() -> {
+                        barrier.await(10, TimeUnit.SECONDS);
+                        return action.call();
+                    }));
+                }
+                for (Future<T> future : futures) {
+                    results.add(future.get());
+                }
+            }
+        }
+        return results;
+    }
+
+    @Test
+    void testNoRotationIsLost() throws Exception {
+        signingKeyring.currentKey();
+        runRounds(() -> {
+            signingKeyring.rotate();
+            return null;
+        });
+        assertEquals(1 + THREADS * ROUNDS, keyring().keys().size(), "Every rotation must add exactly one key");
+    }
+
+    @Test
+    void testTokensSignedDuringRotationAreValid() throws Exception {
+        List<String> tokens = runRounds(() -> {
+            if (ThreadLocalRandom.current().nextInt(4) == 0) {
+                signingKeyring.rotate();
+            }
+            String token = authService.issueDataAccessToken(CONTRACT_ID, DATA_ADDRESS);
+            assertTrue(authService.validateToken(token), "Token must be valid right after issuance");
+            return token;
+        });
+        for (String token : tokens) {
+            assertTrue(authService.validateToken(token), "Token must remain valid after all rotations");
+        }
+    }
+
+    @Test
+    void testKeysHandedOutDuringScheduledRotationRemainUsable() throws Exception {
+        signingKeyring.currentKey();
+        ReflectionTestUtils.setField(signingKeyring, "keyRotationInterval", Duration.ZERO);
+        Set<String> kids = ConcurrentHashMap.newKeySet();
+        runRounds(() -> kids.add(signingKeyring.currentKey().kid()));
+        SigningKeyring.Keyring keyring = keyring();
+        assertTrue(keyring.keys().keySet().containsAll(kids), "Every key handed out must remain usable for verification");
+        assertSame(keyring.current(), keyring.keys().get(keyring.current().kid()));
+    }
+}
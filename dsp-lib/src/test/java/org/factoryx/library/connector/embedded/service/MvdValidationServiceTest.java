@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.mvdvalidation.MvdValidationService;
+import org.junit.jupiter.api.Test;
+
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MvdValidationServiceTest {
+
+    @Test
+    void testPresentationQueryRequestsMembershipCredential() {
+        MvdValidationService validationService = new MvdValidationService(null, null, null);
+
+        JsonObject expected = Json.createObjectBuilder()
+                .add("@context", Json.createArrayBuilder()
+                        .add("https://identity.foundation/presentation-exchange/submission/v1")
+                        .add("https://w3id.org/tractusx-trust/v0.8"))
+                .add("@type", "PresentationQueryMessage")
+                .add("scope", Json.createArrayBuilder().add("org.eclipse.edc.vc.type:MembershipCredential:read"))
+                .build();
+        assertEquals(expected, parse(validationService.createPresentationQuery()));
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.factoryx.library.connector.embedded.service;
 
+import org.factoryx.library.connector.embedded.provider.model.negotiation.ContractProjection;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationRecord;
 import org.factoryx.library.connector.embedded.provider.model.negotiation.NegotiationState;
 import org.factoryx.library.connector.embedded.provider.repository.NegotiationRecordRepository;
@@ -26,11 +27,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class NegotiationRecordServiceTest {
@@ -147,4 +151,57 @@ public class NegotiationRecordServiceTest {
         assertEquals(CONTRACT_ID, foundRecord.getContractId());
     }
 
+    @Test
+    void testFindContract_FinalizedContractIsServedFromMemory() {
+        mockRecord.setState(NegotiationState.FINALIZED);
+
+        ContractProjection first = negotiationRecordService.findContract(CONTRACT_ID);
+        ContractProjection second = negotiationRecordService.findContract(CONTRACT_ID);
+
+        assertEquals(new ContractProjection(CONTRACT_ID, TARGET_ASSET_ID, PARTNER_ID, NegotiationState.FINALIZED), first);
+        assertEquals(first, second);
+        verify(repository, times(1)).findAllByContractId(CONTRACT_ID);
+    }
+
+    @Test
+    void testFindContract_OtherStatesAreNotCached() {
+        mockRecord.setState(NegotiationState.AGREED);
+
+        assertEquals(NegotiationState.AGREED, negotiationRecordService.findContract(CONTRACT_ID).state());
+        assertEquals(NegotiationState.AGREED, negotiationRecordService.findContract(CONTRACT_ID).state());
+
+        verify(repository, times(2)).findAllByContractId(CONTRACT_ID);
+    }
+
+    @Test
+    void testFindContract_StateChangeUpdatesProjection() {
+        mockRecord.setState(NegotiationState.VERIFIED);
+        negotiationRecordService.updateNegotiationRecordToState(RECORD_ID, NegotiationState.FINALIZED);
+
+        assertEquals(NegotiationState.FINALIZED, negotiationRecordService.findContract(CONTRACT_ID).state());
+        verify(repository, times(0)).findAllByContractId(CONTRACT_ID);
+
+        negotiationRecordService.updateNegotiationRecordToState(RECORD_ID, NegotiationState.TERMINATED);
+
+        assertEquals(NegotiationState.TERMINATED, negotiationRecordService.findContract(CONTRACT_ID).state());
+        verify(repository, times(1)).findAllByContractId(CONTRACT_ID);
+    }
+
+    @Test
+    void testFindContract_CacheIsBounded() {
+        ReflectionTestUtils.setField(negotiationRecordService, "contractCacheMaxSize", 1);
+        mockRecord.setState(NegotiationState.FINALIZED);
+        UUID otherContractId = UUID.randomUUID();
+        NegotiationRecord otherRecord = new NegotiationRecord(){};
+        otherRecord.setContractId(otherContractId);
+        otherRecord.setState(NegotiationState.FINALIZED);
+        when(repository.findAllByContractId(otherContractId)).thenReturn((List) List.of(otherRecord));
+
+        negotiationRecordService.findContract(CONTRACT_ID);
+        negotiationRecordService.findContract(otherContractId);
+        negotiationRecordService.findContract(CONTRACT_ID);
+
+        verify(repository, times(2)).findAllByContractId(CONTRACT_ID);
+    }
+
 }
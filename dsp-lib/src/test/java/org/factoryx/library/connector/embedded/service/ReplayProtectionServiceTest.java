@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import org.factoryx.library.connector.embedded.provider.repository.ReplayCacheRepository;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.ReplayProtectionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReplayProtectionServiceTest {
+
+    @Mock
+    private ReplayCacheRepository replayCacheRepository;
+
+    @Mock
+    private ExecutorService executorService;
+
+    private ReplayProtectionService replayProtectionService;
+
+    private final long expiresAt = System.currentTimeMillis() + 60_000;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        replayProtectionService = new ReplayProtectionService(Optional.of(replayCacheRepository), executorService);
+        ReflectionTestUtils.setField(replayProtectionService, "usePersistentReplayCache", true);
+    }
+
+    @Test
+    void testNewJtiIsAccepted() {
+        String jti = UUID.randomUUID().toString();
+        when(replayCacheRepository.insertIfAbsent(eq(jti), any(Instant.class))).thenReturn(true);
+
+        assertTrue(replayProtectionService.registerJti(jti, expiresAt));
+        verify(replayCacheRepository).insertIfAbsent(jti, Instant.ofEpochMilli(expiresAt));
+    }
+
+    @Test
+    void testReplayIsRejectedLocally() {
+        String jti = UUID.randomUUID().toString();
+        when(replayCacheRepository.insertIfAbsent(eq(jti), any(Instant.class))).thenReturn(true);
+
+        assertTrue(replayProtectionService.registerJti(jti, expiresAt));
+        assertFalse(replayProtectionService.registerJti(jti, expiresAt), "Replayed jti should be rejected");
+        verify(replayCacheRepository, times(1)).insertIfAbsent(anyString(), any(Instant.class));
+    }
+
+    @Test
+    void testReplayAtOtherInstanceIsRejected() {
+        String jti = UUID.randomUUID().toString();
+        when(replayCacheRepository.insertIfAbsent(eq(jti), any(Instant.class))).thenReturn(false);
+
+        assertFalse(replayProtectionService.registerJti(jti, expiresAt), "Jti known to the repository should be rejected");
+    }
+
+    @Test
+    void testRepositoryFailureIsRejected() {
+        String jti = UUID.randomUUID().toString();
+        when(replayCacheRepository.insertIfAbsent(eq(jti), any(Instant.class))).thenThrow(new RuntimeException("db down"));
+
+        assertFalse(replayProtectionService.registerJti(jti, expiresAt), "Jti should be rejected if the check fails");
+    }
+
+    @Test
+    void testNullJtiIsRejected() {
+        assertFalse(replayProtectionService.registerJti(null, expiresAt));
+        verifyNoInteractions(replayCacheRepository);
+    }
+
+    @Test
+    void testInMemoryOnly() {
+        ReflectionTestUtils.setField(replayProtectionService, "usePersistentReplayCache", false);
+        String jti = UUID.randomUUID().toString();
+
+        assertTrue(replayProtectionService.registerJti(jti, expiresAt));
+        assertFalse(replayProtectionService.registerJti(jti, expiresAt));
+        verifyNoInteractions(replayCacheRepository);
+    }
+
+    @Test
+    void testWithoutRepository() {
+        replayProtectionService = new ReplayProtectionService(Optional.empty(), executorService);
+        ReflectionTestUtils.setField(replayProtectionService, "usePersistentReplayCache", true);
+        String jti = UUID.randomUUID().toString();
+
+        assertTrue(replayProtectionService.registerJti(jti, expiresAt));
+        assertFalse(replayProtectionService.registerJti(jti, expiresAt));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DcpValidationMetrics;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.DidDocumentResolver;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.SecurityCacheSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static org.factoryx.library.connector.embedded.provider.service.helpers.JsonUtils.parse;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SecurityCacheSnapshotServiceTest {
+
+    private static final String PARTNER_DID = "did:web:partner";
+    private static final String KEY_ID = PARTNER_DID + "#key-1";
+    private static final String HMAC_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Mock
+    private RestClient restClient;
+
+    @Mock
+    private ExecutorService executorService;
+
+    @TempDir
+    Path tempDir;
+
+    private ECKey key;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        key = new ECKeyGenerator(Curve.P_256).keyID(KEY_ID).generate();
+    }
+
+    private JsonObject didDocument() {
+        return Json.createObjectBuilder()
+                .add("id", PARTNER_DID)
+                .add("verificationMethod", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder()
+                                .add("id", KEY_ID)
+                                .add("type", "JsonWebKey2020")
+                                .add("publicKeyJwk", parse(key.toPublicJWK().toJSONString()))))
+                .build();
+    }
+
+    private SecurityCacheSnapshotService snapshotService(DidDocumentResolver resolver, Path path) {
+        var service = new SecurityCacheSnapshotService(resolver, executorService);
+        ReflectionTestUtils.setField(service, "snapshotPath", path.toString());
+        ReflectionTestUtils.setField(service, "snapshotInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(service, "hmacKey", HMAC_KEY);
+        return service;
+    }
+
+    private SignedJWT signedToken() throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256).keyID(KEY_ID).build(),
+                new JWTClaimsSet.Builder().subject(PARTNER_DID).build());
+        jwt.sign(new ECDSASigner(key));
+        return jwt;
+    }
+
+    private Path writeSnapshot() {
+        Path snapshotFile = tempDir.resolve("snapshot.json");
+        var resolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.empty()));
+        assertTrue(resolver.restoreDidDocument(PARTNER_DID,
+                new DidDocumentResolver.DidDocCacheEntry(didDocument(), Instant.now(), "https://"), Duration.ofDays(1)));
+        snapshotService(resolver, snapshotFile).writeSnapshot();
+        assertTrue(Files.exists(snapshotFile), "Snapshot file should have been written");
+        return snapshotFile;
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws Exception {
+        Path snapshotFile = writeSnapshot();
+
+        var restartedResolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.empty()));
+        snapshotService(restartedResolver, snapshotFile).restoreSnapshot();
+
+        assertTrue(restartedResolver.verifyTokenSignature(signedToken(), PARTNER_DID, "https://"),
+                "Restored verifier should validate the signature");
+        verifyNoInteractions(restClient);
+        verify(executorService).submit(any(Runnable.class));
+        Instant restoredLastUpdated = restartedResolver.exportDidDocuments().get(PARTNER_DID).lastUpdated();
+        assertTrue(restoredLastUpdated.isBefore(Instant.now().plus(Duration.ofMinutes(5)).minus(Duration.ofDays(1)).plusSeconds(1)),
+                "Restored did-document should expire after the restored ttl");
+    }
+
+    @Test
+    void testTamperedSnapshotIsNotRestored() throws Exception {
+        Path snapshotFile = writeSnapshot();
+        JsonObject file = parse(Files.readString(snapshotFile));
+        String tampered = file.getString("snapshot").replace(PARTNER_DID, "did:web:attacker");
+        Files.writeString(snapshotFile, Json.createObjectBuilder(file).add("snapshot", tampered).build().toString());
+
+        var restartedResolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.empty()));
+        snapshotService(restartedResolver, snapshotFile).restoreSnapshot();
+        assertTrue(restartedResolver.exportDidDocuments().isEmpty());
+    }
+
+    @Test
+    void testRestoredDidDocumentIsNotUsedAfterRestoredTtl() throws Exception {
+        Path snapshotFile = writeSnapshot();
+
+        var restartedResolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.empty()));
+        var service = snapshotService(restartedResolver, snapshotFile);
+        ReflectionTestUtils.setField(service, "restoredTtl", Duration.ZERO);
+        service.restoreSnapshot();
+
+        assertFalse(restartedResolver.verifyTokenSignature(signedToken(), PARTNER_DID, "https://"),
+                "Keys of an expired restored did-document must not be accepted");
+    }
+
+    @Test
+    void testExpiredEntryIsNotRestored() {
+        var resolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.empty()));
+        var expired = new DidDocumentResolver.DidDocCacheEntry(didDocument(), Instant.now().minus(Duration.ofDays(2)), "https://");
+        assertFalse(resolver.restoreDidDocument(PARTNER_DID, expired, Duration.ofMinutes(5)));
+        assertTrue(resolver.exportDidDocuments().isEmpty());
+    }
+
+    @Test
+    void testEntryForOtherDidIsNotRestored() {
+        var resolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.empty()));
+        var entry = new DidDocumentResolver.DidDocCacheEntry(didDocument(), Instant.now(), "https://");
+        assertFalse(resolver.restoreDidDocument("did:web:someone-else", entry, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void testMissingSnapshotIsIgnored() {
+        var resolver = new DidDocumentResolver(restClient, new DcpValidationMetrics(Optional.empty()));
+        snapshotService(resolver, tempDir.resolve("missing.json")).restoreSnapshot();
+        assertTrue(resolver.exportDidDocuments().isEmpty());
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.factoryx.library.connector.embedded.provider.repository.SigningKeyRepository;
+import org.factoryx.library.connector.embedded.provider.service.SigningKeyring;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SigningKeyringTest {
+
+    private static final String MASTER_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Mock
+    private ExecutorService executorService;
+
+    private InMemorySigningKeyRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        repository = new InMemorySigningKeyRepository();
+    }
+
+    private SigningKeyring createNode(String masterKey) {
+        SigningKeyring signingKeyring = new SigningKeyring(Optional.of(repository), executorService);
+        ReflectionTestUtils.setField(signingKeyring, "masterKey", masterKey);
+        return signingKeyring;
+    }
+
+    @Test
+    void testKeyOfOtherNodeIsFound() {
+        SigningKeyring nodeA = createNode(MASTER_KEY);
+        SigningKeyring nodeB = createNode(MASTER_KEY);
+        String kid = nodeA.currentKey().kid();
+
+        assertNotNull(nodeB.getVerifier(kid));
+        assertEquals(kid, nodeB.currentKey().kid(), "Node B should adopt the current key of node A");
+    }
+
+    @Test
+    void testRotatedKeyOfOtherNodeIsReloaded() {
+        SigningKeyring nodeA = createNode(MASTER_KEY);
+        SigningKeyring nodeB = createNode(MASTER_KEY);
+        nodeB.currentKey();
+        nodeA.rotate();
+
+        assertNotNull(nodeB.getVerifier(nodeA.currentKey().kid()));
+    }
+
+    @Test
+    void testSecretsAreStoredEncrypted() {
+        SigningKeyring node = createNode(MASTER_KEY);
+        String kid = node.currentKey().kid();
+        var stored = repository.keys.get(kid);
+        assertNotNull(stored);
+        assertEquals(2, stored.encryptedSecret().split("\\.").length);
+
+        SigningKeyring nodeWithOtherMasterKey = createNode(Base64.getEncoder().encodeToString(new byte[16]));
+        assertNull(nodeWithOtherMasterKey.getVerifier(kid), "A key must not be usable without the master key");
+    }
+
+    @Test
+    void testKeysAreNotSharedWithoutMasterKey() {
+        SigningKeyring node = createNode("");
+        assertNotNull(node.getVerifier(node.currentKey().kid()));
+        assertTrue(repository.keys.isEmpty());
+    }
+
+    @Test
+    void testUnknownKeyIdIsRejected() {
+        SigningKeyring node = createNode(MASTER_KEY);
+        assertNull(node.getVerifier(UUID.randomUUID().toString()));
+        assertNull(node.getVerifier(null));
+    }
+
+    @Test
+    void testNoPublicKeysForHmac() {
+        SigningKeyring node = createNode("");
+        node.currentKey();
+        assertTrue(node.getPublicKeys().getKeys().isEmpty());
+    }
+
+    @Test
+    void testEcKeyPairIsPublished() {
+        SigningKeyring node = createNode("");
+        ReflectionTestUtils.setField(node, "algorithm", "ES256");
+        SigningKeyring.SigningKey key = node.currentKey();
+        assertEquals(JWSAlgorithm.ES256, key.algorithm());
+
+        JWKSet publicKeys = node.getPublicKeys();
+        assertEquals(1, publicKeys.getKeys().size());
+        JWK jwk = publicKeys.getKeyByKeyId(key.kid());
+        assertNotNull(jwk);
+        assertFalse(jwk.isPrivate(), "Only the public key must be published");
+        assertFalse(publicKeys.toString(true).contains("\"d\""));
+    }
+
+    @Test
+    void testSharedEdDsaKeyPairOfOtherNodeIsFound() {
+        SigningKeyring nodeA = createNode(MASTER_KEY);
+        SigningKeyring nodeB = createNode(MASTER_KEY);
+        ReflectionTestUtils.setField(nodeA, "algorithm", "EdDSA");
+        ReflectionTestUtils.setField(nodeB, "algorithm", "EdDSA");
+        String kid = nodeA.currentKey().kid();
+        assertEquals("EdDSA", repository.keys.get(kid).algorithm(), "The algorithm should be stored along with the key");
+
+        assertNotNull(nodeB.getVerifier(kid));
+        assertNotNull(nodeB.getPublicKeys().getKeyByKeyId(kid));
+        assertEquals(JWSAlgorithm.EdDSA, nodeB.currentKey().algorithm());
+    }
+
+    @Test
+    void testOnlyOneThreadRotates() throws Exception {
+        SigningKeyring node = createNode(MASTER_KEY);
+        String initialKid = node.currentKey().kid();
+        ReflectionTestUtils.setField(node, "keyRotationInterval", Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        repository.storeEntered = new CountDownLatch(1);
+        repository.storeReleased = new CountDownLatch(1);
+        CompletableFuture<String> rotating = CompletableFuture.supplyAsync(() -> node.currentKey().kid());
+        assertTrue(repository.storeEntered.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<String>> others = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            others.add(CompletableFuture.supplyAsync(() -> node.currentKey().kid()));
+        }
+        for (CompletableFuture<String> other : others) {
+            assertEquals(initialKid, other.get(5, TimeUnit.SECONDS), "Threads losing the claim should keep the current key");
+        }
+        assertEquals(1, repository.keys.size());
+
+        repository.storeReleased.countDown();
+        assertNotEquals(initialKid, rotating.get(5, TimeUnit.SECONDS));
+        assertEquals(2, repository.keys.size(), "No orphaned keys should be stored");
+    }
+
+    private static class InMemorySigningKeyRepository implements SigningKeyRepository {
+
+        private final Map<String, StoredSigningKey> keys = new ConcurrentHashMap<>();
+        private volatile CountDownLatch storeEntered;
+        private volatile CountDownLatch storeReleased;
+
+        @Override
+        public void storeKey(StoredSigningKey key) {
+            if (storeEntered != null) {
+                storeEntered.countDown();
+                try {
+                    storeReleased.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            keys.put(key.kid(), key);
+        }
+
+        @Override
+        public List<StoredSigningKey> loadKeysCreatedAfter(Instant threshold) {
+            return keys.values().stream().filter(key -> key.createdAt().isAfter(threshold)).toList();
+        }
+
+        @Override
+        public void deleteAllByCreatedAtBefore(Instant threshold) {
+            keys.values().removeIf(key -> key.createdAt().isBefore(threshold));
+        }
+    }
+}
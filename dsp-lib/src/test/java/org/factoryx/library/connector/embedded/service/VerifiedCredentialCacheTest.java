@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025. Fraunhofer-Gesellschaft zur Foerderung der angewandten Forschung e.V. (represented by Fraunhofer ISST)
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.factoryx.library.connector.embedded.service;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import org.factoryx.library.connector.embedded.provider.service.dsp_validation.dcp.VerifiedCredentialCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedCredentialCacheTest {
+
+    private static final String PARTNER_DID = "did:web:partner";
+    private static final Map<String, String> PROPERTIES = Map.of("partnerId", PARTNER_DID, "credentials", "dataspacemember");
+
+    private VerifiedCredentialCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedCredentialCache();
+        ReflectionTestUtils.setField(cache, "maxAge", Duration.ofMinutes(10));
+    }
+
+    private JsonObject didDocument(String keyId) {
+        return Json.createObjectBuilder()
+                .add("id", PARTNER_DID)
+                .add("verificationMethod", Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder().add("id", keyId).add("type", "JsonWebKey2020")))
+                .build();
+    }
+
+    @Test
+    void testCachedUntilExpiry() {
+        cache.put(PARTNER_DID, didDocument("key-1"), PROPERTIES, System.currentTimeMillis() + 60_000);
+        assertEquals(PROPERTIES, cache.get(PARTNER_DID, didDocument("key-1")));
+    }
+
+    @Test
+    void testExpiredEntryIsDropped() {
+        cache.put(PARTNER_DID, didDocument("key-1"), PROPERTIES, System.currentTimeMillis() - 1);
+        assertNull(cache.get(PARTNER_DID, didDocument("key-1")), "Expired entry should not be returned");
+    }
+
+    @Test
+    void testMaxAgeCapsLifetime() {
+        ReflectionTestUtils.setField(cache, "maxAge", Duration.ofMillis(1));
+        cache.put(PARTNER_DID, didDocument("key-1"), PROPERTIES, Long.MAX_VALUE);
+        long deadline = System.currentTimeMillis() + 10;
+        while (System.currentTimeMillis() <= deadline) {
+            Thread.onSpinWait();
+        }
+        assertNull(cache.get(PARTNER_DID, didDocument("key-1")), "Entry should not outlive the max age");
+    }
+
+    @Test
+    void testChangedKeySetInvalidates() {
+        cache.put(PARTNER_DID, didDocument("key-1"), PROPERTIES, Long.MAX_VALUE);
+        assertNull(cache.get(PARTNER_DID, didDocument("key-2")), "Changed key set should force re-verification");
+        assertNull(cache.get(PARTNER_DID, didDocument("key-1")), "Entry should have been dropped");
+    }
+
+    @Test
+    void testDisabled() {
+        ReflectionTestUtils.setField(cache, "maxAge", Duration.ZERO);
+        cache.put(PARTNER_DID, didDocument("key-1"), PROPERTIES, Long.MAX_VALUE);
+        assertNull(cache.get(PARTNER_DID, didDocument("key-1")));
+    }
+}